@@ -0,0 +1,304 @@
+package com.reliaquest.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.client.AdaptiveRateLimiter;
+import com.reliaquest.api.client.CircuitBreaker;
+import com.reliaquest.api.client.EmployeeChange;
+import com.reliaquest.api.client.UpstreamPriority;
+import com.reliaquest.api.exception.UpstreamUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@link EmployeeSnapshotCache} current from the mock server's change stream instead of by polling.
+ * <p>
+ * Subscribes with {@code Last-Event-ID} set to the snapshot's version and applies each pushed change as it arrives;
+ * heartbeats confirm the snapshot is still current, so the scheduled refresh never comes due while the stream is up.
+ * When the stream drops it reconnects with backoff, again from the snapshot's version, so no change is lost. If the
+ * server can no longer resume from that version, or a change arrives out of sequence, the cache is refreshed through
+ * its usual delta-or-full path and the subscription restarts from there.
+ * <p>
+ * The mock server counts every connect against the same request limit as the other calls, so connects go through the
+ * {@link AdaptiveRateLimiter} as background calls and through the {@link CircuitBreaker}. A reconnect that is shed or
+ * rejected waits out the {@code Retry-After} it was given, so an outage or a used-up budget does not turn into a
+ * reconnect loop. The open stream itself holds no in-flight slot.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "employee.cache.push.enabled", havingValue = "true")
+public class EmployeeChangeSubscriber implements SmartLifecycle {
+    private static final String CHANGE_EVENT = "change";
+    private static final String HEARTBEAT_EVENT = "heartbeat";
+    private static final String RESYNC_EVENT = "resync";
+    private static final String STREAM_OPERATION = "change-stream";
+
+    private final EmployeeSnapshotCache employeeSnapshotCache;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final URI streamUri;
+    private final Duration reconnectBackoff;
+    private final Duration maxReconnectBackoff;
+    private final Duration idleTimeout;
+    private final HttpClient httpClient;
+    private volatile boolean running;
+    private volatile Thread worker;
+    private volatile Stream<String> openStream;
+    private volatile Instant lastEventAt = Instant.now();
+    private ScheduledFuture<?> idleCheck;
+
+    public EmployeeChangeSubscriber(EmployeeSnapshotCache employeeSnapshotCache,
+                                    ObjectMapper objectMapper,
+                                    TaskScheduler taskScheduler,
+                                    AdaptiveRateLimiter rateLimiter,
+                                    CircuitBreaker circuitBreaker,
+                                    @Value("${employee.api.base-url}") String baseUrl,
+                                    @Value("${employee.http.connect-timeout:PT5S}") Duration connectTimeout,
+                                    @Value("${employee.cache.push.reconnect-backoff:PT1S}") Duration reconnectBackoff,
+                                    @Value("${employee.cache.push.max-reconnect-backoff:PT30S}")
+                                    Duration maxReconnectBackoff,
+                                    @Value("${employee.cache.push.idle-timeout:PT20S}") Duration idleTimeout) {
+        this.employeeSnapshotCache = employeeSnapshotCache;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.streamUri = URI.create(baseUrl + "/changes/stream");
+        this.reconnectBackoff = reconnectBackoff;
+        this.maxReconnectBackoff = maxReconnectBackoff;
+        this.idleTimeout = idleTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    @Override
+    public void start() {
+        if (!employeeSnapshotCache.isEnabled()) {
+            log.info("Employee cache is disabled, not subscribing to employee changes");
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "employee-change-subscriber");
+        worker.setDaemon(true);
+        worker.start();
+        idleCheck = taskScheduler.scheduleWithFixedDelay(this::closeIfIdle, idleTimeout.dividedBy(2));
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        idleCheck.cancel(false);
+        closeOpenStream();
+        worker.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        int failures = 0;
+        while (running) {
+            Duration retryAfter = Duration.ZERO;
+            try {
+                Long since = employeeSnapshotCache.version();
+                if (since == null) {
+                    since = UpstreamPriority.callAs(UpstreamPriority.BACKGROUND,
+                            () -> employeeSnapshotCache.get().version());
+                }
+                if (since == null) {
+                    log.warn("The employee server sends no roster version, so its change stream cannot be used");
+                    running = false;
+                    return;
+                }
+                failures = subscribe(since) ? 0 : failures + 1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (UpstreamUnavailableException e) {
+                failures++;
+                retryAfter = e.getRetryAfter();
+                log.debug("Not connecting to the employee change stream: {}", e.getMessage());
+            } catch (Exception e) {
+                failures++;
+                log.debug("Employee change stream failed: {}", e.getMessage());
+            }
+            if (!running) {
+                return;
+            }
+            try {
+                Duration backoff = backoff(failures);
+                Thread.sleep((retryAfter.compareTo(backoff) > 0 ? retryAfter : backoff).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the stream until it ends.
+     *
+     * @return whether any event arrived, which resets the reconnect backoff
+     */
+    private boolean subscribe(long since) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(streamUri)
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", Long.toString(since))
+                .GET()
+                .build();
+        HttpResponse<Stream<String>> response = connect(request);
+        boolean received = false;
+        try (Stream<String> lines = response.body()) {
+            openStream = lines;
+            lastEventAt = Instant.now();
+            log.debug("Subscribed to employee changes from version {}", since);
+            String event = null;
+            StringBuilder data = new StringBuilder();
+            Iterator<String> iterator = lines.iterator();
+            while (running && iterator.hasNext()) {
+                String line = iterator.next();
+                if (line.isEmpty()) {
+                    if (event != null || !data.isEmpty()) {
+                        received = true;
+                        lastEventAt = Instant.now();
+                        if (!dispatch(event, data.toString())) {
+                            return true;
+                        }
+                    }
+                    event = null;
+                    data.setLength(0);
+                } else if (!line.startsWith(":")) {
+                    int colon = line.indexOf(':');
+                    String field = colon < 0 ? line : line.substring(0, colon);
+                    String value = colon < 0 ? "" : line.substring(colon + 1).replaceFirst("^ ", "");
+                    if ("event".equals(field)) {
+                        event = value;
+                    } else if ("data".equals(field)) {
+                        data.append(data.isEmpty() ? "" : "\n").append(value);
+                    }
+                }
+            }
+        } catch (IllegalStateException | UncheckedIOException e) {
+            // The line stream reports I/O failures, including closeIfIdle closing it, unchecked.
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            openStream = null;
+        }
+        return received;
+    }
+
+    /**
+     * Sends {@code request} through the circuit breaker and the rate limiter, and reports how it was answered to both.
+     *
+     * @return the response, which has status 200
+     */
+    private HttpResponse<Stream<String>> connect(HttpRequest request) throws IOException, InterruptedException {
+        circuitBreaker.acquire(STREAM_OPERATION);
+        Throwable failure = null;
+        try {
+            UpstreamPriority.runAs(UpstreamPriority.BACKGROUND, rateLimiter::acquirePermit);
+            HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+            HttpHeaders headers = new HttpHeaders();
+            response.headers().firstValue(HttpHeaders.RETRY_AFTER)
+                    .ifPresent(retryAfter -> headers.set(HttpHeaders.RETRY_AFTER, retryAfter));
+            rateLimiter.onResponse(response.statusCode(), headers);
+            if (response.statusCode() != 200) {
+                response.body().close();
+                throw statusFailure(response.statusCode());
+            }
+            return response;
+        } catch (IOException e) {
+            failure = new ResourceAccessException(e.getMessage(), e);
+            throw e;
+        } catch (RuntimeException | InterruptedException e) {
+            failure = e;
+            throw e;
+        } finally {
+            circuitBreaker.onResult(failure);
+        }
+    }
+
+    private static RuntimeException statusFailure(int status) {
+        HttpStatusCode statusCode = HttpStatusCode.valueOf(status);
+        String message = "Employee change stream answered " + status;
+        return statusCode.is5xxServerError()
+                ? new HttpServerErrorException(statusCode, message)
+                : new HttpClientErrorException(statusCode, message);
+    }
+
+    /**
+     * @return false to drop this subscription and start a new one from the snapshot's version
+     */
+    private boolean dispatch(String event, String data) throws IOException {
+        if (CHANGE_EVENT.equals(event)) {
+            EmployeeChange change = objectMapper.readValue(data, EmployeeChange.class);
+            if (!employeeSnapshotCache.applyChange(change)) {
+                log.debug("Employee change {} is out of sequence, catching up", change.version());
+                catchUp();
+                return false;
+            }
+        } else if (HEARTBEAT_EVENT.equals(event)) {
+            employeeSnapshotCache.confirmVersion(Long.parseLong(data.trim()));
+        } else if (RESYNC_EVENT.equals(event)) {
+            log.debug("Employee change stream cannot resume, catching up");
+            catchUp();
+            return false;
+        }
+        return true;
+    }
+
+    private void catchUp() {
+        UpstreamPriority.callAs(UpstreamPriority.BACKGROUND, employeeSnapshotCache::forceRefresh);
+    }
+
+    private void closeIfIdle() {
+        if (openStream != null && Duration.between(lastEventAt, Instant.now()).compareTo(idleTimeout) > 0) {
+            log.debug("No employee change or heartbeat for {}, reconnecting", idleTimeout);
+            closeOpenStream();
+        }
+    }
+
+    private void closeOpenStream() {
+        Stream<String> stream = openStream;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private Duration backoff(int failures) {
+        if (failures == 0) {
+            return Duration.ZERO;
+        }
+        long base = Math.min(maxReconnectBackoff.toMillis(), reconnectBackoff.toMillis() << Math.min(failures - 1, 20));
+        return Duration.ofMillis(base / 2 + ThreadLocalRandom.current().nextLong(base - base / 2 + 1));
+    }
+}
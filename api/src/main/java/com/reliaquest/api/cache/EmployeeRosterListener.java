@@ -0,0 +1,15 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.model.Employee;
+
+/**
+ * Receives every change {@link EmployeeSnapshotCache} makes to its roster, so derived structures can be kept up to date
+ * without rebuilding them from the full list. Calls are made one at a time, in the order the changes happen; a changed
+ * employee is reported as a removal of the old value followed by an addition of the new one.
+ */
+public interface EmployeeRosterListener {
+
+    void onEmployeeAdded(Employee employee);
+
+    void onEmployeeRemoved(Employee employee);
+}
@@ -0,0 +1,100 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.client.EmployeeChange;
+import com.reliaquest.api.client.EmployeeChanges;
+import com.reliaquest.api.model.Employee;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, point-in-time copy of the upstream roster. Local writes produce a new snapshot that keeps the original
+ * {@code fetchedAt} so the TTL still tracks the last full refresh. They keep the {@code etag} and {@code version}
+ * too: each of them also changed the server's roster, so the old tag can no longer match there, and the change feed
+ * from the old version replays them.
+ *
+ * @param etag    the server's entity tag for the roster this snapshot was loaded from, or null if it sent none
+ * @param version the server's version of that roster, or null if it sent none
+ */
+public record EmployeeSnapshot(List<Employee> employees, Map<String, Employee> employeesById, String etag,
+                               Long version, Instant fetchedAt) {
+
+    public static EmployeeSnapshot of(List<Employee> employees, String etag, Long version, Instant fetchedAt) {
+        Map<String, Employee> byId = new LinkedHashMap<>();
+        for (Employee employee : employees) {
+            byId.put(employee.getId(), employee);
+        }
+        return new EmployeeSnapshot(List.copyOf(byId.values()), Collections.unmodifiableMap(byId), etag, version,
+                fetchedAt);
+    }
+
+    public Duration age() {
+        return Duration.between(fetchedAt, Instant.now());
+    }
+
+    /**
+     * The same roster, confirmed current by the server at {@code fetchedAt}.
+     */
+    public EmployeeSnapshot revalidatedAt(Instant fetchedAt) {
+        return new EmployeeSnapshot(employees, employeesById, etag, version, fetchedAt);
+    }
+
+    /**
+     * This roster with the server's changes since {@link #version()} applied in one pass.
+     */
+    public EmployeeSnapshot withChanges(EmployeeChanges changes, Instant fetchedAt) {
+        if (changes.changes().isEmpty()) {
+            return new EmployeeSnapshot(employees, employeesById, changes.etag(), changes.version(), fetchedAt);
+        }
+        Map<String, Employee> byId = new LinkedHashMap<>(employeesById);
+        for (EmployeeChange change : changes.changes()) {
+            if (change.type() == EmployeeChange.Type.DELETED) {
+                byId.remove(change.id());
+            } else {
+                // Re-adding moves the employee to the end, where a newly created one would be.
+                byId.remove(change.id());
+                byId.put(change.id(), change.employee());
+            }
+        }
+        return of(new ArrayList<>(byId.values()), changes.etag(), changes.version(), fetchedAt);
+    }
+
+    public EmployeeSnapshot withEmployee(Employee employee) {
+        List<Employee> employees = new ArrayList<>(this.employees.size() + 1);
+        for (Employee existing : this.employees) {
+            if (!existing.getId().equals(employee.getId())) {
+                employees.add(existing);
+            }
+        }
+        employees.add(employee);
+        return of(employees, etag, version, fetchedAt);
+    }
+
+    /**
+     * {@link #withEmployee(Employee)} and {@link #withoutEmployee(String)} for many employees in one pass.
+     */
+    public EmployeeSnapshot withEmployees(Collection<Employee> added, Collection<String> removedIds) {
+        Map<String, Employee> byId = new LinkedHashMap<>(employeesById);
+        removedIds.forEach(byId::remove);
+        for (Employee employee : added) {
+            byId.remove(employee.getId());
+            byId.put(employee.getId(), employee);
+        }
+        return of(new ArrayList<>(byId.values()), etag, version, fetchedAt);
+    }
+
+    public EmployeeSnapshot withoutEmployee(String id) {
+        if (!employeesById.containsKey(id)) {
+            return this;
+        }
+        List<Employee> employees = new ArrayList<>(this.employees);
+        employees.removeIf(existing -> existing.getId().equals(id));
+        return of(employees, etag, version, fetchedAt);
+    }
+}
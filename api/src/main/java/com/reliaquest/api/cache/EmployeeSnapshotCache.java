@@ -0,0 +1,448 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.client.CircuitBreaker;
+import com.reliaquest.api.client.EmployeeApiClient;
+import com.reliaquest.api.client.EmployeeChange;
+import com.reliaquest.api.client.EmployeeChanges;
+import com.reliaquest.api.client.EmployeeRoster;
+import com.reliaquest.api.client.UpstreamPriority;
+import com.reliaquest.api.exception.UpstreamUnavailableException;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.web.StaleResponseAdvice;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process copy of the employee roster so reads do not cost an upstream round-trip.
+ * <p>
+ * A snapshot younger than {@code ttl} is served as-is. Between {@code ttl} and {@code ttl + stale-while-revalidate}
+ * it is still served while a background refresh is kicked off; past that window readers load synchronously.
+ * The scheduler keeps the snapshot warm so the synchronous path is normally only hit on startup. Refreshes it starts
+ * run as {@link UpstreamPriority#BACKGROUND} so they give way to user requests when the upstream budget is tight.
+ * <p>
+ * Every change, whether from a refresh or a local write, is passed on to the {@link EmployeeRosterListener}s. A refresh
+ * is diffed against the previous snapshot so listeners only hear about employees that actually changed.
+ * <p>
+ * Refreshes first ask the server's change feed for the creates and deletes since the snapshot's version and apply
+ * only those, so a refresh costs O(changes) on the wire rather than O(roster). When the feed no longer reaches that
+ * far back, the roster is reread, conditional on the snapshot's entity tag: while the server's roster is unchanged it
+ * answers with a bare 304, and the snapshot is kept and its age reset without anything being downloaded or diffed.
+ * <p>
+ * When a snapshot past the stale-while-revalidate window cannot be refreshed, because the {@link CircuitBreaker} is
+ * open or the mock server failed, it is served anyway as the last known good roster and the response is marked stale
+ * through {@link StaleResponseAdvice}. So is an employee found in such a snapshot.
+ * <p>
+ * Reads are counted as {@code employee.cache.reads}, by kind ({@code roster} or {@code by-id}) and result: a
+ * {@code hit} is served fresh, a {@code stale} read is served while a refresh runs, a {@code fallback} is served from
+ * the last known good roster, and a {@code miss} is not served from the snapshot.
+ */
+@Slf4j
+@Component
+public class EmployeeSnapshotCache {
+    private final EmployeeApiClient employeeApiClient;
+    private final TaskScheduler taskScheduler;
+    private final List<EmployeeRosterListener> listeners;
+    private final CircuitBreaker circuitBreaker;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration staleWhileRevalidate;
+    private final boolean deltaSync;
+    private final Counter rosterHits;
+    private final Counter rosterStaleHits;
+    private final Counter rosterFallbacks;
+    private final Counter rosterMisses;
+    private final Counter idHits;
+    private final Counter idMisses;
+    private final AtomicBoolean backgroundRefreshPending = new AtomicBoolean();
+    // Not a monitor: refreshes hold it across upstream calls, which would pin a virtual thread to its carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile EmployeeSnapshot snapshot;
+
+    public EmployeeSnapshotCache(EmployeeApiClient employeeApiClient,
+                                 TaskScheduler taskScheduler,
+                                 List<EmployeeRosterListener> listeners,
+                                 MeterRegistry meterRegistry,
+                                 CircuitBreaker circuitBreaker,
+                                 @Value("${employee.cache.enabled:true}") boolean enabled,
+                                 @Value("${employee.cache.ttl:PT30S}") Duration ttl,
+                                 @Value("${employee.cache.stale-while-revalidate:PT2M}") Duration staleWhileRevalidate,
+                                 @Value("${employee.cache.delta-sync:true}") boolean deltaSync) {
+        this.employeeApiClient = employeeApiClient;
+        this.taskScheduler = taskScheduler;
+        this.listeners = listeners;
+        this.circuitBreaker = circuitBreaker;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.deltaSync = deltaSync;
+        this.rosterHits = readCounter(meterRegistry, "roster", "hit");
+        this.rosterStaleHits = readCounter(meterRegistry, "roster", "stale");
+        this.rosterFallbacks = readCounter(meterRegistry, "roster", "fallback");
+        this.rosterMisses = readCounter(meterRegistry, "roster", "miss");
+        this.idHits = readCounter(meterRegistry, "by-id", "hit");
+        this.idMisses = readCounter(meterRegistry, "by-id", "miss");
+        Gauge.builder("employee.cache.size", this, cache -> {
+                    EmployeeSnapshot current = cache.snapshot;
+                    return current == null ? 0 : current.employees().size();
+                })
+                .description("Employees in the current snapshot")
+                .register(meterRegistry);
+        Gauge.builder("employee.cache.age", this, cache -> {
+                    EmployeeSnapshot current = cache.snapshot;
+                    return current == null ? Double.NaN : current.age().toMillis() / 1000.0;
+                })
+                .description("Time since the current snapshot was loaded or last confirmed current")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String read, String result) {
+        return Counter.builder("employee.cache.reads")
+                .description("Reads that asked the employee snapshot first")
+                .tag("read", read)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public EmployeeSnapshot get() {
+        EmployeeSnapshot current = snapshot;
+        if (current == null) {
+            rosterMisses.increment();
+            return refresh(false);
+        }
+        Duration age = current.age();
+        if (age.compareTo(ttl) <= 0) {
+            rosterHits.increment();
+            return current;
+        }
+        if (age.compareTo(ttl.plus(staleWhileRevalidate)) <= 0) {
+            rosterStaleHits.increment();
+            refreshInBackground();
+            return current;
+        }
+        if (circuitBreaker.isOpen()) {
+            return lastKnownGood(current);
+        }
+        try {
+            EmployeeSnapshot refreshed = refresh(false);
+            rosterMisses.increment();
+            return refreshed;
+        } catch (RuntimeException e) {
+            if (!CircuitBreaker.isUpstreamFailure(e)) {
+                throw e;
+            }
+            log.debug("Employee snapshot could not be refreshed, serving the last known good one: {}", e.getMessage());
+            return lastKnownGood(current);
+        }
+    }
+
+    /**
+     * Like {@link #get()}, but never loads on the calling thread, so it is safe to call from an event loop. A missing
+     * or expired snapshot is loaded in the background for later callers.
+     *
+     * @return the snapshot if it may be served, otherwise empty
+     */
+    public Optional<EmployeeSnapshot> peek() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        EmployeeSnapshot current = snapshot;
+        if (current == null) {
+            rosterMisses.increment();
+            refreshInBackground();
+            return Optional.empty();
+        }
+        Duration age = current.age();
+        if (age.compareTo(ttl) <= 0) {
+            rosterHits.increment();
+            return Optional.of(current);
+        }
+        refreshInBackground();
+        if (age.compareTo(ttl.plus(staleWhileRevalidate)) <= 0) {
+            rosterStaleHits.increment();
+            return Optional.of(current);
+        }
+        if (circuitBreaker.isOpen()) {
+            return Optional.of(lastKnownGood(current));
+        }
+        rosterMisses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * @return the employee if it is in the current snapshot; never triggers a load
+     */
+    public Optional<Employee> find(String id) {
+        EmployeeSnapshot current = snapshot;
+        Optional<Employee> employee =
+                current == null ? Optional.empty() : Optional.ofNullable(current.employeesById().get(id));
+        if (enabled) {
+            (employee.isPresent() ? idHits : idMisses).increment();
+        }
+        if (employee.isPresent() && isPastStaleWindow(current)) {
+            StaleResponseAdvice.markStale(current.age());
+        }
+        return employee;
+    }
+
+    private boolean isPastStaleWindow(EmployeeSnapshot current) {
+        return current.age().compareTo(ttl.plus(staleWhileRevalidate)) > 0;
+    }
+
+    private EmployeeSnapshot lastKnownGood(EmployeeSnapshot current) {
+        rosterFallbacks.increment();
+        StaleResponseAdvice.markStale(current.age());
+        return current;
+    }
+
+    public void put(Employee employee) {
+        lock.lock();
+        try {
+            if (snapshot != null) {
+                Employee previous = snapshot.employeesById().get(employee.getId());
+                snapshot = snapshot.withEmployee(employee);
+                if (previous != null) {
+                    listeners.forEach(listener -> listener.onEmployeeRemoved(previous));
+                }
+                listeners.forEach(listener -> listener.onEmployeeAdded(employee));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.lock();
+        try {
+            if (snapshot != null) {
+                Employee previous = snapshot.employeesById().get(id);
+                snapshot = snapshot.withoutEmployee(id);
+                if (previous != null) {
+                    listeners.forEach(listener -> listener.onEmployeeRemoved(previous));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the outcome of a batch of local writes in one pass over the snapshot.
+     */
+    public void applyLocalWrites(Collection<Employee> added, Collection<String> removedIds) {
+        lock.lock();
+        try {
+            if (snapshot == null || (added.isEmpty() && removedIds.isEmpty())) {
+                return;
+            }
+            EmployeeSnapshot current = snapshot;
+            snapshot = current.withEmployees(added, removedIds);
+            for (String id : removedIds) {
+                Employee previous = current.employeesById().get(id);
+                if (previous != null) {
+                    listeners.forEach(listener -> listener.onEmployeeRemoved(previous));
+                }
+            }
+            for (Employee employee : added) {
+                Employee previous = current.employeesById().get(employee.getId());
+                if (previous != null) {
+                    listeners.forEach(listener -> listener.onEmployeeRemoved(previous));
+                }
+                listeners.forEach(listener -> listener.onEmployeeAdded(employee));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies one change pushed by the server. Changes the snapshot already has are ignored.
+     *
+     * @return false if the change does not directly follow the snapshot's version; the caller has to catch up some
+     *     other way
+     */
+    public boolean applyChange(EmployeeChange change) {
+        lock.lock();
+        try {
+            EmployeeSnapshot current = snapshot;
+            if (current == null || current.version() == null) {
+                return false;
+            }
+            if (change.version() <= current.version()) {
+                return true;
+            }
+            if (change.version() != current.version() + 1) {
+                return false;
+            }
+            // The server's tag for the new version is not pushed, so the next full read is unconditional.
+            EmployeeChanges changes = new EmployeeChanges(List.of(change), change.version(), null);
+            publishChanges(current, changes);
+            snapshot = current.withChanges(changes, Instant.now());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that the server's roster is still at {@code version}, which keeps a snapshot at that version fresh
+     * without a refresh.
+     */
+    public void confirmVersion(long version) {
+        lock.lock();
+        try {
+            EmployeeSnapshot current = snapshot;
+            if (current != null && current.version() != null && current.version() == version) {
+                snapshot = current.revalidatedAt(Instant.now());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the server's version of the current snapshot, or null if there is none or it is unknown
+     */
+    public Long version() {
+        EmployeeSnapshot current = snapshot;
+        return current == null ? null : current.version();
+    }
+
+    /**
+     * Refreshes now, however fresh the snapshot is.
+     */
+    public EmployeeSnapshot forceRefresh() {
+        return refresh(true);
+    }
+
+    @Scheduled(fixedDelayString = "${employee.cache.refresh-interval:PT5S}")
+    void scheduledRefresh() {
+        EmployeeSnapshot current = snapshot;
+        if (enabled && (current == null || current.age().compareTo(ttl) >= 0)) {
+            refreshQuietly();
+        }
+    }
+
+    private EmployeeSnapshot refresh(boolean force) {
+        lock.lock();
+        try {
+            // Another caller may have loaded while this one waited for the lock.
+            EmployeeSnapshot current = snapshot;
+            if (!force && current != null && current.age().compareTo(ttl) < 0) {
+                return current;
+            }
+            if (deltaSync && current != null && current.version() != null) {
+                Optional<EmployeeChanges> changes = employeeApiClient.fetchChangesSince(current.version());
+                if (changes.isPresent()) {
+                    EmployeeSnapshot synced = current.withChanges(changes.get(), Instant.now());
+                    publishChanges(current, changes.get());
+                    snapshot = synced;
+                    log.debug("Applied {} changes to employee snapshot", changes.get().changes().size());
+                    return synced;
+                }
+                log.debug("Change feed no longer reaches version {}, reloading employee snapshot", current.version());
+            }
+            Optional<EmployeeRoster> changed =
+                    employeeApiClient.fetchAllEmployeesIfChanged(current == null ? null : current.etag());
+            if (changed.isEmpty()) {
+                EmployeeSnapshot revalidated = current.revalidatedAt(Instant.now());
+                snapshot = revalidated;
+                log.debug("Employee snapshot is still current");
+                return revalidated;
+            }
+            EmployeeRoster roster = changed.get();
+            EmployeeSnapshot loaded = EmployeeSnapshot.of(roster.employees(), roster.etag(), roster.version(),
+                    Instant.now());
+            publishChanges(current, loaded);
+            snapshot = loaded;
+            log.debug("Refreshed employee snapshot with {} employees", loaded.employees().size());
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publishChanges(EmployeeSnapshot previous, EmployeeSnapshot next) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Map<String, Employee> before = previous == null ? Map.of() : previous.employeesById();
+        for (Employee old : before.values()) {
+            if (!old.equals(next.employeesById().get(old.getId()))) {
+                listeners.forEach(listener -> listener.onEmployeeRemoved(old));
+            }
+        }
+        for (Employee employee : next.employees()) {
+            if (!employee.equals(before.get(employee.getId()))) {
+                listeners.forEach(listener -> listener.onEmployeeAdded(employee));
+            }
+        }
+    }
+
+    private void publishChanges(EmployeeSnapshot previous, EmployeeChanges changes) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        // Track what listeners currently hold, since one employee can change several times in a batch.
+        Map<String, Employee> overlay = new HashMap<>();
+        for (EmployeeChange change : changes.changes()) {
+            Employee old = overlay.containsKey(change.id())
+                    ? overlay.get(change.id())
+                    : previous.employeesById().get(change.id());
+            Employee next = change.type() == EmployeeChange.Type.DELETED ? null : change.employee();
+            if (Objects.equals(old, next)) {
+                continue;
+            }
+            if (old != null) {
+                listeners.forEach(listener -> listener.onEmployeeRemoved(old));
+            }
+            if (next != null) {
+                listeners.forEach(listener -> listener.onEmployeeAdded(next));
+            }
+            overlay.put(change.id(), next);
+        }
+    }
+
+    private void refreshInBackground() {
+        if (backgroundRefreshPending.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                try {
+                    refreshQuietly();
+                } finally {
+                    backgroundRefreshPending.set(false);
+                }
+            }, Instant.now());
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            UpstreamPriority.runAs(UpstreamPriority.BACKGROUND, () -> refresh(false));
+        } catch (UpstreamUnavailableException e) {
+            log.debug("Background refresh of employee snapshot not possible now: {}", e.getMessage());
+        } catch (Exception e) {
+            log.warn("Background refresh of employee snapshot failed, keeping current snapshot", e);
+        }
+    }
+}
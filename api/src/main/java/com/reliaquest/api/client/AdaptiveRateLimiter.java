@@ -0,0 +1,431 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client-side limiter that learns the mock server's request budget so we stop sending requests it is going to reject.
+ * <p>
+ * The server lets a fixed number of requests through and then answers 429 until it has been quiet for a cooldown,
+ * neither of which is published. Until the first 429 the limiter only counts; from then on it hands out that many
+ * permits per window and, once they are spent, holds calls until the learned cooldown has passed. A 429 with permits
+ * left shrinks the budget, a 429 on the first call of a window lengthens the cooldown, and every
+ * {@code probe-after} clean windows the budget is raised by one in case the server allows more. Callers planning how
+ * many requests to make get {@code initial-budget} from {@link #expectedBudget()} until the budget is learned; it is
+ * only a guess, so calls are not held back by it.
+ * <p>
+ * {@link UpstreamPriority#USER} calls wait up to {@code max-wait} for a permit. {@link UpstreamPriority#BACKGROUND}
+ * calls never wait and cannot use the last {@code background-reserve} share of a window. Shed calls fail with
+ * {@link UpstreamUnavailableException}.
+ * <p>
+ * At most {@code max-in-flight} calls are in flight at once, under the same wait rules, so the number of callers (which
+ * is effectively unbounded with virtual request threads) never turns into the number of concurrent upstream requests.
+ * A blocking call holds its slot until its response is closed, so a slow body read still counts against the cap;
+ * a reactive call holds it until the response headers arrive.
+ * Waiting uses {@link ReentrantLock} and {@link Semaphore} rather than monitors, so a waiting virtual thread gives its
+ * carrier back. {@link #exchangeFilter()} applies the same limits to reactive calls without blocking at all.
+ */
+@Slf4j
+@Component
+public class AdaptiveRateLimiter implements ClientHttpRequestInterceptor {
+    // Slots are freed without a signal that a timer could wait for, so reactive callers look again this often.
+    private static final long SLOT_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int initialBudget;
+    private final Duration maxCooldown;
+    private final Duration maxWait;
+    private final double backgroundReserve;
+    private final int maxBudget;
+    private final int probeAfter;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition reopened = lock.newCondition();
+
+    private boolean learned;
+    private int budget;
+    private Duration cooldown;
+    private int permits;
+    private int acceptedInWindow;
+    private int cleanWindows;
+    private long lastAcceptedNanos = System.nanoTime();
+    private long reopenAtNanos;
+    private boolean closed;
+
+    public AdaptiveRateLimiter(MeterRegistry meterRegistry,
+                               @Value("${employee.limiter.enabled:true}") boolean enabled,
+                               @Value("${employee.limiter.initial-budget:5}") int initialBudget,
+                               @Value("${employee.limiter.initial-cooldown:PT30S}") Duration initialCooldown,
+                               @Value("${employee.limiter.max-cooldown:PT2M}") Duration maxCooldown,
+                               @Value("${employee.limiter.max-wait:PT1S}") Duration maxWait,
+                               @Value("${employee.limiter.background-reserve:0.4}") double backgroundReserve,
+                               @Value("${employee.limiter.max-budget:100}") int maxBudget,
+                               @Value("${employee.limiter.probe-after:10}") int probeAfter,
+                               @Value("${employee.limiter.max-in-flight:50}") int maxInFlight) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.initialBudget = initialBudget;
+        this.maxCooldown = maxCooldown;
+        this.maxWait = maxWait;
+        this.backgroundReserve = backgroundReserve;
+        this.maxBudget = maxBudget;
+        this.probeAfter = probeAfter;
+        this.cooldown = initialCooldown;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight, true);
+
+        Gauge.builder("employee.upstream.limiter.budget", this, limiter -> limiter.learnedBudget())
+                .description("Requests per window the limiter believes the employee server allows (0 until learned)")
+                .register(meterRegistry);
+        Gauge.builder("employee.upstream.limiter.cooldown", this, limiter -> limiter.learnedCooldown().toMillis())
+                .description("Quiet period the limiter believes the employee server needs after a full window")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("employee.upstream.limiter.in-flight", this, limiter -> limiter.inFlightCalls())
+                .description("Calls to the employee server currently holding an in-flight slot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        ClientHttpResponse response;
+        if (enabled) {
+            UpstreamPriority priority = UpstreamPriority.current();
+            long deadline = System.nanoTime() + (priority == UpstreamPriority.USER ? maxWait.toNanos() : 0);
+            acquireSlot(priority, deadline);
+            try {
+                acquire(priority, deadline);
+                // The slot is held while the body is read, and given back when the caller closes the response.
+                response = new SlotHoldingResponse(execution.execute(request, body), inFlight);
+            } catch (IOException | RuntimeException | Error e) {
+                inFlight.release();
+                throw e;
+            }
+        } else {
+            response = execution.execute(request, body);
+        }
+        onResponse(response.getStatusCode().value(), response.getHeaders());
+        return response;
+    }
+
+    /**
+     * The same limits for {@link org.springframework.web.reactive.function.client.WebClient} calls. Nothing blocks:
+     * a call that has to wait for a slot or a permit asks again on a timer, until {@code max-wait} has passed.
+     */
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> {
+            if (!enabled) {
+                return next.exchange(request).doOnNext(this::onResponse);
+            }
+            UpstreamPriority priority = UpstreamPriority.current();
+            long deadline = System.nanoTime() + (priority == UpstreamPriority.USER ? maxWait.toNanos() : 0);
+            return acquireLater(priority, deadline)
+                    .then(Mono.defer(() -> next.exchange(request).doFinally(signal -> inFlight.release())))
+                    .doOnNext(this::onResponse);
+        };
+    }
+
+    /**
+     * The same budget for a request sent with a client the limiter is not installed in, such as the change stream's
+     * connect: takes a permit under the wait rules of the current priority. No in-flight slot is taken, since the
+     * stream then stays open for as long as it is up. The answer is reported with
+     * {@link #onResponse(int, HttpHeaders)}.
+     *
+     * @throws UpstreamUnavailableException if the call is shed
+     */
+    public void acquirePermit() {
+        if (enabled) {
+            UpstreamPriority priority = UpstreamPriority.current();
+            acquire(priority, System.nanoTime() + (priority == UpstreamPriority.USER ? maxWait.toNanos() : 0));
+        }
+    }
+
+    private Mono<Void> acquireLater(UpstreamPriority priority, long deadline) {
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            long waitNanos = tryAcquire(priority, now);
+            if (waitNanos == 0) {
+                return Mono.empty();
+            }
+            if (now + waitNanos - deadline > 0) {
+                meterRegistry.counter("employee.upstream.limiter.shed", "priority", priority.name().toLowerCase())
+                        .increment();
+                return Mono.error(new UpstreamUnavailableException(
+                        "Employee server request budget is used up", Duration.ofNanos(waitNanos)));
+            }
+            return Mono.delay(Duration.ofNanos(waitNanos)).then(acquireLater(priority, deadline));
+        });
+    }
+
+    /**
+     * Takes a slot and a permit if both are free right now; the caller releases the slot.
+     *
+     * @return 0 if they were taken, otherwise how long to wait before asking again
+     */
+    private long tryAcquire(UpstreamPriority priority, long now) {
+        if (!inFlight.tryAcquire()) {
+            return SLOT_POLL_NANOS;
+        }
+        lock.lock();
+        try {
+            if (takePermit(priority, now)) {
+                return 0;
+            }
+            inFlight.release();
+            return closed ? Math.max(1, reopenAtNanos - now) : SLOT_POLL_NANOS;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onResponse(ClientResponse response) {
+        onResponse(response.statusCode().value(), response.headers().asHttpHeaders());
+    }
+
+    /**
+     * Learns from the status and {@code Retry-After} of a call let through by {@link #acquirePermit()}.
+     */
+    public void onResponse(int status, HttpHeaders headers) {
+        meterRegistry.counter("employee.upstream.responses", "status", String.valueOf(status)).increment();
+        if (enabled) {
+            if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                onRejected(UpstreamRetryExecutor.parseRetryAfter(headers.getFirst(HttpHeaders.RETRY_AFTER)));
+            } else {
+                onAccepted();
+            }
+        }
+    }
+
+    /**
+     * Takes one of the {@code max-in-flight} slots, waiting until {@code deadline} at most. The caller releases it.
+     */
+    void acquireSlot(UpstreamPriority priority, long deadline) {
+        try {
+            if (inFlight.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamUnavailableException("Interrupted waiting for an employee server slot", maxWait);
+        }
+        meterRegistry.counter("employee.upstream.limiter.shed", "priority", priority.name().toLowerCase())
+                .increment();
+        throw new UpstreamUnavailableException(
+                "Too many calls to the employee server are already in flight", maxWait);
+    }
+
+    /**
+     * Takes a permit from the learned budget, waiting until {@code deadline} at most.
+     */
+    void acquire(UpstreamPriority priority, long deadline) {
+        lock.lock();
+        try {
+            awaitPermit(priority, deadline);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitPermit(UpstreamPriority priority, long deadline) {
+        while (true) {
+            long now = System.nanoTime();
+            if (takePermit(priority, now)) {
+                return;
+            }
+            if (now - deadline >= 0) {
+                meterRegistry.counter("employee.upstream.limiter.shed", "priority", priority.name().toLowerCase())
+                        .increment();
+                Duration retryAfter = closed ? Duration.ofNanos(Math.max(0, reopenAtNanos - now)) : cooldown;
+                throw new UpstreamUnavailableException("Employee server request budget is used up", retryAfter);
+            }
+            long wakeAt = closed && reopenAtNanos - deadline < 0 ? reopenAtNanos : deadline;
+            try {
+                reopened.awaitNanos(Math.max(1, wakeAt - now));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UpstreamUnavailableException("Interrupted waiting for an employee server permit", cooldown);
+            }
+        }
+    }
+
+    private boolean takePermit(UpstreamPriority priority, long now) {
+        reopenIfDue(now);
+        if (!learned) {
+            return true;
+        }
+        int reserved = priority == UpstreamPriority.BACKGROUND ? (int) Math.ceil(budget * backgroundReserve) : 0;
+        if (!closed && permits > reserved) {
+            permits--;
+            return true;
+        }
+        return false;
+    }
+
+    void onAccepted() {
+        lock.lock();
+        try {
+            accepted();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onRejected(Duration retryAfter) {
+        lock.lock();
+        try {
+            rejected(retryAfter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int learnedBudget() {
+        lock.lock();
+        try {
+            return learned ? budget : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the learned budget, or {@code initial-budget} while nothing has been learned
+     */
+    int expectedBudget() {
+        int learnedBudget = learnedBudget();
+        return learnedBudget > 0 ? learnedBudget : initialBudget;
+    }
+
+    Duration learnedCooldown() {
+        lock.lock();
+        try {
+            return learned ? cooldown : Duration.ZERO;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlightCalls() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private void accepted() {
+        lastAcceptedNanos = System.nanoTime();
+        acceptedInWindow++;
+        if (learned && permits == 0 && !closed) {
+            close(lastAcceptedNanos + cooldown.toNanos());
+            if (++cleanWindows >= probeAfter && budget < maxBudget) {
+                budget++;
+                cleanWindows = 0;
+                log.debug("Raising learned employee server budget to {} per window", budget);
+            }
+        }
+    }
+
+    private void rejected(Duration retryAfter) {
+        long now = System.nanoTime();
+        if (!learned) {
+            learned = true;
+            budget = Math.max(1, acceptedInWindow);
+        } else if (acceptedInWindow == 0) {
+            // Rejected straight after reopening: the server needs a longer quiet period.
+            cooldown = min(maxCooldown, Duration.ofNanos(cooldown.toNanos() + cooldown.toNanos() / 4));
+        } else {
+            budget = Math.max(1, acceptedInWindow);
+        }
+        cleanWindows = 0;
+        long reopenAt = lastAcceptedNanos + Math.max(cooldown.toNanos(), retryAfter.toNanos());
+        close(reopenAt - now > 0 ? reopenAt : now + retryAfter.toNanos());
+        log.info("Employee server rate limited us; budget {} per window, cooldown {}", budget, cooldown);
+    }
+
+    private void close(long reopenAt) {
+        closed = true;
+        permits = 0;
+        reopenAtNanos = reopenAt;
+    }
+
+    private void reopenIfDue(long now) {
+        if (closed && now - reopenAtNanos >= 0) {
+            closed = false;
+            permits = budget;
+            acceptedInWindow = 0;
+            reopened.signalAll();
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    /**
+     * Gives its in-flight slot back when closed, however often that happens.
+     */
+    private static final class SlotHoldingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final Semaphore inFlight;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private SlotHoldingResponse(ClientHttpResponse response, Semaphore inFlight) {
+            this.response = response;
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    inFlight.release();
+                }
+            }
+        }
+    }
+}
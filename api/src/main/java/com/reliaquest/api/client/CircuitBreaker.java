@@ -0,0 +1,208 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stops calling the mock server once it keeps failing, so callers are answered in microseconds instead of each waiting
+ * out its own retries.
+ * <p>
+ * {@link State#CLOSED}: calls go through, and {@code failure-threshold} failed calls in a row open the circuit.
+ * {@link State#OPEN}: every call is rejected with an {@link UpstreamUnavailableException} until {@code open-duration}
+ * has passed. {@link State#HALF_OPEN}: {@code half-open-probes} calls are let through; if they all succeed the circuit
+ * closes, and the first failure opens it again. A call has failed when it ended with a 5xx, a 429, an I/O error or
+ * without an answer in time; a 4xx other than 429 is an answer and counts as a success. A call shed by the
+ * {@link AdaptiveRateLimiter} or abandoned by its caller counts as neither.
+ * <p>
+ * The state is published as {@code employee.upstream.circuit.state} (0 closed, 1 half-open, 2 open) and rejected calls
+ * are counted as {@code employee.upstream.circuit.rejected}. The lock is only held to read or change the state, never
+ * across a call.
+ */
+@Slf4j
+@Component
+public class CircuitBreaker {
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final int halfOpenProbes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilNanos;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    public CircuitBreaker(MeterRegistry meterRegistry,
+                          @Value("${employee.circuit-breaker.enabled:true}") boolean enabled,
+                          @Value("${employee.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                          @Value("${employee.circuit-breaker.open-duration:PT10S}") Duration openDuration,
+                          @Value("${employee.circuit-breaker.half-open-probes:1}") int halfOpenProbes) {
+        if (failureThreshold < 1 || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("failure-threshold and half-open-probes must be at least 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenProbes = halfOpenProbes;
+        Gauge.builder("employee.upstream.circuit.state", this, breaker -> breaker.state().ordinal())
+                .description("Circuit to the employee server: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lets a call to {@code operation} through, or rejects it.
+     *
+     * @throws UpstreamUnavailableException if the circuit is open, or half-open with all probes already started
+     */
+    public void acquire(String operation) {
+        if (!enabled) {
+            return;
+        }
+        Duration retryAfter;
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openUntilNanos >= 0) {
+                transition(State.HALF_OPEN);
+                probesStarted = 0;
+                probesSucceeded = 0;
+            }
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (state == State.HALF_OPEN && probesStarted < halfOpenProbes) {
+                probesStarted++;
+                return;
+            }
+            retryAfter = state == State.OPEN ? remainingOpen() : openDuration;
+        } finally {
+            lock.unlock();
+        }
+        meterRegistry.counter("employee.upstream.circuit.rejected", "operation", operation).increment();
+        throw new UpstreamUnavailableException(
+                "Circuit to the employee server is open, not calling " + operation, retryAfter);
+    }
+
+    /**
+     * Reports how a call that {@link #acquire} let through ended; {@code failure} is null for a success. A failure that
+     * is neither an answer nor the server failing, such as a body that could not be decoded, changes nothing except
+     * freeing a half-open probe for the next call.
+     */
+    public void onResult(Throwable failure) {
+        if (!enabled) {
+            return;
+        }
+        Boolean failed = failed(failure);
+        lock.lock();
+        try {
+            if (failed == null) {
+                // Says nothing about the server, but a probe that ended this way must give its slot back, or the
+                // circuit would stay half-open with no probe left to close or reopen it.
+                if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+                    probesStarted--;
+                }
+                return;
+            }
+            switch (state) {
+                case CLOSED -> {
+                    consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+                    if (consecutiveFailures >= failureThreshold) {
+                        open();
+                    }
+                }
+                case HALF_OPEN -> {
+                    if (failed) {
+                        open();
+                    } else if (++probesSucceeded >= halfOpenProbes) {
+                        consecutiveFailures = 0;
+                        transition(State.CLOSED);
+                    }
+                }
+                case OPEN -> {
+                    // A call from before the circuit opened; it says nothing about whether to close it.
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true while calls are rejected, or only let through as probes
+     */
+    public boolean isOpen() {
+        return enabled && state() != State.CLOSED;
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if {@code failure} is the mock server failing or not answering, or the call not being made or
+     *     waited for, rather than an answer
+     */
+    public static boolean isUpstreamFailure(Throwable failure) {
+        return failure != null && (Boolean.TRUE.equals(failed(failure))
+                || "unavailable".equals(UpstreamRetryExecutor.outcome(failure)));
+    }
+
+    /**
+     * @return whether {@code failure} counts against the mock server, or null if it says nothing either way
+     */
+    static Boolean failed(Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            return failed(failure.getCause());
+        }
+        if (failure instanceof UpstreamUnavailableException) {
+            // Raised on this side: a call the rate limiter shed or this circuit rejected never reached the server. One
+            // given up on after a failed attempt carries that attempt's failure as its cause.
+            return failure.getCause() == null ? null : failed(failure.getCause());
+        }
+        return switch (UpstreamRetryExecutor.outcome(failure)) {
+            case "success", "4xx" -> false;
+            case "429", "5xx", "io-error" -> true;
+            // Including a caller that stopped waiting, which says nothing about the call it left running.
+            default -> null;
+        };
+    }
+
+    private void open() {
+        openUntilNanos = System.nanoTime() + openDuration.toNanos();
+        transition(State.OPEN);
+    }
+
+    private Duration remainingOpen() {
+        return Duration.ofNanos(Math.max(0, openUntilNanos - System.nanoTime()));
+    }
+
+    private void transition(State next) {
+        if (state != next) {
+            if (next == State.OPEN && state == State.HALF_OPEN) {
+                log.warn("Probe of the employee server failed, circuit is open again for {}", openDuration);
+            } else if (next == State.OPEN) {
+                log.warn("Circuit to the employee server is open for {} after {} failed calls in a row",
+                        openDuration, failureThreshold);
+            } else {
+                log.info("Circuit to the employee server is {}", next == State.CLOSED ? "closed" : "half-open");
+            }
+            state = next;
+        }
+    }
+}
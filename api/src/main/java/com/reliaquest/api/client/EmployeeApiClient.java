@@ -0,0 +1,475 @@
+package com.reliaquest.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.client.scan.EmployeeEnvelopeReader;
+import com.reliaquest.api.client.scan.EmployeeField;
+import com.reliaquest.api.client.scan.EmployeeFields;
+import com.reliaquest.api.client.scan.EmployeeVisitor;
+import com.reliaquest.api.dto.Response;
+import com.reliaquest.api.exception.EmployeeApiException;
+import com.reliaquest.api.model.CreateEmployeeRequest;
+import com.reliaquest.api.model.EmployeeBatchResult;
+import com.reliaquest.api.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Thin wrapper around the mock employee server. Calls are made as-is and any {@link org.springframework.web.client.RestClientException}
+ * is left for the caller to translate.
+ * <p>
+ * Reads go through {@link SingleFlight} so concurrent callers asking for the same roster or id share one request, and
+ * every call is retried through the {@link UpstreamRetryExecutor}.
+ * <p>
+ * With {@code employee.api.page-size} set, the roster is read a page at a time by following the server's
+ * {@value #NEXT_CURSOR_HEADER} header, and each page is retried on its own instead of restarting the whole read. The
+ * roster keeps the tag and version of its first page: every write up to that version is in the pages read, and the
+ * change feed from it replays whatever changed while the later pages were read, so conditional reads and delta sync
+ * work the same as with a single read.
+ * <p>
+ * {@link #scanAllEmployees(EmployeeVisitor)} and {@link #streamAllEmployees(Consumer)} decode the roster element by
+ * element straight off the response body, so no list of the whole roster is ever built.
+ * <p>
+ * {@link #fetchEmployeesById(Collection)} looks ids up on a shared pool of {@code employee.api.by-ids.parallelism}
+ * threads, so however many bulk lookups run at once, no more than that many of their calls are in flight. From
+ * {@code employee.api.by-ids.full-read-threshold} ids on, or once the ids would take more than the rate limiter's
+ * expected budget for a window, it reads the roster once instead.
+ */
+@Component
+public class EmployeeApiClient implements DisposableBean {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String ROSTER_VERSION_HEADER = "X-Roster-Version";
+
+    private final RestTemplate restTemplate;
+    private final EmployeeEnvelopeReader envelopeReader;
+    private final UpstreamRetryExecutor retryExecutor;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final ExecutorService byIdsPool;
+    private final String baseUrl;
+    private final int pageSize;
+    private final int byIdsFullReadThreshold;
+    private final SingleFlight<String, Optional<EmployeeRoster>> allEmployeesFlight;
+    private final SingleFlight<String, Optional<Employee>> employeeByIdFlight;
+
+    public EmployeeApiClient(RestTemplate restTemplate,
+                             ObjectMapper objectMapper,
+                             UpstreamRetryExecutor retryExecutor,
+                             AdaptiveRateLimiter rateLimiter,
+                             MeterRegistry meterRegistry,
+                             @Value("${employee.api.base-url}") String baseUrl,
+                             @Value("${employee.api.page-size:0}") int pageSize,
+                             @Value("${employee.api.by-ids.parallelism:8}") int byIdsParallelism,
+                             @Value("${employee.api.by-ids.full-read-threshold:8}") int byIdsFullReadThreshold) {
+        this.restTemplate = restTemplate;
+        this.envelopeReader = new EmployeeEnvelopeReader(objectMapper.getFactory());
+        this.retryExecutor = retryExecutor;
+        this.rateLimiter = rateLimiter;
+        this.baseUrl = baseUrl;
+        this.pageSize = pageSize;
+        this.byIdsFullReadThreshold = byIdsFullReadThreshold;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.byIdsPool = Executors.newFixedThreadPool(byIdsParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "employee-by-ids-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.allEmployeesFlight = new SingleFlight<>("fetch-all", meterRegistry);
+        this.employeeByIdFlight = new SingleFlight<>("fetch-by-id", meterRegistry);
+    }
+
+    public List<Employee> fetchAllEmployees() {
+        return fetchAllEmployeesIfChanged(null).orElseThrow().employees();
+    }
+
+    /**
+     * Conditional read of the roster: with the {@code etag} of a roster the caller already holds, the server answers
+     * with a bare 304 while that roster is still current.
+     *
+     * @param etag entity tag of the caller's roster, or null to always read it
+     * @return the roster, or empty if the caller's roster is still current
+     */
+    public Optional<EmployeeRoster> fetchAllEmployeesIfChanged(String etag) {
+        // Callers holding different tags may get different answers, so only identical requests are coalesced.
+        String key = etag == null ? baseUrl : baseUrl + " " + etag;
+        if (pageSize > 0) {
+            return allEmployeesFlight.execute(key, () -> doFetchAllEmployeePages(etag));
+        }
+        return allEmployeesFlight.execute(key,
+                () -> retryExecutor.execute("fetch-all", true, () -> doFetchAllEmployees(etag)));
+    }
+
+    /**
+     * Hands every employee to {@code action} as soon as it is decoded from the response.
+     *
+     * @see #scanAllEmployees(EmployeeVisitor)
+     */
+    public void streamAllEmployees(Consumer<Employee> action) {
+        scanAllEmployees(new EmployeeVisitor() {
+            @Override
+            public Set<EmployeeField> fields() {
+                return EnumSet.allOf(EmployeeField.class);
+            }
+
+            @Override
+            public void visit(EmployeeFields employee) {
+                action.accept(employee.toEmployee());
+            }
+        });
+    }
+
+    /**
+     * Passes the roster through {@code visitor} straight off the response body, decoding only the fields it asks for.
+     * Only a request that fails before the first employee was visited is retried, so the visitor never sees an
+     * employee twice. Pages are retried on the calling thread, so the visitor is never called once this has returned,
+     * and each page has its own {@code caller-wait} to succeed in.
+     */
+    public void scanAllEmployees(EmployeeVisitor visitor) {
+        AtomicLong visited = new AtomicLong();
+        EmployeeVisitor counting = new EmployeeVisitor() {
+            @Override
+            public Set<EmployeeField> fields() {
+                return visitor.fields();
+            }
+
+            @Override
+            public void visit(EmployeeFields employee) {
+                visitor.visit(employee);
+                visited.incrementAndGet();
+            }
+        };
+        String cursor = null;
+        do {
+            String pageUrl = pageUrl(cursor);
+            cursor = retryExecutor.executeInline("scan-page", true, () -> {
+                long visitedBefore = visited.get();
+                try {
+                    return restTemplate.execute(pageUrl, HttpMethod.GET, null, response -> {
+                        envelopeReader.read(response.getBody(), counting);
+                        return response.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+                    });
+                } catch (RestClientException e) {
+                    if (visited.get() != visitedBefore) {
+                        throw new EmployeeApiException("Employee stream broke off after " + visited.get()
+                                + " employees", e);
+                    }
+                    throw e;
+                }
+            });
+        } while (cursor != null);
+    }
+
+    /**
+     * @return the employee, or empty if the server does not know the id
+     */
+    public Optional<Employee> fetchEmployeeById(String id) {
+        return employeeByIdFlight.execute(id,
+                () -> retryExecutor.execute("fetch-by-id", true, () -> doFetchEmployeeById(id)));
+    }
+
+    /**
+     * Looks up many ids at once, either in parallel or, when that would cost more upstream requests than it is worth,
+     * with one read of the whole roster. Fails as a whole if any lookup fails.
+     *
+     * @return the employees found, by id; unknown ids are left out
+     */
+    public Map<String, Employee> fetchEmployeesById(Collection<String> ids) {
+        Set<String> wanted = new LinkedHashSet<>(ids);
+        Map<String, Employee> found = new HashMap<>();
+        if (wanted.isEmpty()) {
+            return found;
+        }
+        if (cheaperToReadAll(wanted.size())) {
+            for (Employee employee : fetchAllEmployees()) {
+                if (wanted.contains(employee.getId())) {
+                    found.put(employee.getId(), employee);
+                }
+            }
+            return found;
+        }
+        if (wanted.size() == 1) {
+            String id = wanted.iterator().next();
+            fetchEmployeeById(id).ifPresent(employee -> found.put(employee.getId(), employee));
+            return found;
+        }
+
+        // Lookups run on pool threads, so carry the caller's priority along with them.
+        UpstreamPriority priority = UpstreamPriority.current();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        List<CompletableFuture<Optional<Employee>>> lookups = new ArrayList<>(wanted.size());
+        for (String id : wanted) {
+            lookups.add(CompletableFuture
+                    .supplyAsync(() -> abandoned.get()
+                            ? Optional.<Employee>empty()
+                            : UpstreamPriority.callAs(priority, () -> fetchEmployeeById(id)), byIdsPool)
+                    // After the first failure the lookups still queued are skipped.
+                    .whenComplete((employee, failure) -> {
+                        if (failure != null) {
+                            abandoned.set(true);
+                        }
+                    }));
+        }
+        try {
+            CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        for (CompletableFuture<Optional<Employee>> lookup : lookups) {
+            lookup.join().ifPresent(employee -> found.put(employee.getId(), employee));
+        }
+        return found;
+    }
+
+    @Override
+    public void destroy() {
+        byIdsPool.shutdownNow();
+    }
+
+    private boolean cheaperToReadAll(int ids) {
+        if (ids >= byIdsFullReadThreshold) {
+            return true;
+        }
+        // One request per id would not fit in a window, while the roster is a single request. Before the first 429
+        // this is the limiter's conservative guess, so a cold start cannot send more lookups than the server allows.
+        return pageSize <= 0 && ids > rateLimiter.expectedBudget();
+    }
+
+    private Optional<EmployeeRoster> doFetchAllEmployees(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        ResponseEntity<Response<List<Employee>>> response = restTemplate.exchange(
+                baseUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                new ParameterizedTypeReference<Response<List<Employee>>>() {
+                }
+        );
+        if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            return Optional.empty();
+        }
+        // The same list is handed to every coalesced caller, so it must not be mutable.
+        List<Employee> employees = Optional.ofNullable(response.getBody())
+                .map(Response::getData)
+                .map(Collections::unmodifiableList)
+                .orElse(Collections.emptyList());
+        return Optional.of(new EmployeeRoster(employees, response.getHeaders().getETag(),
+                rosterVersion(response.getHeaders())));
+    }
+
+    /**
+     * Reads the change feed: every create and delete since roster {@code version}.
+     *
+     * @return the changes, or empty if the server no longer knows all of them and the roster has to be read again
+     */
+    public Optional<EmployeeChanges> fetchChangesSince(long version) {
+        return retryExecutor.execute("fetch-changes", true, () -> doFetchChangesSince(version));
+    }
+
+    private Optional<EmployeeChanges> doFetchChangesSince(long version) {
+        try {
+            ResponseEntity<Response<List<EmployeeChange>>> response = restTemplate.exchange(
+                    baseUrl + "/changes?since=" + version,
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<Response<List<EmployeeChange>>>() {
+                    }
+            );
+            Long reached = rosterVersion(response.getHeaders());
+            if (reached == null) {
+                return Optional.empty();
+            }
+            List<EmployeeChange> changes = Optional.ofNullable(response.getBody())
+                    .map(Response::getData)
+                    .orElse(Collections.emptyList());
+            return Optional.of(new EmployeeChanges(changes, reached, response.getHeaders().getETag()));
+        } catch (HttpClientErrorException.Gone e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Long rosterVersion(HttpHeaders headers) {
+        String version = headers.getFirst(ROSTER_VERSION_HEADER);
+        try {
+            return version == null ? null : Long.valueOf(version.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Only the first page is conditional: a 304 for it means the caller's roster is still current, and the tag and
+     * version it carries are the ones the whole roster is kept under.
+     */
+    private Optional<EmployeeRoster> doFetchAllEmployeePages(String etag) {
+        List<Employee> employees = new ArrayList<>();
+        HttpHeaders first = null;
+        String cursor = null;
+        do {
+            String pageUrl = pageUrl(cursor);
+            String ifNoneMatch = first == null ? etag : null;
+            ResponseEntity<Response<List<Employee>>> response =
+                    retryExecutor.execute("fetch-page", true, () -> doFetchEmployeePage(pageUrl, ifNoneMatch));
+            if (first == null) {
+                if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                    return Optional.empty();
+                }
+                first = response.getHeaders();
+            }
+            Optional.ofNullable(response.getBody())
+                    .map(Response::getData)
+                    .ifPresent(employees::addAll);
+            cursor = response.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        return Optional.of(new EmployeeRoster(Collections.unmodifiableList(employees), first.getETag(),
+                rosterVersion(first)));
+    }
+
+    /**
+     * @return the roster url when pagination is off, otherwise the url of the page after {@code cursor}
+     */
+    private String pageUrl(String cursor) {
+        if (pageSize <= 0) {
+            return baseUrl;
+        }
+        return UriComponentsBuilder.fromHttpUrl(baseUrl)
+                .queryParam("limit", pageSize)
+                .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                .toUriString();
+    }
+
+    private ResponseEntity<Response<List<Employee>>> doFetchEmployeePage(String pageUrl, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        return restTemplate.exchange(
+                pageUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                new ParameterizedTypeReference<Response<List<Employee>>>() {
+                }
+        );
+    }
+
+    private Optional<Employee> doFetchEmployeeById(String id) {
+        try {
+            ResponseEntity<Response<Employee>> response = restTemplate.exchange(
+                    baseUrl + "/" + id,
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<Response<Employee>>() {
+                    }
+            );
+            return Optional.ofNullable(response.getBody())
+                    .map(Response::getData);
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    public Optional<Employee> createEmployee(CreateEmployeeRequest request) {
+        return retryExecutor.execute("create", false, () -> doCreateEmployee(request));
+    }
+
+    /**
+     * @return the deleted employee, or empty if the server does not know the id
+     */
+    public Optional<Employee> deleteEmployeeById(String id) {
+        return retryExecutor.execute("delete", false, () -> doDeleteEmployeeById(id));
+    }
+
+    /**
+     * Creates all employees in one request; the server validates each one on its own.
+     *
+     * @return one result per request, in the same order
+     */
+    public List<EmployeeBatchResult> createEmployees(List<CreateEmployeeRequest> requests) {
+        return retryExecutor.execute("create-batch", false,
+                () -> doBatch(HttpMethod.POST, requests));
+    }
+
+    /**
+     * Deletes all listed employees in one request.
+     *
+     * @return one result per id, in the same order
+     */
+    public List<EmployeeBatchResult> deleteEmployeesById(List<String> ids) {
+        return retryExecutor.execute("delete-batch", false,
+                () -> doBatch(HttpMethod.DELETE, ids));
+    }
+
+    private List<EmployeeBatchResult> doBatch(HttpMethod method, List<?> items) {
+        ResponseEntity<Response<List<EmployeeBatchResult>>> response = restTemplate.exchange(
+                baseUrl + "/batch",
+                method,
+                new HttpEntity<>(items),
+                new ParameterizedTypeReference<Response<List<EmployeeBatchResult>>>() {
+                }
+        );
+        return Optional.ofNullable(response.getBody())
+                .map(Response::getData)
+                .orElse(Collections.emptyList());
+    }
+
+    private Optional<Employee> doCreateEmployee(CreateEmployeeRequest request) {
+        ResponseEntity<Response<Employee>> response = restTemplate.exchange(
+                baseUrl,
+                HttpMethod.POST,
+                new HttpEntity<>(request),
+                new ParameterizedTypeReference<Response<Employee>>() {
+                }
+        );
+        return Optional.ofNullable(response.getBody())
+                .map(Response::getData);
+    }
+
+    private Optional<Employee> doDeleteEmployeeById(String id) {
+        try {
+            ResponseEntity<Response<Employee>> response = restTemplate.exchange(
+                    baseUrl + "/" + id,
+                    HttpMethod.DELETE,
+                    null,
+                    new ParameterizedTypeReference<Response<Employee>>() {
+                    }
+            );
+            return Optional.ofNullable(response.getBody())
+                    .map(Response::getData);
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.model.Employee;
+
+/**
+ * One create or delete from the mock server's change feed.
+ *
+ * @param version  roster version the change produced
+ * @param employee the created employee; null for {@link Type#DELETED}
+ */
+public record EmployeeChange(long version, Type type, String id, Employee employee) {
+
+    public enum Type {
+        /**
+         * Replaces any employee with the same id.
+         */
+        CREATED,
+        DELETED
+    }
+}
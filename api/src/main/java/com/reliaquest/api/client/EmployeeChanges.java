@@ -0,0 +1,12 @@
+package com.reliaquest.api.client;
+
+import java.util.List;
+
+/**
+ * Changes to the roster since a version the caller held, oldest first.
+ *
+ * @param version the roster version once all {@code changes} are applied
+ * @param etag    the server's entity tag for the roster at {@code version}
+ */
+public record EmployeeChanges(List<EmployeeChange> changes, long version, String etag) {
+}
@@ -0,0 +1,14 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.model.Employee;
+
+import java.util.List;
+
+/**
+ * A roster as returned by the mock server.
+ *
+ * @param etag    the server's entity tag for this roster, or null if it sent none (a paged roster has its first page's)
+ * @param version the server's version of this roster, or null if it sent none (likewise its first page's)
+ */
+public record EmployeeRoster(List<Employee> employees, String etag, Long version) {
+}
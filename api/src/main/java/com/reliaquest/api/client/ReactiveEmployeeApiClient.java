@@ -0,0 +1,173 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.dto.Response;
+import com.reliaquest.api.exception.UpstreamResponseTooLargeException;
+import com.reliaquest.api.model.CreateEmployeeRequest;
+import com.reliaquest.api.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link EmployeeApiClient} for {@code employee.service.mode=reactive}, built on a
+ * {@link WebClient} whose calls pass through the {@link AdaptiveRateLimiter#exchangeFilter()}.
+ * <p>
+ * Failed attempts are retried by the same rules, deadline and budget as {@link UpstreamRetryExecutor}, but the waits
+ * between them are timers rather than parked threads. Concurrent reads of the roster or of one id share a request
+ * through {@link SingleFlight}. Nothing here blocks, so a few event-loop threads can carry thousands of calls that are
+ * waiting on the server.
+ * <p>
+ * The roster is one JSON document and is buffered whole before it is decoded, up to
+ * {@code employee.reactive.max-in-memory-size}. A larger roster fails with an {@link UpstreamResponseTooLargeException}
+ * (502) rather than being retried; the blocking mode streams it without that limit.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.service.mode", havingValue = "reactive")
+public class ReactiveEmployeeApiClient {
+    private static final ParameterizedTypeReference<Response<List<Employee>>> EMPLOYEES =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<Response<Employee>> EMPLOYEE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient webClient;
+    private final UpstreamRetryExecutor retryExecutor;
+    private final SingleFlight<String, List<Employee>> allEmployeesFlight;
+    private final SingleFlight<String, Optional<Employee>> employeeByIdFlight;
+
+    public ReactiveEmployeeApiClient(WebClient employeeWebClient,
+                                     UpstreamRetryExecutor retryExecutor,
+                                     MeterRegistry meterRegistry) {
+        this.webClient = employeeWebClient;
+        this.retryExecutor = retryExecutor;
+        this.allEmployeesFlight = new SingleFlight<>("fetch-all-reactive", meterRegistry);
+        this.employeeByIdFlight = new SingleFlight<>("fetch-by-id-reactive", meterRegistry);
+    }
+
+    public Mono<List<Employee>> fetchAllEmployees() {
+        // The same list is handed to every coalesced caller, so it must not be mutable.
+        return coalesce(allEmployeesFlight, "", () -> withRetries("fetch-all", true, webClient.get()
+                .retrieve()
+                .bodyToMono(EMPLOYEES)
+                .onErrorMap(ReactiveEmployeeApiClient::isOverBufferLimit, e -> new UpstreamResponseTooLargeException(
+                        "The employee roster is larger than employee.reactive.max-in-memory-size", e))
+                .mapNotNull(Response::getData)
+                .map(Collections::unmodifiableList)
+                .defaultIfEmpty(List.of())));
+    }
+
+    /**
+     * WebClient reports a body past the codecs' {@code maxInMemorySize} wrapped in a
+     * {@link WebClientResponseException}, so the cause chain is searched.
+     */
+    private static boolean isOverBufferLimit(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataBufferLimitException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the employee, or empty if the server does not know the id
+     */
+    public Mono<Employee> fetchEmployeeById(String id) {
+        return coalesce(employeeByIdFlight, id, () -> withRetries("fetch-by-id", true, webClient.get()
+                .uri("/{id}", id)
+                .retrieve()
+                .bodyToMono(EMPLOYEE)
+                .mapNotNull(Response::getData)
+                .map(Optional::of)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(Optional.empty()))
+                .defaultIfEmpty(Optional.empty())))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * @return the created employee, or empty if the server sent none back
+     */
+    public Mono<Employee> createEmployee(CreateEmployeeRequest request) {
+        return withRetries("create", false, webClient.post()
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(EMPLOYEE)
+                .mapNotNull(Response::getData));
+    }
+
+    /**
+     * @return the deleted employee, or empty if the server does not know the id
+     */
+    public Mono<Employee> deleteEmployeeById(String id) {
+        return withRetries("delete", false, webClient.delete()
+                .uri("/{id}", id)
+                .retrieve()
+                .bodyToMono(EMPLOYEE)
+                .mapNotNull(Response::getData)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()));
+    }
+
+    /**
+     * Resubscribes to {@code attempt} for each retry; every subscription to a {@link WebClient} exchange sends a new
+     * request. Attempts and the call as a whole are timed like {@link UpstreamRetryExecutor} times blocking calls, and
+     * the call is rejected up front while the circuit is open.
+     */
+    private <T> Mono<T> withRetries(String operation, boolean idempotent, Mono<T> attempt) {
+        Mono<T> timedAttempt = timed(attempt,
+                (started, failure) -> retryExecutor.recordAttempt(operation, started, failure));
+        Mono<T> call = timed(Mono.defer(() -> {
+            retryExecutor.recordRequest();
+            long deadline = System.nanoTime() + retryExecutor.callerWait().toNanos();
+            return timedAttempt.retryWhen(Retry.from(failures -> failures.concatMap(failure -> {
+                if (!(failure.failure() instanceof RuntimeException runtimeFailure)) {
+                    return Mono.error(failure.failure());
+                }
+                Duration delay;
+                try {
+                    delay = retryExecutor.retryDelay(operation, idempotent, (int) failure.totalRetries() + 1,
+                            deadline, runtimeFailure);
+                } catch (RuntimeException e) {
+                    return Mono.error(e);
+                }
+                return Mono.delay(delay);
+            })));
+        }), (started, failure) -> retryExecutor.recordCall(operation, started, failure));
+        return Mono.defer(() -> {
+            retryExecutor.acquireCircuit(operation);
+            return call;
+        });
+    }
+
+    /**
+     * Hands each subscription's start time and outcome to {@code recorder} once it ends; a cancelled subscription
+     * counts as unavailable.
+     */
+    private static <T> Mono<T> timed(Mono<T> mono, BiConsumer<Long, Throwable> recorder) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return mono.doOnSuccess(value -> recorder.accept(started, null))
+                    .doOnError(failure -> recorder.accept(started, failure))
+                    .doOnCancel(() -> recorder.accept(started, new CancellationException()));
+        });
+    }
+
+    private static <T> Mono<T> coalesce(SingleFlight<String, T> flight, String key, Supplier<Mono<T>> call) {
+        // Cancelling one caller must not cancel the request the others are waiting for.
+        return Mono.defer(() -> Mono.fromFuture(flight.executeAsync(key, () -> call.get().toFuture()), true));
+    }
+}
@@ -0,0 +1,43 @@
+package com.reliaquest.api.client;
+
+/**
+ * Caps retries for one upstream as a share of the traffic sent to it. Every original request deposits {@code ratio}
+ * tokens, every retry spends one, and {@code minPerSecond} tokens trickle in regardless so a quiet service can still
+ * retry. Once the upstream is failing everything, retries stop multiplying the load on it.
+ */
+class RetryBudget {
+    private final double ratio;
+    private final double minPerSecond;
+    private final double maxTokens;
+    private double tokens;
+    private long lastRefillNanos;
+
+    RetryBudget(double ratio, double minPerSecond) {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        // Allow bursts of roughly ten seconds' worth of retries, but never fewer than ten.
+        this.maxTokens = Math.max(10.0, minPerSecond * 10);
+        this.tokens = maxTokens;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    synchronized void recordRequest() {
+        refill();
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1.0) {
+            return false;
+        }
+        tokens -= 1.0;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(maxTokens, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * minPerSecond);
+        lastRefillNanos = now;
+    }
+}
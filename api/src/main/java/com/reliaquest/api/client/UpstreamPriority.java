@@ -0,0 +1,35 @@
+package com.reliaquest.api.client;
+
+import java.util.function.Supplier;
+
+/**
+ * Who an upstream call is for. Calls default to {@link #USER}; background work such as snapshot refreshes marks
+ * itself so the {@link AdaptiveRateLimiter} can keep request budget back for users.
+ */
+public enum UpstreamPriority {
+    USER,
+    BACKGROUND;
+
+    private static final ThreadLocal<UpstreamPriority> CURRENT = ThreadLocal.withInitial(() -> USER);
+
+    public static UpstreamPriority current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callAs(UpstreamPriority priority, Supplier<T> call) {
+        UpstreamPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return call.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static void runAs(UpstreamPriority priority, Runnable task) {
+        callAs(priority, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,430 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Retries calls to the mock server without sleeping on the calling thread. Backoff waits are timers on a small,
+ * fixed scheduler pool which also runs the retried attempts, so the number of threads involved does not grow with the
+ * number of calls being retried.
+ * <p>
+ * Only 429, 5xx and I/O failures are retried; non-idempotent calls are only retried on 429, which the server rejects
+ * before doing any work. A {@code Retry-After} header is honoured when it asks for a longer wait than the computed
+ * backoff, and all retries draw from a shared {@link RetryBudget}.
+ * <p>
+ * Synchronous callers run the first attempt inline and then wait at most {@code caller-wait} for the retries. If the
+ * next attempt cannot happen inside that window they get an {@link UpstreamUnavailableException} straight away.
+ * {@link #executeInline} is the exception: it keeps every attempt on the calling thread, for calls that must not
+ * outlive their caller.
+ * <p>
+ * Reactive callers schedule their own attempts and only ask {@link #retryDelay} whether, and when, to make the next
+ * one, so blocking and reactive calls follow the same rules and share the budget.
+ * <p>
+ * Every attempt is timed as {@code employee.upstream.attempts} and every call, retries and backoff included, as
+ * {@code employee.upstream.calls}, both by operation and outcome ({@code success}, {@code 429}, {@code 5xx},
+ * {@code 4xx}, {@code io-error}, {@code unavailable} or {@code error}). Retries are counted by the failure that caused
+ * them, and retries that were wanted but not made by what stopped them.
+ * <p>
+ * Calls go through the {@link CircuitBreaker} first: while it is open they fail straight away, and failed attempts are
+ * not retried. The outcome of every call is reported back to it.
+ */
+@Slf4j
+@Component
+public class UpstreamRetryExecutor implements DisposableBean {
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final RetryBudget retryBudget;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration callerWait;
+
+    public UpstreamRetryExecutor(MeterRegistry meterRegistry,
+                                 CircuitBreaker circuitBreaker,
+                                 @Value("${employee.retry.max-attempts:5}") int maxAttempts,
+                                 @Value("${employee.retry.initial-backoff:PT0.5S}") Duration initialBackoff,
+                                 @Value("${employee.retry.max-backoff:PT30S}") Duration maxBackoff,
+                                 @Value("${employee.retry.caller-wait:PT1S}") Duration callerWait,
+                                 @Value("${employee.retry.budget.ratio:0.2}") double budgetRatio,
+                                 @Value("${employee.retry.budget.min-per-second:1}") double budgetMinPerSecond,
+                                 @Value("${employee.retry.threads:2}") int threads) {
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreaker;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.callerWait = callerWait;
+        this.retryBudget = new RetryBudget(budgetRatio, budgetMinPerSecond);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "upstream-retry-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Runs {@code call} on the current thread, retrying in the background for at most {@code caller-wait}.
+     */
+    public <T> T execute(String operation, boolean idempotent, Supplier<T> call) {
+        circuitBreaker.acquire(operation);
+        Supplier<T> prioritisedCall = withCurrentPriority(call);
+        long deadline = System.nanoTime() + callerWait.toNanos();
+        CompletableFuture<T> result = timed(operation, new CompletableFuture<>());
+        AtomicLong nextAttemptAt = new AtomicLong(System.nanoTime());
+        retryBudget.recordRequest();
+        attempt(operation, idempotent, prioritisedCall, 1, deadline, result, nextAttemptAt);
+        try {
+            return result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            throw new UpstreamUnavailableException(operation + " did not succeed within " + callerWait,
+                    untilNextAttempt(nextAttemptAt.get()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(false);
+            throw new UpstreamUnavailableException(operation + " was interrupted", callerWait, e);
+        }
+    }
+
+    /**
+     * Runs {@code call} and its retries on the current thread, waiting out the backoff here, for at most
+     * {@code caller-wait}. For calls that write to state owned by the caller, such as a response being streamed, which
+     * must not be touched by an attempt still running after the caller has given up.
+     */
+    public <T> T executeInline(String operation, boolean idempotent, Supplier<T> call) {
+        circuitBreaker.acquire(operation);
+        long callStarted = System.nanoTime();
+        long deadline = callStarted + callerWait.toNanos();
+        retryBudget.recordRequest();
+        RuntimeException failure = null;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                long started = System.nanoTime();
+                try {
+                    T value = call.get();
+                    recordAttempt(operation, started, null);
+                    return value;
+                } catch (RuntimeException e) {
+                    recordAttempt(operation, started, e);
+                    Duration delay = retryDelay(operation, idempotent, attempt, deadline, e);
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(delay.toNanos());
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw new UpstreamUnavailableException(operation + " was interrupted", callerWait, interrupted);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            recordCall(operation, callStarted, failure);
+        }
+    }
+
+    /**
+     * Runs {@code call} and all of its retries on the retry scheduler; nothing blocks the current thread.
+     */
+    public <T> CompletableFuture<T> submit(String operation, boolean idempotent, Supplier<T> call) {
+        try {
+            circuitBreaker.acquire(operation);
+        } catch (UpstreamUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Supplier<T> prioritisedCall = withCurrentPriority(call);
+        CompletableFuture<T> result = timed(operation, new CompletableFuture<>());
+        retryBudget.recordRequest();
+        scheduler.execute(() -> attempt(operation, idempotent, prioritisedCall, 1, Long.MAX_VALUE, result,
+                new AtomicLong()));
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Retried attempts run on scheduler threads, so carry the caller's {@link UpstreamPriority} along with the call.
+     */
+    private static <T> Supplier<T> withCurrentPriority(Supplier<T> call) {
+        UpstreamPriority priority = UpstreamPriority.current();
+        return () -> UpstreamPriority.callAs(priority, call);
+    }
+
+    /**
+     * @param nextAttemptAt set to the {@link System#nanoTime()} the retry is due at whenever one is scheduled
+     */
+    private <T> void attempt(String operation, boolean idempotent, Supplier<T> call, int attempt, long deadline,
+                             CompletableFuture<T> result, AtomicLong nextAttemptAt) {
+        if (result.isDone()) {
+            // The caller gave up while this attempt was waiting.
+            return;
+        }
+        long started = System.nanoTime();
+        T value;
+        try {
+            value = call.get();
+        } catch (RuntimeException e) {
+            recordAttempt(operation, started, e);
+            onFailure(operation, idempotent, call, attempt, deadline, result, nextAttemptAt, e);
+            return;
+        }
+        recordAttempt(operation, started, null);
+        result.complete(value);
+    }
+
+    /**
+     * Times {@code result} from now until it completes, however it completes; a caller giving up cancels it.
+     */
+    private <T> CompletableFuture<T> timed(String operation, CompletableFuture<T> result) {
+        long started = System.nanoTime();
+        result.whenComplete((value, failure) -> recordCall(operation, started, failure));
+        return result;
+    }
+
+    /**
+     * Records one attempt at {@code operation} that started at {@code startedNanos} and failed with {@code failure},
+     * or succeeded if it is null.
+     */
+    void recordAttempt(String operation, long startedNanos, Throwable failure) {
+        Timer.builder("employee.upstream.attempts")
+                .description("Single requests to the employee server, including the wait for a rate limiter permit")
+                .tag("operation", operation)
+                .tag("outcome", outcome(failure))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a whole call at {@code operation}, all of its attempts and the waits between them included, and reports
+     * its outcome to the circuit breaker.
+     */
+    void recordCall(String operation, long startedNanos, Throwable failure) {
+        circuitBreaker.onResult(failure);
+        Timer.builder("employee.upstream.calls")
+                .description("Calls to the employee server as their callers see them, retries and backoff included")
+                .tag("operation", operation)
+                .tag("outcome", outcome(failure))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private <T> void onFailure(String operation, boolean idempotent, Supplier<T> call, int attempt, long deadline,
+                               CompletableFuture<T> result, AtomicLong nextAttemptAt, RuntimeException failure) {
+        Duration delay;
+        try {
+            delay = retryDelay(operation, idempotent, attempt, deadline, failure);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        nextAttemptAt.set(System.nanoTime() + delay.toNanos());
+        scheduler.schedule(() -> attempt(operation, idempotent, call, attempt + 1, deadline, result, nextAttemptAt),
+                delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * What a caller that gave up is told to wait: the rest of the pending backoff, which already covers the server's
+     * {@code Retry-After}. With an attempt still running there is nothing pending, and the first backoff is the
+     * soonest another try would be useful.
+     */
+    private Duration untilNextAttempt(long nextAttemptAt) {
+        long remaining = nextAttemptAt - System.nanoTime();
+        return remaining > 0 ? Duration.ofNanos(remaining) : initialBackoff;
+    }
+
+    /**
+     * Rejects a call to {@code operation} while the circuit is open. {@link #execute} and {@link #submit} do this
+     * themselves.
+     */
+    void acquireCircuit(String operation) {
+        circuitBreaker.acquire(operation);
+    }
+
+    /**
+     * Counts an original request towards the retry budget. {@link #execute} and {@link #submit} do this themselves.
+     */
+    void recordRequest() {
+        retryBudget.recordRequest();
+    }
+
+    /**
+     * Decides what follows failed attempt number {@code attempt}, and spends retry budget if it is retried.
+     *
+     * @param deadline {@link System#nanoTime()} by which the next attempt has to start, {@link Long#MAX_VALUE} for none
+     * @return how long to wait before the next attempt
+     * @throws RuntimeException {@code failure} itself if it is not worth retrying, or an
+     *     {@link UpstreamUnavailableException} if the next attempt would miss the deadline, the budget is spent or the
+     *     circuit has opened
+     */
+    Duration retryDelay(String operation, boolean idempotent, int attempt, long deadline, RuntimeException failure) {
+        if (!isRetryable(failure, idempotent)) {
+            throw failure;
+        }
+        if (attempt >= maxAttempts) {
+            countDeniedRetry(operation, "attempts");
+            throw failure;
+        }
+
+        Duration delay = backoff(attempt);
+        Duration retryAfter = retryAfter(failure);
+        if (retryAfter.compareTo(delay) > 0) {
+            delay = retryAfter;
+        }
+        if (circuitBreaker.isOpen()) {
+            countDeniedRetry(operation, "circuit");
+            throw new UpstreamUnavailableException(
+                    operation + " failed and the circuit to the employee server is open", delay, failure);
+        }
+        if (deadline != Long.MAX_VALUE && System.nanoTime() + delay.toNanos() - deadline > 0) {
+            countDeniedRetry(operation, "deadline");
+            throw new UpstreamUnavailableException(
+                    operation + " failed and the next attempt is not due for " + delay, delay, failure);
+        }
+        if (!retryBudget.tryAcquire()) {
+            countDeniedRetry(operation, "budget");
+            throw new UpstreamUnavailableException(
+                    "Retry budget for the employee server is exhausted", delay, failure);
+        }
+        meterRegistry.counter("employee.upstream.retries", "operation", operation, "outcome", outcome(failure))
+                .increment();
+
+        log.debug("Retrying {} in {} after attempt {} failed: {}", operation, delay, attempt, failure.getMessage());
+        return delay;
+    }
+
+    Duration callerWait() {
+        return callerWait;
+    }
+
+    private void countDeniedRetry(String operation, String reason) {
+        meterRegistry.counter("employee.upstream.retries.denied", "operation", operation, "reason", reason)
+                .increment();
+    }
+
+    /**
+     * Meter tag for how a call or attempt ended.
+     */
+    static String outcome(Throwable failure) {
+        if (failure == null) {
+            return "success";
+        }
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            return outcome(failure.getCause());
+        }
+        if (failure instanceof UpstreamUnavailableException || failure instanceof CancellationException) {
+            return "unavailable";
+        }
+        HttpStatusCode status = failure instanceof RuntimeException runtimeFailure ? status(runtimeFailure) : null;
+        if (status != null) {
+            if (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                return "429";
+            }
+            return status.is5xxServerError() ? "5xx" : "4xx";
+        }
+        if (failure instanceof ResourceAccessException || failure instanceof WebClientRequestException) {
+            return "io-error";
+        }
+        return "error";
+    }
+
+    static boolean isRetryable(RuntimeException failure, boolean idempotent) {
+        HttpStatusCode status = status(failure);
+        if (status != null) {
+            if (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                return true;
+            }
+            return idempotent && status.is5xxServerError();
+        }
+        return idempotent && (failure instanceof ResourceAccessException
+                || failure instanceof WebClientRequestException);
+    }
+
+    private static HttpStatusCode status(RuntimeException failure) {
+        if (failure instanceof HttpStatusCodeException statusFailure) {
+            return statusFailure.getStatusCode();
+        }
+        if (failure instanceof WebClientResponseException statusFailure) {
+            return statusFailure.getStatusCode();
+        }
+        return null;
+    }
+
+    private Duration backoff(int attempt) {
+        long base = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 30));
+        // Equal jitter: at least half the exponential delay, so callers spread out but still back off.
+        long half = base / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(base - half + 1));
+    }
+
+    static Duration retryAfter(RuntimeException failure) {
+        HttpHeaders headers = null;
+        if (failure instanceof HttpStatusCodeException statusFailure) {
+            headers = statusFailure.getResponseHeaders();
+        } else if (failure instanceof WebClientResponseException statusFailure) {
+            headers = statusFailure.getHeaders();
+        }
+        return headers == null ? Duration.ZERO : parseRetryAfter(headers.getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    /**
+     * @param value a {@code Retry-After} header in delta-seconds or HTTP-date form, may be null
+     */
+    static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return Duration.ZERO;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            // Not delta-seconds, so it should be an HTTP-date.
+        }
+        try {
+            Duration untilDate = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return untilDate.isNegative() ? Duration.ZERO : untilDate;
+        } catch (DateTimeParseException e) {
+            return Duration.ZERO;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.reliaquest.api.client.scan;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+/**
+ * Reads the mock server's {@code {"data": [...], "status": ...}} envelope token by token and hands each employee to an
+ * {@link EmployeeVisitor}. No {@link com.reliaquest.api.model.Employee} or list is built, and the text of fields the
+ * visitor does not ask for is never decoded, so aggregates over the roster cost one pass and constant memory.
+ */
+public final class EmployeeEnvelopeReader {
+    private final JsonFactory jsonFactory;
+
+    public EmployeeEnvelopeReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    public void read(InputStream body, EmployeeVisitor visitor) throws IOException {
+        Set<EmployeeField> wanted = visitor.fields();
+        EmployeeFields fields = new EmployeeFields();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected the response envelope to be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String property = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(property) && value == JsonToken.START_ARRAY) {
+                    readEmployees(parser, wanted, fields, visitor);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the {@code data} array up to its end. Null elements are skipped; any other element that is not an object is
+     * rejected, since stopping there would silently drop the rest of the roster.
+     */
+    private static void readEmployees(JsonParser parser, Set<EmployeeField> wanted, EmployeeFields fields,
+                                      EmployeeVisitor visitor) throws IOException {
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (element == JsonToken.START_OBJECT) {
+                readEmployee(parser, wanted, fields);
+                visitor.visit(fields);
+            } else if (element != JsonToken.VALUE_NULL) {
+                throw new JsonParseException(parser, "Expected an employee object in the data array, got " + element);
+            }
+        }
+    }
+
+    private static void readEmployee(JsonParser parser, Set<EmployeeField> wanted, EmployeeFields fields)
+            throws IOException {
+        fields.clear();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            EmployeeField field = EmployeeField.forJsonName(parser.currentName());
+            JsonToken value = parser.nextToken();
+            // A wanted field holding an object or array is malformed; it is skipped whole and left unset like null,
+            // since reading its first token as the value would leave the parser inside it.
+            if (field == null || value == JsonToken.VALUE_NULL || value.isStructStart() || !wanted.contains(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case SALARY -> fields.setSalary(parser.getValueAsInt());
+                case AGE -> fields.setAge(parser.getValueAsInt());
+                default -> fields.setText(field, parser.getValueAsString());
+            }
+        }
+    }
+}
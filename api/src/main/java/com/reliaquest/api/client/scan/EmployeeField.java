@@ -0,0 +1,29 @@
+package com.reliaquest.api.client.scan;
+
+/**
+ * Employee fields in the mock server's JSON, under both the server's names and the names {@link
+ * com.reliaquest.api.model.Employee} serializes to.
+ */
+public enum EmployeeField {
+    ID,
+    NAME,
+    SALARY,
+    AGE,
+    TITLE,
+    EMAIL;
+
+    /**
+     * @return the field, or null for any other property
+     */
+    static EmployeeField forJsonName(String jsonName) {
+        return switch (jsonName) {
+            case "id" -> ID;
+            case "employee_name", "name" -> NAME;
+            case "employee_salary", "salary" -> SALARY;
+            case "employee_age", "age" -> AGE;
+            case "employee_title", "title" -> TITLE;
+            case "employee_email", "email" -> EMAIL;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package com.reliaquest.api.client.scan;
+
+import com.reliaquest.api.model.Employee;
+
+/**
+ * The fields of the employee currently under the {@link EmployeeEnvelopeReader}. One instance is reused for every
+ * employee in a response, so visitors must copy out anything they keep. Fields the visitor did not ask for, or that
+ * were absent or null, read as null / not present.
+ */
+public final class EmployeeFields {
+    private String id;
+    private String name;
+    private String title;
+    private String email;
+    private int salary;
+    private boolean hasSalary;
+    private int age;
+    private boolean hasAge;
+
+    public String id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String title() {
+        return title;
+    }
+
+    public String email() {
+        return email;
+    }
+
+    public boolean hasSalary() {
+        return hasSalary;
+    }
+
+    /**
+     * Only meaningful when {@link #hasSalary()}.
+     */
+    public int salary() {
+        return salary;
+    }
+
+    public boolean hasAge() {
+        return hasAge;
+    }
+
+    /**
+     * Only meaningful when {@link #hasAge()}.
+     */
+    public int age() {
+        return age;
+    }
+
+    public Employee toEmployee() {
+        return Employee.builder()
+                .id(id)
+                .name(name)
+                .salary(hasSalary ? salary : null)
+                .age(hasAge ? age : null)
+                .title(title)
+                .email(email)
+                .build();
+    }
+
+    void clear() {
+        id = null;
+        name = null;
+        title = null;
+        email = null;
+        hasSalary = false;
+        hasAge = false;
+    }
+
+    void setText(EmployeeField field, String value) {
+        switch (field) {
+            case ID -> id = value;
+            case NAME -> name = value;
+            case TITLE -> title = value;
+            case EMAIL -> email = value;
+            default -> throw new IllegalArgumentException(field + " is not a text field");
+        }
+    }
+
+    void setSalary(int salary) {
+        this.salary = salary;
+        this.hasSalary = true;
+    }
+
+    void setAge(int age) {
+        this.age = age;
+        this.hasAge = true;
+    }
+}
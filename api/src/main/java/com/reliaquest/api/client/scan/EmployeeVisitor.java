@@ -0,0 +1,16 @@
+package com.reliaquest.api.client.scan;
+
+import java.util.Set;
+
+/**
+ * Receives the employees of a response one at a time from an {@link EmployeeEnvelopeReader}.
+ */
+public interface EmployeeVisitor {
+
+    /**
+     * The fields this visitor reads. The reader skips all others without decoding them.
+     */
+    Set<EmployeeField> fields();
+
+    void visit(EmployeeFields employee);
+}
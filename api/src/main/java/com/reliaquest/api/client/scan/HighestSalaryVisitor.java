@@ -0,0 +1,30 @@
+package com.reliaquest.api.client.scan;
+
+import java.util.EnumSet;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * The highest salary in a roster. Employees without a salary are ignored.
+ */
+public final class HighestSalaryVisitor implements EmployeeVisitor {
+    private int highest;
+    private boolean seen;
+
+    @Override
+    public Set<EmployeeField> fields() {
+        return EnumSet.of(EmployeeField.SALARY);
+    }
+
+    @Override
+    public void visit(EmployeeFields employee) {
+        if (employee.hasSalary() && (!seen || employee.salary() > highest)) {
+            highest = employee.salary();
+            seen = true;
+        }
+    }
+
+    public OptionalInt highestSalary() {
+        return seen ? OptionalInt.of(highest) : OptionalInt.empty();
+    }
+}
@@ -0,0 +1,45 @@
+package com.reliaquest.api.client.scan;
+
+import com.reliaquest.api.model.Employee;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Employees whose name contains a search string, ignoring case. Only matches are turned into {@link Employee}s.
+ */
+public final class NameFilterVisitor implements EmployeeVisitor {
+    private final String needle;
+    private final List<Employee> matches = new ArrayList<>();
+
+    public NameFilterVisitor(String needle) {
+        this.needle = needle;
+    }
+
+    @Override
+    public Set<EmployeeField> fields() {
+        return EnumSet.allOf(EmployeeField.class);
+    }
+
+    @Override
+    public void visit(EmployeeFields employee) {
+        if (employee.name() != null && containsIgnoreCase(employee.name(), needle)) {
+            matches.add(employee.toEmployee());
+        }
+    }
+
+    public List<Employee> matches() {
+        return matches;
+    }
+
+    private static boolean containsIgnoreCase(String haystack, String needle) {
+        for (int start = 0; start <= haystack.length() - needle.length(); start++) {
+            if (haystack.regionMatches(true, start, needle, 0, needle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
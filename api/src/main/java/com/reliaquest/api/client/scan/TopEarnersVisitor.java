@@ -0,0 +1,63 @@
+package com.reliaquest.api.client.scan;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Names of the {@code limit} highest earners, highest first, kept in a heap of at most {@code limit} entries. Equal
+ * salaries keep roster order, as a stable sort of the whole roster would. Employees without a salary are ignored.
+ */
+public final class TopEarnersVisitor implements EmployeeVisitor {
+    private static final Comparator<Earner> LOWEST_FIRST = Comparator.comparingInt(Earner::salary)
+            .thenComparing(Comparator.comparingLong(Earner::position).reversed());
+
+    private final int limit;
+    private final PriorityQueue<Earner> lowestFirst;
+    private long position;
+
+    public TopEarnersVisitor(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.limit = limit;
+        this.lowestFirst = new PriorityQueue<>(Math.min(limit, 1024) + 1, LOWEST_FIRST);
+    }
+
+    @Override
+    public Set<EmployeeField> fields() {
+        return EnumSet.of(EmployeeField.NAME, EmployeeField.SALARY);
+    }
+
+    @Override
+    public void visit(EmployeeFields employee) {
+        long current = position++;
+        if (!employee.hasSalary()) {
+            return;
+        }
+        // A later employee only displaces the lowest entry with a strictly higher salary.
+        if (lowestFirst.size() == limit && employee.salary() <= lowestFirst.peek().salary()) {
+            return;
+        }
+        lowestFirst.add(new Earner(employee.salary(), current, employee.name()));
+        if (lowestFirst.size() > limit) {
+            lowestFirst.poll();
+        }
+    }
+
+    public List<String> names() {
+        List<Earner> earners = new ArrayList<>(lowestFirst);
+        earners.sort(LOWEST_FIRST.reversed());
+        List<String> names = new ArrayList<>(earners.size());
+        for (Earner earner : earners) {
+            names.add(earner.name());
+        }
+        return names;
+    }
+
+    private record Earner(int salary, long position, String name) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.reliaquest.api.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * HTTP client used for api → mock server calls. By default a pooled Apache HttpClient that keeps connections alive
+ * between calls, negotiates gzip and publishes its pool statistics as {@code employee.http.pool.*} gauges.
+ * With {@code employee.http.h2c.enabled} the JDK client is used instead, since it can upgrade a cleartext connection to
+ * HTTP/2 and multiplex requests over it.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "employee.http.h2c.enabled", havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager employeeConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${employee.http.max-connections:50}") int maxConnections,
+            @Value("${employee.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+            @Value("${employee.http.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${employee.http.read-timeout:PT5S}") Duration readTimeout,
+            @Value("${employee.http.validate-after-inactivity:PT2S}") Duration validateAfterInactivity) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivity.toMillis()))
+                        .build())
+                .build();
+
+        Gauge.builder("employee.http.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("Connections to the employee server currently in use")
+                .register(meterRegistry);
+        Gauge.builder("employee.http.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("Idle connections to the employee server kept alive in the pool")
+                .register(meterRegistry);
+        Gauge.builder("employee.http.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("Requests waiting for a pooled connection")
+                .register(meterRegistry);
+        Gauge.builder("employee.http.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .description("Maximum number of pooled connections")
+                .register(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "employee.http.h2c.enabled", havingValue = "false", matchIfMissing = true)
+    public CloseableHttpClient employeeHttpClient(
+            PoolingHttpClientConnectionManager employeeConnectionManager,
+            @Value("${employee.http.read-timeout:PT5S}") Duration readTimeout,
+            @Value("${employee.http.connection-request-timeout:PT1S}") Duration connectionRequestTimeout,
+            @Value("${employee.http.keep-alive:PT15S}") Duration keepAlive,
+            @Value("${employee.http.idle-eviction:PT30S}") Duration idleEviction,
+            @Value("${employee.http.gzip:true}") boolean gzip) {
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(employeeConnectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+                // Stay below Tomcat's default keep-alive timeout so we do not reuse a connection it is closing.
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAlive.toMillis()))
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .build());
+        if (!gzip) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "employee.http.h2c.enabled", havingValue = "false", matchIfMissing = true)
+    public ClientHttpRequestFactory pooledRequestFactory(CloseableHttpClient employeeHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(employeeHttpClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "employee.http.h2c.enabled", havingValue = "true")
+    public ClientHttpRequestFactory http2RequestFactory(
+            @Value("${employee.http.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${employee.http.read-timeout:PT5S}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
+}
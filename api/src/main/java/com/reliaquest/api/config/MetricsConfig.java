@@ -0,0 +1,24 @@
+package com.reliaquest.api.config;
+
+import com.reliaquest.api.web.ResponseSizeFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meters beyond what actuator records on its own. Endpoint latency and status counts come from actuator's
+ * {@code http.server.requests}; upstream calls are timed by {@link com.reliaquest.api.client.UpstreamRetryExecutor}
+ * and cache reads counted by {@link com.reliaquest.api.cache.EmployeeSnapshotCache}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public FilterRegistrationBean<ResponseSizeFilter> responseSizeFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ResponseSizeFilter> registration =
+                new FilterRegistrationBean<>(new ResponseSizeFilter(meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,26 @@
+package com.reliaquest.api.config;
+
+import com.reliaquest.api.web.RequestLogFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sampled request logging in place of a log line per service call; see {@link RequestLogFilter}.
+ */
+@Configuration
+public class RequestLoggingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "employee.logging.requests.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RequestLogFilter> requestLogFilter(
+            @Value("${employee.logging.requests.sample-rate:0.01}") double sampleRate,
+            @Value("${employee.logging.requests.sample-rates:}") String sampleRates) {
+        FilterRegistrationBean<RequestLogFilter> registration = new FilterRegistrationBean<>(
+                new RequestLogFilter(sampleRate, RequestLogFilter.parseSampleRates(sampleRates)));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -1,19 +1,21 @@
 package com.reliaquest.api.config;
 
+import com.reliaquest.api.client.AdaptiveRateLimiter;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
-
 @Configuration
 public class RestTemplateConfig {
     @Bean
-    public RestTemplate restTemplate() {
+    public RestTemplate restTemplate(ClientHttpRequestFactory employeeRequestFactory,
+                                     AdaptiveRateLimiter adaptiveRateLimiter) {
+        // Timeouts are configured on the request factory, see HttpClientConfig.
         return new RestTemplateBuilder()
-                .setConnectTimeout(Duration.ofSeconds(5))
-                .setReadTimeout(Duration.ofSeconds(5))
+                .requestFactory(() -> employeeRequestFactory)
+                .additionalInterceptors(adaptiveRateLimiter)
                 .build();
     }
 }
\ No newline at end of file
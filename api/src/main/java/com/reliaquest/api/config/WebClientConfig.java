@@ -0,0 +1,68 @@
+package com.reliaquest.api.config;
+
+import com.reliaquest.api.client.AdaptiveRateLimiter;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking HTTP client for api → mock server calls in {@code employee.service.mode=reactive}: Reactor Netty on
+ * its own small event-loop pool, with the same timeouts, pool size and gzip setting as the blocking client in
+ * {@link HttpClientConfig}, and the {@link AdaptiveRateLimiter} applied as an exchange filter.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.service.mode", havingValue = "reactive")
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources employeeLoopResources(@Value("${employee.reactive.event-loop-threads:4}") int threads) {
+        return LoopResources.create("employee-client", threads, true);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider employeeConnectionProvider(
+            @Value("${employee.http.max-connections:50}") int maxConnections,
+            @Value("${employee.http.connection-request-timeout:PT1S}") Duration connectionRequestTimeout,
+            @Value("${employee.http.idle-eviction:PT30S}") Duration idleEviction) {
+        return ConnectionProvider.builder("employee-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(connectionRequestTimeout)
+                .maxIdleTime(idleEviction)
+                .build();
+    }
+
+    @Bean
+    public WebClient employeeWebClient(
+            WebClient.Builder webClientBuilder,
+            LoopResources employeeLoopResources,
+            ConnectionProvider employeeConnectionProvider,
+            AdaptiveRateLimiter adaptiveRateLimiter,
+            @Value("${employee.api.base-url}") String baseUrl,
+            @Value("${employee.http.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${employee.http.read-timeout:PT5S}") Duration readTimeout,
+            @Value("${employee.http.gzip:true}") boolean gzip,
+            @Value("${employee.reactive.max-in-memory-size:16MB}") DataSize maxInMemorySize) {
+        HttpClient httpClient = HttpClient.create(employeeConnectionProvider)
+                .runOn(employeeLoopResources)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout)
+                .compress(gzip);
+        return webClientBuilder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                // The roster arrives as one JSON document, which is well past the 256KB default.
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
+                .filter(adaptiveRateLimiter.exchangeFilter())
+                .build();
+    }
+}
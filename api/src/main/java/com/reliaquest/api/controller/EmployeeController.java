@@ -6,6 +6,7 @@ import com.reliaquest.api.model.Employee;
 import com.reliaquest.api.service.EmployeeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,10 +14,16 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 
+/**
+ * The {@link IEmployeeController} operations on the blocking {@link EmployeeService}. With
+ * {@code employee.service.mode=reactive} {@link ReactiveEmployeeController} serves them instead. The endpoints outside
+ * the contract are in {@link EmployeeExtensionsController} in both modes.
+ */
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/employees")
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "employee.service.mode", havingValue = "blocking", matchIfMissing = true)
 public class EmployeeController implements IEmployeeController<Employee, CreateEmployeeRequest> {
     private final EmployeeService employeeService;
 
@@ -52,10 +59,13 @@ public class EmployeeController implements IEmployeeController<Employee, CreateE
 
     @Override
     public ResponseEntity<String> deleteEmployeeById(String id) {
-        String name = employeeService.deleteEmployee(id);
+        return deletedName(employeeService.deleteEmployee(id));
+    }
+
+    static ResponseEntity<String> deletedName(String name) {
         String jsonString = "\"" + name + "\"";  // e.g. "John Doe"
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(jsonString);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.reliaquest.api.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.exception.InvalidRequestException;
+import com.reliaquest.api.model.CreateEmployeeRequest;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.EmployeeBatchResult;
+import com.reliaquest.api.service.EmployeeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Employee endpoints beyond the {@link IEmployeeController} contract, on the blocking {@link EmployeeService} whatever
+ * {@code employee.service.mode} is.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/employees")
+@RequiredArgsConstructor
+public class EmployeeExtensionsController {
+    // Five upstream requests at the default batch-size of 1000, the fewest the mock server lets through per window;
+    // larger batches would mostly come back FAILED once their chunks are rate limited.
+    private static final int MAX_BATCH_SIZE = 5_000;
+
+    private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Same body as {@link IEmployeeController#getAllEmployees()}, but written to the response while the roster is
+     * still being read, so neither side holds the whole array. Selected with {@code ?stream=true}.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                employeeService.forEachEmployee(employee -> {
+                    try {
+                        generator.writeObject(employee);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Looks up many ids in one request, serving what is cached and fetching the rest in parallel. Unknown ids are left
+     * out of the answer.
+     */
+    @PostMapping("/byIds")
+    public ResponseEntity<List<Employee>> getEmployeesByIds(@RequestBody List<String> ids) {
+        checkBatchSize(ids);
+        return ResponseEntity.ok(employeeService.getEmployeesByIds(ids));
+    }
+
+    /**
+     * Same as {@link IEmployeeController#getTopTenHighestEarningEmployeeNames()} for any number of names.
+     */
+    @GetMapping("/topHighestEarningEmployeeNames")
+    public ResponseEntity<List<String>> getTopHighestEarningEmployeeNames(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(employeeService.getTopHighestEarningEmployeeNames(limit));
+    }
+
+    /**
+     * Creates many employees with a handful of upstream requests. Each item is validated on its own and gets its own
+     * result, so one bad item does not fail the batch.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<EmployeeBatchResult>> createEmployees(
+            @RequestBody List<CreateEmployeeRequest> employeeInputs) {
+        checkBatchSize(employeeInputs);
+        return ResponseEntity.ok(employeeService.createEmployees(employeeInputs));
+    }
+
+    /**
+     * Deletes many employees by id with a handful of upstream requests, with one result per id.
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<EmployeeBatchResult>> deleteEmployeesById(@RequestBody List<String> ids) {
+        checkBatchSize(ids);
+        return ResponseEntity.ok(employeeService.deleteEmployees(ids));
+    }
+
+    private static void checkBatchSize(List<?> items) {
+        if (items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("A batch must have between 1 and " + MAX_BATCH_SIZE + " items");
+        }
+    }
+}
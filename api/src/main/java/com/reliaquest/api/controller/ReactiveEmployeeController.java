@@ -0,0 +1,72 @@
+package com.reliaquest.api.controller;
+
+import com.reliaquest.api.model.CreateEmployeeRequest;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.service.ReactiveEmployeeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The {@link IEmployeeController} operations on the {@link ReactiveEmployeeService}, for
+ * {@code employee.service.mode=reactive}. Same mappings and bodies as {@link EmployeeController}, but each handler
+ * returns a {@link Mono}, which Spring MVC answers on an async dispatch, so no request thread waits on the mock server.
+ * It cannot implement the interface, whose handlers return {@link ResponseEntity}, so
+ * {@code ReactiveEmployeeControllerTest} checks that its mappings, parameters and bodies match it.
+ * <p>
+ * Requests that outlive the async request timeout ({@code spring.mvc.async.request-timeout}) get a 503.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/employees")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "employee.service.mode", havingValue = "reactive")
+public class ReactiveEmployeeController {
+    private final ReactiveEmployeeService employeeService;
+
+    @GetMapping()
+    public Mono<ResponseEntity<List<Employee>>> getAllEmployees() {
+        return employeeService.getAllEmployees().map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search/{searchString}")
+    public Mono<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(@PathVariable String searchString) {
+        return employeeService.searchEmployeesByName(searchString).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id) {
+        return employeeService.getEmployeeById(id).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/highestSalary")
+    public Mono<ResponseEntity<Integer>> getHighestSalaryOfEmployees() {
+        return employeeService.getHighestSalary().map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/topTenHighestEarningEmployeeNames")
+    public Mono<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames() {
+        return employeeService.getTopHighestEarningEmployeeNames(10).map(ResponseEntity::ok);
+    }
+
+    @PostMapping()
+    public Mono<ResponseEntity<Employee>> createEmployee(@RequestBody CreateEmployeeRequest employeeInput) {
+        return employeeService.createEmployee(employeeInput).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id) {
+        return employeeService.deleteEmployee(id).map(EmployeeController::deletedName);
+    }
+}
@@ -1,11 +1,14 @@
 package com.reliaquest.api.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,6 +23,46 @@ public class ApiExceptionHandler {
         return error;
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public Map<String, String> handleBadRequest(InvalidRequestException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
+        return error;
+    }
+
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    @ResponseBody
+    public ResponseEntity<Map<String, String>> handleUpstreamUnavailable(UpstreamUnavailableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
+        // Retry-After is whole seconds; round up so clients never come back too early.
+        long retryAfterSeconds = (ex.getRetryAfter().toMillis() + 999) / 1000;
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(error);
+    }
+
+    @ExceptionHandler(UpstreamResponseTooLargeException.class)
+    @ResponseStatus(HttpStatus.BAD_GATEWAY)
+    @ResponseBody
+    public Map<String, String> handleUpstreamResponseTooLarge(UpstreamResponseTooLargeException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
+        return error;
+    }
+
+    /**
+     * A request answered asynchronously, as in reactive mode, that outlived {@code spring.mvc.async.request-timeout}.
+     */
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    @ResponseBody
+    public ResponseEntity<Map<String, String>> handleAsyncRequestTimeout(AsyncRequestTimeoutException ex) {
+        return handleUpstreamUnavailable(new UpstreamUnavailableException(
+                "The employee server did not answer in time", Duration.ofSeconds(1)));
+    }
+
     @ExceptionHandler(EmployeeApiException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ResponseBody
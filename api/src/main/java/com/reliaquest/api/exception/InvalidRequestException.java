@@ -0,0 +1,10 @@
+package com.reliaquest.api.exception;
+
+/**
+ * The client's request cannot be served as asked (a limit out of range, a batch too large, ...); answered with 400.
+ */
+public class InvalidRequestException extends EmployeeApiException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.reliaquest.api.exception;
+
+/**
+ * The mock server answered with a body larger than we are set up to buffer, such as a roster past
+ * {@code employee.reactive.max-in-memory-size}; answered with 502. Retrying would not help.
+ */
+public class UpstreamResponseTooLargeException extends EmployeeApiException {
+    public UpstreamResponseTooLargeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
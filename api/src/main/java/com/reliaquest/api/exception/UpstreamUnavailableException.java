@@ -0,0 +1,25 @@
+package com.reliaquest.api.exception;
+
+import java.time.Duration;
+
+/**
+ * The mock server cannot be used right now (rate limited, retry budget spent, ...). Callers are told when it is worth
+ * trying again instead of being held while we wait.
+ */
+public class UpstreamUnavailableException extends EmployeeApiException {
+    private final Duration retryAfter;
+
+    public UpstreamUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public UpstreamUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,118 @@
+package com.reliaquest.api.index;
+
+import com.reliaquest.api.cache.EmployeeRosterListener;
+import com.reliaquest.api.model.Employee;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Trigram index over employee names for case-insensitive substring search.
+ * <p>
+ * Every trigram of a lower-cased name maps to the ids containing it. A query picks the rarest trigram of the search
+ * string and only checks the employees in that posting, so its cost follows the candidate set rather than the roster.
+ * Searches shorter than a trigram scan the pre-lower-cased names, which still avoids lower-casing the roster per query.
+ * Matches come back in roster order, like the scan the index replaces.
+ * <p>
+ * Kept current by {@link com.reliaquest.api.cache.EmployeeSnapshotCache}, which calls the listener methods one at a
+ * time. Readers do not lock; a search racing with an update sees either the old or new entry for that employee.
+ */
+@Component
+public class EmployeeNameIndex implements EmployeeRosterListener {
+    private static final int GRAM_LENGTH = 3;
+    private static final Comparator<Entry> ROSTER_ORDER = Comparator.comparingLong(Entry::sequence);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+    // Only touched by the listener methods.
+    private long nextSequence;
+
+    @Override
+    public void onEmployeeAdded(Employee employee) {
+        String lowerName = lowerCase(employee.getName());
+        entries.put(employee.getId(), new Entry(employee, lowerName, nextSequence++));
+        forEachGram(lowerName, gram -> postings.computeIfAbsent(gram, ignored -> ConcurrentHashMap.newKeySet())
+                .add(employee.getId()));
+    }
+
+    @Override
+    public void onEmployeeRemoved(Employee employee) {
+        Entry entry = entries.remove(employee.getId());
+        if (entry == null) {
+            return;
+        }
+        forEachGram(entry.lowerName(), gram -> postings.computeIfPresent(gram, (ignored, ids) -> {
+            ids.remove(employee.getId());
+            return ids.isEmpty() ? null : ids;
+        }));
+    }
+
+    /**
+     * @return employees whose name contains {@code searchString}, ignoring case, in roster order, the same answer a
+     *     scan of the roster gives
+     */
+    public List<Employee> search(String searchString) {
+        String needle = lowerCase(searchString);
+        List<Entry> matches = new ArrayList<>();
+        if (needle.length() < GRAM_LENGTH) {
+            for (Entry entry : entries.values()) {
+                if (entry.employee().getName() != null && entry.lowerName().contains(needle)) {
+                    matches.add(entry);
+                }
+            }
+        } else {
+            for (String id : rarestPosting(needle)) {
+                Entry entry = entries.get(id);
+                if (entry != null && entry.lowerName().contains(needle)) {
+                    matches.add(entry);
+                }
+            }
+        }
+        matches.sort(ROSTER_ORDER);
+        return matches.stream()
+                .map(Entry::employee)
+                .toList();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Set<String> rarestPosting(String needle) {
+        Set<String> rarest = null;
+        for (int i = 0; i + GRAM_LENGTH <= needle.length(); i++) {
+            Set<String> posting = postings.get(needle.substring(i, i + GRAM_LENGTH));
+            if (posting == null) {
+                return Set.of();
+            }
+            if (rarest == null || posting.size() < rarest.size()) {
+                rarest = posting;
+            }
+        }
+        return rarest;
+    }
+
+    private static void forEachGram(String lowerName, Consumer<String> action) {
+        for (int i = 0; i + GRAM_LENGTH <= lowerName.length(); i++) {
+            action.accept(lowerName.substring(i, i + GRAM_LENGTH));
+        }
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param sequence when the employee was added; the snapshot appends added and changed employees to the roster, so
+     *                 this orders entries as the roster does
+     */
+    private record Entry(Employee employee, String lowerName, long sequence) {
+    }
+}
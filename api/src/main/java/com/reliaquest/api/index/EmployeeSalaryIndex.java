@@ -0,0 +1,76 @@
+package com.reliaquest.api.index;
+
+import com.reliaquest.api.cache.EmployeeRosterListener;
+import com.reliaquest.api.model.Employee;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Employees ordered by salary, highest first, so the highest salary is read off the head and the top N are the first N
+ * entries. Each create, delete or changed employee costs O(log n); employees without a salary are left out. Equal
+ * salaries keep roster order, like the sort the index replaces.
+ * <p>
+ * Kept current by {@link com.reliaquest.api.cache.EmployeeSnapshotCache}, which calls the listener methods one at a
+ * time. Readers do not lock.
+ */
+@Component
+public class EmployeeSalaryIndex implements EmployeeRosterListener {
+    private static final Comparator<Entry> HIGHEST_FIRST = Comparator.comparingInt(Entry::salary).reversed()
+            .thenComparingLong(Entry::sequence);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> bySalary = new ConcurrentSkipListSet<>(HIGHEST_FIRST);
+    // Only touched by the listener methods.
+    private long nextSequence;
+
+    @Override
+    public void onEmployeeAdded(Employee employee) {
+        if (employee.getSalary() == null) {
+            return;
+        }
+        Entry entry = new Entry(employee.getSalary(), employee.getId(), employee.getName(), nextSequence++);
+        Entry previous = entries.put(entry.id(), entry);
+        if (previous != null) {
+            bySalary.remove(previous);
+        }
+        bySalary.add(entry);
+    }
+
+    @Override
+    public void onEmployeeRemoved(Employee employee) {
+        Entry entry = entries.remove(employee.getId());
+        if (entry != null) {
+            bySalary.remove(entry);
+        }
+    }
+
+    public Optional<Integer> highestSalary() {
+        // pollFirst would remove the entry; an iterator is the race-free way to peek at the head.
+        Iterator<Entry> highestFirst = bySalary.iterator();
+        return highestFirst.hasNext() ? Optional.of(highestFirst.next().salary()) : Optional.empty();
+    }
+
+    public List<String> topEarnerNames(int limit) {
+        List<String> names = new ArrayList<>(Math.min(limit, entries.size()));
+        Iterator<Entry> highestFirst = bySalary.iterator();
+        while (names.size() < limit && highestFirst.hasNext()) {
+            names.add(highestFirst.next().name());
+        }
+        return names;
+    }
+
+    /**
+     * @param sequence when the employee was added; the snapshot appends added and changed employees to the roster, so
+     *                 this orders equal salaries as the roster does
+     */
+    private record Entry(int salary, String id, String name, long sequence) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.reliaquest.api.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.encoder.EncoderBase;
+import org.slf4j.event.KeyValuePair;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes each event as one logfmt line, {@code ts=... level=INFO thread=... logger=... msg="..." key=value ...}, with
+ * the event's key-value pairs and MDC entries as fields of their own.
+ * <p>
+ * Unlike a pattern layout there is no converter chain to walk: every line is appended straight into a builder sized
+ * for a typical line ({@code initialCapacity}), so it is not regrown while it is written. Values are quoted only when
+ * they have to be.
+ */
+public class StructuredLogEncoder extends EncoderBase<ILoggingEvent> {
+    private int initialCapacity = 256;
+
+    public void setInitialCapacity(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder line = new StringBuilder(initialCapacity);
+        line.append("ts=");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(event.getTimeStamp()), line);
+        line.append(" level=").append(event.getLevel().levelStr);
+        field(line, "thread", event.getThreadName());
+        field(line, "logger", event.getLoggerName());
+        field(line, "msg", event.getFormattedMessage());
+        List<KeyValuePair> keyValuePairs = event.getKeyValuePairs();
+        if (keyValuePairs != null) {
+            for (KeyValuePair keyValuePair : keyValuePairs) {
+                field(line, keyValuePair.key, keyValuePair.value);
+            }
+        }
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (!mdc.isEmpty()) {
+            mdc.forEach((key, value) -> field(line, key, value));
+        }
+        line.append(CoreConstants.LINE_SEPARATOR);
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            line.append(ThrowableProxyUtil.asString(throwable)).append(CoreConstants.LINE_SEPARATOR);
+        }
+        return line.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private static void field(StringBuilder line, String key, Object value) {
+        line.append(' ').append(key).append('=');
+        if (value instanceof Number || value instanceof Boolean) {
+            line.append(value);
+        } else {
+            appendQuotedIfNeeded(line, String.valueOf(value));
+        }
+    }
+
+    static void appendQuotedIfNeeded(StringBuilder line, String value) {
+        if (!needsQuotes(value)) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c <= ' ' || c == '"' || c == '=' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
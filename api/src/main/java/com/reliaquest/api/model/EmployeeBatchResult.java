@@ -0,0 +1,38 @@
+package com.reliaquest.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch request, identified by its position in the request.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeBatchResult {
+    private int index;
+
+    private Status status;
+
+    private String id;
+
+    private Employee employee;
+
+    private String error;
+
+    public enum Status {
+        CREATED,
+        DELETED,
+        NOT_FOUND,
+        INVALID,
+        /**
+         * The request carrying this item to the mock server failed; the item may or may not have been applied.
+         */
+        FAILED
+    }
+}
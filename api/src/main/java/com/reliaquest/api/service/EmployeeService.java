@@ -2,21 +2,49 @@ package com.reliaquest.api.service;
 
 import com.reliaquest.api.model.CreateEmployeeRequest;
 import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.EmployeeBatchResult;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     List<Employee> getAllEmployees();
 
+    /**
+     * Hands the roster to {@code action} one employee at a time, without holding all of it in memory when it is not
+     * cached already.
+     */
+    void forEachEmployee(Consumer<Employee> action);
+
     List<Employee> searchEmployeesByName(String searchString);
 
     Employee getEmployeeById(String id);
 
+    /**
+     * @return the employees with these ids, in the order first asked for; unknown ids are left out
+     */
+    List<Employee> getEmployeesByIds(Collection<String> ids);
+
     Integer getHighestSalary();
 
     List<String> getTopTenHighestEarningEmployeeNames();
 
+    List<String> getTopHighestEarningEmployeeNames(int limit);
+
     Employee createEmployee(CreateEmployeeRequest request);
 
     String deleteEmployee(String id);
+
+    /**
+     * Validates each request on its own and creates the valid ones in as few upstream requests as possible.
+     *
+     * @return one result per request, in the same order
+     */
+    List<EmployeeBatchResult> createEmployees(List<CreateEmployeeRequest> requests);
+
+    /**
+     * @return one result per id, in the same order
+     */
+    List<EmployeeBatchResult> deleteEmployees(List<String> ids);
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.reliaquest.api.service;
+
+import com.reliaquest.api.model.CreateEmployeeRequest;
+import com.reliaquest.api.model.Employee;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking form of the {@link EmployeeService} operations behind
+ * {@link com.reliaquest.api.controller.IEmployeeController}, used when {@code employee.service.mode} is
+ * {@code reactive}. Failures are signalled the way {@link EmployeeService} throws them.
+ */
+public interface ReactiveEmployeeService {
+    Mono<List<Employee>> getAllEmployees();
+
+    Mono<List<Employee>> searchEmployeesByName(String searchString);
+
+    Mono<Employee> getEmployeeById(String id);
+
+    Mono<Integer> getHighestSalary();
+
+    Mono<List<String>> getTopHighestEarningEmployeeNames(int limit);
+
+    Mono<Employee> createEmployee(CreateEmployeeRequest request);
+
+    Mono<String> deleteEmployee(String id);
+}
@@ -1,185 +1,359 @@
 package com.reliaquest.api.service.impl;
 
-import com.reliaquest.api.dto.Response;
+import com.reliaquest.api.cache.EmployeeSnapshotCache;
+import com.reliaquest.api.client.EmployeeApiClient;
+import com.reliaquest.api.client.scan.HighestSalaryVisitor;
+import com.reliaquest.api.client.scan.NameFilterVisitor;
+import com.reliaquest.api.client.scan.TopEarnersVisitor;
 import com.reliaquest.api.exception.EmployeeApiException;
 import com.reliaquest.api.exception.EmployeeNotFoundException;
+import com.reliaquest.api.exception.InvalidRequestException;
+import com.reliaquest.api.index.EmployeeNameIndex;
+import com.reliaquest.api.index.EmployeeSalaryIndex;
 import com.reliaquest.api.model.CreateEmployeeRequest;
 import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.EmployeeBatchResult;
 import com.reliaquest.api.service.EmployeeService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.Collections;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
-    private final RestTemplate restTemplate;
-    private String baseUrl;
+    private static final Pattern UUID_PATTERN =
+            Pattern.compile("\\p{XDigit}{8}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{12}");
 
-    public EmployeeServiceImpl(RestTemplate restTemplate,
-                               @Value("${employee.api.base-url}") String baseUrl) {
-        this.restTemplate = restTemplate;
-        this.baseUrl = baseUrl;
+    private final EmployeeApiClient employeeApiClient;
+    private final EmployeeSnapshotCache employeeSnapshotCache;
+    private final EmployeeNameIndex employeeNameIndex;
+    private final EmployeeSalaryIndex employeeSalaryIndex;
+    private final Validator validator;
+    private final int batchSize;
+
+    public EmployeeServiceImpl(EmployeeApiClient employeeApiClient,
+                               EmployeeSnapshotCache employeeSnapshotCache,
+                               EmployeeNameIndex employeeNameIndex,
+                               EmployeeSalaryIndex employeeSalaryIndex,
+                               Validator validator,
+                               @Value("${employee.api.batch-size:1000}") int batchSize) {
+        this.employeeApiClient = employeeApiClient;
+        this.employeeSnapshotCache = employeeSnapshotCache;
+        this.employeeNameIndex = employeeNameIndex;
+        this.employeeSalaryIndex = employeeSalaryIndex;
+        this.validator = validator;
+        this.batchSize = batchSize;
     }
 
-    @Retryable(maxAttempts = 5,
-            backoff = @Backoff(delay = 10000, multiplier = 2.0, maxDelay = 60000, random = true))
     @Override
     public List<Employee> getAllEmployees() {
-        log.info("Fetching all employees");
+        log.debug("Fetching all employees");
         try {
-            ResponseEntity<Response<List<Employee>>> response = restTemplate.exchange(
-                    baseUrl,
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<Response<List<Employee>>>() {
-                    }
-            );
-            return Optional.ofNullable(response.getBody())
-                    .map(Response::getData)
-                    .orElse(Collections.emptyList());
+            return roster();
+        } catch (EmployeeApiException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching employees", e);
             throw new EmployeeApiException("Failed to fetch employees", e);
         }
     }
 
-    @Retryable(maxAttempts = 5,
-            backoff = @Backoff(delay = 10000, multiplier = 2.0, maxDelay = 60000, random = true))
+    @Override
+    public void forEachEmployee(Consumer<Employee> action) {
+        log.debug("Streaming all employees");
+        try {
+            if (employeeSnapshotCache.isEnabled()) {
+                employeeSnapshotCache.get().employees().forEach(action);
+            } else {
+                employeeApiClient.streamAllEmployees(action);
+            }
+        } catch (EmployeeApiException | UncheckedIOException e) {
+            // An UncheckedIOException comes from action itself, typically because our own client went away.
+            throw e;
+        } catch (Exception e) {
+            log.error("Error streaming employees", e);
+            throw new EmployeeApiException("Failed to stream employees", e);
+        }
+    }
+
     @Override
     public List<Employee> searchEmployeesByName(String searchString) {
-        log.info("Searching employees with name containing: {}", searchString);
+        log.debug("Searching employees with name containing: {}", searchString);
         try {
-            List<Employee> allEmployees = getAllEmployees();
-            return allEmployees.stream()
-                    .filter(emp -> emp.getName().toLowerCase().contains(searchString.toLowerCase()))
-                    .collect(Collectors.toList());
+            if (employeeSnapshotCache.isEnabled()) {
+                // Loading the snapshot also brings the index it feeds up to date.
+                employeeSnapshotCache.get();
+                return employeeNameIndex.search(searchString);
+            }
+            NameFilterVisitor nameFilter = new NameFilterVisitor(searchString);
+            employeeApiClient.scanAllEmployees(nameFilter);
+            return nameFilter.matches();
+        } catch (EmployeeApiException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error searching employees by name", e);
             throw new EmployeeApiException("Failed to search employees", e);
         }
     }
 
-    @Retryable(maxAttempts = 5,
-            backoff = @Backoff(delay = 10000, multiplier = 2.0, maxDelay = 60000, random = true))
     @Override
     public Employee getEmployeeById(String id) {
-        log.info("Fetching employee with id: {}", id);
+        log.debug("Fetching employee with id: {}", id);
         try {
-            ResponseEntity<Response<Employee>> response = restTemplate.exchange(
-                    baseUrl + "/" + id,
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<>() {
-                    }
-            );
-            return Optional.ofNullable(response.getBody())
-                    .map(Response::getData)
+            return employeeSnapshotCache.find(id)
+                    .or(() -> employeeApiClient.fetchEmployeeById(id))
                     .orElseThrow(() -> new EmployeeNotFoundException("Employee not found with id: " + id));
-        } catch (HttpClientErrorException.NotFound e) {
-            throw new EmployeeNotFoundException("Employee not found with id: " + id);
+        } catch (EmployeeApiException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching employee by id", e);
             throw new EmployeeApiException("Failed to fetch employee", e);
         }
     }
 
-    @Retryable(maxAttempts = 5,
-            backoff = @Backoff(delay = 10000, multiplier = 2.0, maxDelay = 60000, random = true))
+    @Override
+    public List<Employee> getEmployeesByIds(Collection<String> ids) {
+        log.debug("Fetching {} employees by id", ids.size());
+        try {
+            Set<String> wanted = new LinkedHashSet<>(ids);
+            Map<String, Employee> found = new HashMap<>();
+            List<String> misses = new ArrayList<>();
+            for (String id : wanted) {
+                employeeSnapshotCache.find(id).ifPresentOrElse(employee -> found.put(id, employee),
+                        () -> misses.add(id));
+            }
+            if (!misses.isEmpty()) {
+                found.putAll(employeeApiClient.fetchEmployeesById(misses));
+            }
+            return wanted.stream()
+                    .map(found::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        } catch (EmployeeApiException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error fetching employees by id", e);
+            throw new EmployeeApiException("Failed to fetch employees", e);
+        }
+    }
+
     @Override
     public Integer getHighestSalary() {
-        log.info("Fetching highest salary");
+        log.debug("Fetching highest salary");
         try {
-            return getAllEmployees().stream()
-                    .map(Employee::getSalary)
-                    .max(Integer::compareTo)
-                    .orElse(0);
+            if (employeeSnapshotCache.isEnabled()) {
+                employeeSnapshotCache.get();
+                return employeeSalaryIndex.highestSalary().orElse(0);
+            }
+            HighestSalaryVisitor highestSalary = new HighestSalaryVisitor();
+            employeeApiClient.scanAllEmployees(highestSalary);
+            return highestSalary.highestSalary().orElse(0);
+        } catch (EmployeeApiException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching highest salary", e);
             throw new EmployeeApiException("Failed to get highest salary", e);
         }
     }
 
-    @Retryable(maxAttempts = 5,
-            backoff = @Backoff(delay = 10000, multiplier = 2.0, maxDelay = 60000, random = true))
     @Override
     public List<String> getTopTenHighestEarningEmployeeNames() {
-        log.info("Fetching top 10 highest earning employee names");
+        return getTopHighestEarningEmployeeNames(10);
+    }
+
+    @Override
+    public List<String> getTopHighestEarningEmployeeNames(int limit) {
+        log.debug("Fetching top {} highest earning employee names", limit);
+        if (limit < 1) {
+            throw new InvalidRequestException("limit must be at least 1");
+        }
         try {
-            return getAllEmployees().stream()
-                    .sorted((e1, e2) -> e2.getSalary().compareTo(e1.getSalary()))
-                    .limit(10)
-                    .map(Employee::getName)
-                    .collect(Collectors.toList());
+            if (employeeSnapshotCache.isEnabled()) {
+                employeeSnapshotCache.get();
+                return employeeSalaryIndex.topEarnerNames(limit);
+            }
+            TopEarnersVisitor topEarners = new TopEarnersVisitor(limit);
+            employeeApiClient.scanAllEmployees(topEarners);
+            return topEarners.names();
+        } catch (EmployeeApiException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Error fetching top 10 highest earning employees", e);
-            throw new EmployeeApiException("Failed to get top 10 highest earning employees", e);
+            log.error("Error fetching top {} highest earning employees", limit, e);
+            throw new EmployeeApiException("Failed to get top " + limit + " highest earning employees", e);
         }
     }
 
-    @Retryable(maxAttempts = 5,
-            backoff = @Backoff(delay = 10000, multiplier = 2.0, maxDelay = 60000, random = true))
     @Override
     public Employee createEmployee(CreateEmployeeRequest request) {
-        log.info("Creating new employee: {}", request);
+        log.debug("Creating new employee named {}", request.getName());
         try {
-            HttpEntity<CreateEmployeeRequest> requestEntity = new HttpEntity<>(request);
-            ResponseEntity<Response<Employee>> response = restTemplate.exchange(
-                    baseUrl,
-                    HttpMethod.POST,
-                    requestEntity,
-                    new ParameterizedTypeReference<>() {
-                    }
-            );
-            return Optional.ofNullable(response.getBody())
-                    .map(Response::getData)
+            Employee employee = employeeApiClient.createEmployee(request)
                     .orElseThrow(() -> new EmployeeApiException("Failed to create employee"));
+            employeeSnapshotCache.put(employee);
+            return employee;
+        } catch (EmployeeApiException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error creating employee", e);
             throw new EmployeeApiException("Failed to create employee", e);
         }
     }
 
-    @Retryable(maxAttempts = 5,
-            backoff = @Backoff(delay = 10000, multiplier = 2.0, maxDelay = 60000, random = true))
     @Override
     public String deleteEmployee(String id) {
-        log.info("Deleting employee with id: {}", id);
+        log.debug("Deleting employee with id: {}", id);
         try {
-            Employee employee = getEmployeeById(id);
-
-            Map<String, String> body = Collections.singletonMap("name", employee.getName());
-
-            HttpEntity<Map<String, String>> requestEntity = new HttpEntity<>(body);
-
-            restTemplate.exchange(
-                    baseUrl,
-                    HttpMethod.DELETE,
-                    requestEntity,
-                    new ParameterizedTypeReference<Response<Boolean>>() {
-                    }
-            );
+            Employee employee = employeeApiClient.deleteEmployeeById(id)
+                    .orElseThrow(() -> new EmployeeNotFoundException("Employee not found with id: " + id));
+            employeeSnapshotCache.remove(id);
 
             return employee.getName();
-        } catch (EmployeeNotFoundException e) {
+        } catch (EmployeeApiException e) {
             throw e;
         } catch (Exception e) {
             log.error("Error deleting employee", e);
             throw new EmployeeApiException("Failed to delete employee", e);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<EmployeeBatchResult> createEmployees(List<CreateEmployeeRequest> requests) {
+        log.info("Creating {} employees in batches of {}", requests.size(), batchSize);
+        EmployeeBatchResult[] results = new EmployeeBatchResult[requests.size()];
+        List<Integer> validIndexes = new ArrayList<>(requests.size());
+        for (int index = 0; index < requests.size(); index++) {
+            String error = validationError(requests.get(index));
+            if (error == null) {
+                validIndexes.add(index);
+            } else {
+                results[index] = EmployeeBatchResult.builder()
+                        .index(index)
+                        .status(EmployeeBatchResult.Status.INVALID)
+                        .error(error)
+                        .build();
+            }
+        }
+        List<Employee> created = new ArrayList<>();
+        forEachChunk(validIndexes, chunk -> {
+            List<CreateEmployeeRequest> chunkRequests = chunk.stream().map(requests::get).toList();
+            List<EmployeeBatchResult> chunkResults = employeeApiClient.createEmployees(chunkRequests);
+            for (EmployeeBatchResult result : chunkResults) {
+                if (result.getStatus() == EmployeeBatchResult.Status.CREATED && result.getEmployee() != null) {
+                    created.add(result.getEmployee());
+                }
+            }
+            return chunkResults;
+        }, results);
+        employeeSnapshotCache.applyLocalWrites(created, List.of());
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public List<EmployeeBatchResult> deleteEmployees(List<String> ids) {
+        log.info("Deleting {} employees in batches of {}", ids.size(), batchSize);
+        EmployeeBatchResult[] results = new EmployeeBatchResult[ids.size()];
+        List<Integer> validIndexes = new ArrayList<>(ids.size());
+        for (int index = 0; index < ids.size(); index++) {
+            String id = ids.get(index);
+            // The server binds the whole batch as UUIDs, so one malformed id would fail every item sent with it.
+            if (id != null && UUID_PATTERN.matcher(id).matches()) {
+                validIndexes.add(index);
+            } else {
+                results[index] = EmployeeBatchResult.builder()
+                        .index(index)
+                        .status(EmployeeBatchResult.Status.INVALID)
+                        .id(id)
+                        .error("id must be a UUID")
+                        .build();
+            }
+        }
+        List<String> deleted = new ArrayList<>();
+        forEachChunk(validIndexes, chunk -> {
+            List<EmployeeBatchResult> chunkResults =
+                    employeeApiClient.deleteEmployeesById(chunk.stream().map(ids::get).toList());
+            for (EmployeeBatchResult result : chunkResults) {
+                if (result.getStatus() == EmployeeBatchResult.Status.DELETED) {
+                    deleted.add(result.getId());
+                }
+            }
+            return chunkResults;
+        }, results);
+        employeeSnapshotCache.applyLocalWrites(List.of(), deleted);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Sends the items at {@code indexes} upstream {@code batchSize} at a time and files each upstream result under
+     * the item's index in {@code results}. A chunk whose request fails marks its items as failed and does not stop
+     * the rest.
+     */
+    private void forEachChunk(List<Integer> indexes,
+                              Function<List<Integer>, List<EmployeeBatchResult>> send,
+                              EmployeeBatchResult[] results) {
+        for (int start = 0; start < indexes.size(); start += batchSize) {
+            List<Integer> chunk = indexes.subList(start, Math.min(start + batchSize, indexes.size()));
+            try {
+                List<EmployeeBatchResult> chunkResults = send.apply(chunk);
+                for (EmployeeBatchResult result : chunkResults) {
+                    if (result.getIndex() < 0 || result.getIndex() >= chunk.size()) {
+                        continue;
+                    }
+                    int index = chunk.get(result.getIndex());
+                    result.setIndex(index);
+                    results[index] = result;
+                }
+            } catch (Exception e) {
+                log.error("Batch of {} employees failed", chunk.size(), e);
+            }
+            for (int index : chunk) {
+                if (results[index] == null) {
+                    results[index] = EmployeeBatchResult.builder()
+                            .index(index)
+                            .status(EmployeeBatchResult.Status.FAILED)
+                            .error("The employee server did not complete this item")
+                            .build();
+                }
+            }
+        }
+    }
+
+    private String validationError(CreateEmployeeRequest request) {
+        if (request == null) {
+            return "employee must not be null";
+        }
+        Set<ConstraintViolation<CreateEmployeeRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Served from the local snapshot when caching is enabled, otherwise straight from the mock server.
+     */
+    private List<Employee> roster() {
+        return employeeSnapshotCache.isEnabled()
+                ? employeeSnapshotCache.get().employees()
+                : employeeApiClient.fetchAllEmployees();
+    }
+}
@@ -0,0 +1,147 @@
+package com.reliaquest.api.service.impl;
+
+import com.reliaquest.api.cache.EmployeeSnapshotCache;
+import com.reliaquest.api.client.ReactiveEmployeeApiClient;
+import com.reliaquest.api.exception.EmployeeApiException;
+import com.reliaquest.api.exception.EmployeeNotFoundException;
+import com.reliaquest.api.exception.InvalidRequestException;
+import com.reliaquest.api.index.EmployeeNameIndex;
+import com.reliaquest.api.index.EmployeeSalaryIndex;
+import com.reliaquest.api.model.CreateEmployeeRequest;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.service.ReactiveEmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * {@link ReactiveEmployeeService} on the {@link ReactiveEmployeeApiClient}. Reads are served from the snapshot cache
+ * when it holds a servable snapshot and go to the mock server otherwise; the cache is only ever peeked at, so a
+ * missing snapshot is loaded in the background instead of on an event-loop thread.
+ * <p>
+ * Local writes are recorded in the cache on a worker thread, since the cache may be holding its lock across a refresh.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "employee.service.mode", havingValue = "reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+    private final ReactiveEmployeeApiClient employeeApiClient;
+    private final EmployeeSnapshotCache employeeSnapshotCache;
+    private final EmployeeNameIndex employeeNameIndex;
+    private final EmployeeSalaryIndex employeeSalaryIndex;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeApiClient employeeApiClient,
+                                       EmployeeSnapshotCache employeeSnapshotCache,
+                                       EmployeeNameIndex employeeNameIndex,
+                                       EmployeeSalaryIndex employeeSalaryIndex) {
+        this.employeeApiClient = employeeApiClient;
+        this.employeeSnapshotCache = employeeSnapshotCache;
+        this.employeeNameIndex = employeeNameIndex;
+        this.employeeSalaryIndex = employeeSalaryIndex;
+    }
+
+    @Override
+    public Mono<List<Employee>> getAllEmployees() {
+        log.debug("Fetching all employees");
+        return translate(employeeSnapshotCache.peek()
+                .map(snapshot -> Mono.just(snapshot.employees()))
+                .orElseGet(employeeApiClient::fetchAllEmployees), "Failed to fetch employees");
+    }
+
+    @Override
+    public Mono<List<Employee>> searchEmployeesByName(String searchString) {
+        log.debug("Searching employees with name containing: {}", searchString);
+        if (employeeSnapshotCache.peek().isPresent()) {
+            return Mono.just(employeeNameIndex.search(searchString));
+        }
+        String needle = searchString.toLowerCase(Locale.ROOT);
+        return translate(employeeApiClient.fetchAllEmployees()
+                .map(employees -> employees.stream()
+                        .filter(employee -> employee.getName() != null
+                                && employee.getName().toLowerCase(Locale.ROOT).contains(needle))
+                        .toList()), "Failed to search employees");
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(String id) {
+        log.debug("Fetching employee with id: {}", id);
+        return translate(employeeSnapshotCache.find(id)
+                .map(Mono::just)
+                .orElseGet(() -> employeeApiClient.fetchEmployeeById(id))
+                .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException("Employee not found with id: " + id))),
+                "Failed to fetch employee");
+    }
+
+    @Override
+    public Mono<Integer> getHighestSalary() {
+        log.debug("Fetching highest salary");
+        if (employeeSnapshotCache.peek().isPresent()) {
+            return Mono.just(employeeSalaryIndex.highestSalary().orElse(0));
+        }
+        return translate(employeeApiClient.fetchAllEmployees()
+                .map(employees -> employees.stream()
+                        .map(Employee::getSalary)
+                        .filter(Objects::nonNull)
+                        .max(Integer::compareTo)
+                        .orElse(0)), "Failed to get highest salary");
+    }
+
+    @Override
+    public Mono<List<String>> getTopHighestEarningEmployeeNames(int limit) {
+        log.debug("Fetching top {} highest earning employee names", limit);
+        if (limit < 1) {
+            return Mono.error(new InvalidRequestException("limit must be at least 1"));
+        }
+        if (employeeSnapshotCache.peek().isPresent()) {
+            return Mono.just(employeeSalaryIndex.topEarnerNames(limit));
+        }
+        // A stable sort, so employees with equal salaries keep their roster order.
+        return translate(employeeApiClient.fetchAllEmployees()
+                .map(employees -> employees.stream()
+                        .filter(employee -> employee.getSalary() != null)
+                        .sorted(Comparator.comparing(Employee::getSalary).reversed())
+                        .limit(limit)
+                        .map(Employee::getName)
+                        .toList()), "Failed to get top " + limit + " highest earning employees");
+    }
+
+    @Override
+    public Mono<Employee> createEmployee(CreateEmployeeRequest request) {
+        log.debug("Creating new employee named {}", request.getName());
+        return translate(employeeApiClient.createEmployee(request)
+                .switchIfEmpty(Mono.error(() -> new EmployeeApiException("Failed to create employee")))
+                .flatMap(employee -> recordLocally(() -> employeeSnapshotCache.put(employee)).thenReturn(employee)),
+                "Failed to create employee");
+    }
+
+    @Override
+    public Mono<String> deleteEmployee(String id) {
+        log.debug("Deleting employee with id: {}", id);
+        return translate(employeeApiClient.deleteEmployeeById(id)
+                .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException("Employee not found with id: " + id)))
+                .flatMap(employee -> recordLocally(() -> employeeSnapshotCache.remove(id))
+                        .thenReturn(employee.getName())),
+                "Failed to delete employee");
+    }
+
+    private static Mono<Void> recordLocally(Runnable write) {
+        return Mono.fromRunnable(write).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+    /**
+     * Passes {@link EmployeeApiException}s on and wraps anything else, like {@link EmployeeServiceImpl} does.
+     */
+    private static <T> Mono<T> translate(Mono<T> call, String message) {
+        return call.onErrorMap(e -> !(e instanceof EmployeeApiException), e -> {
+            log.error(message, e);
+            return new EmployeeApiException(message, e);
+        });
+    }
+}
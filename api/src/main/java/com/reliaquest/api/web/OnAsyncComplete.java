@@ -0,0 +1,32 @@
+package com.reliaquest.api.web;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+/**
+ * Runs an action once an async request has completed, after its response has been written.
+ */
+final class OnAsyncComplete implements AsyncListener {
+    private final Runnable action;
+
+    OnAsyncComplete(Runnable action) {
+        this.action = action;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        action.run();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+}
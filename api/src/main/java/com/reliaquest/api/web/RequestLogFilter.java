@@ -0,0 +1,111 @@
+package com.reliaquest.api.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.event.Level;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs a sample of completed requests, one structured line each: method, endpoint, URI template, status and duration,
+ * plus the rate the line was sampled at so counts can be scaled back up.
+ * <p>
+ * Each endpoint, named after its controller method (e.g. {@code getEmployeeById}), is sampled at its own rate from
+ * {@code employee.logging.requests.sample-rates}, and at {@code sample-rate} otherwise. Requests answered with a 5xx
+ * are always logged, at WARN. Nothing is formatted for a request that is not sampled.
+ */
+@Slf4j
+public class RequestLogFilter extends OncePerRequestFilter {
+    private static final String UNMAPPED = "unmapped";
+
+    private final double defaultSampleRate;
+    private final Map<String, Double> sampleRates;
+
+    public RequestLogFilter(double defaultSampleRate, Map<String, Double> sampleRates) {
+        this.defaultSampleRate = checkRate(defaultSampleRate);
+        this.sampleRates = Map.copyOf(sampleRates);
+        this.sampleRates.values().forEach(RequestLogFilter::checkRate);
+    }
+
+    /**
+     * Parses {@code getEmployeeById=0.01,createEmployee=1} into sample rates by endpoint.
+     */
+    public static Map<String, Double> parseSampleRates(String sampleRates) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String entry : sampleRates.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] endpointAndRate = entry.trim().split("=");
+            if (endpointAndRate.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint=rate, got '" + entry + "'");
+            }
+            rates.put(endpointAndRate[0].trim(), Double.parseDouble(endpointAndRate[1].trim()));
+        }
+        return rates;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(
+                        new OnAsyncComplete(() -> logRequest(request, response.getStatus(), started)));
+            } else {
+                int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+                logRequest(request, status, started);
+            }
+        }
+    }
+
+    void logRequest(HttpServletRequest request, int status, long startedNanos) {
+        String endpoint = endpoint(request);
+        double sampleRate = sampleRates.getOrDefault(endpoint, defaultSampleRate);
+        boolean serverError = status >= 500;
+        if (!serverError && !sampled(sampleRate)) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        log.atLevel(serverError ? Level.WARN : Level.INFO)
+                .setMessage("request")
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("endpoint", endpoint)
+                .addKeyValue("uri", pattern == null ? UNMAPPED : pattern)
+                .addKeyValue("status", status)
+                .addKeyValue("duration_ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos))
+                .addKeyValue("sample_rate", serverError ? 1.0 : sampleRate)
+                .log();
+    }
+
+    private static boolean sampled(double sampleRate) {
+        return sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return handler instanceof HandlerMethod handlerMethod ? handlerMethod.getMethod().getName() : UNMAPPED;
+    }
+
+    private static double checkRate(double sampleRate) {
+        if (sampleRate < 0.0 || sampleRate > 1.0) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1, got " + sampleRate);
+        }
+        return sampleRate;
+    }
+}
@@ -0,0 +1,62 @@
+package com.reliaquest.api.web;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.time.Duration;
+
+/**
+ * Tells clients when an answer was served from the last known good roster because the mock server could not be asked:
+ * {@code Age} carries the snapshot's age in seconds and {@code Warning: 110} marks the response as stale.
+ * <p>
+ * Whatever serves the stale data calls {@link #markStale} on the request's thread; the headers are added when the body
+ * is written, on that thread or on an async dispatch of the same request.
+ */
+@ControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+    static final String SNAPSHOT_AGE_ATTRIBUTE = StaleResponseAdvice.class.getName() + ".snapshotAge";
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    /**
+     * Marks the current request, if there is one, as answered from a snapshot of age {@code age}. The oldest mark
+     * wins.
+     */
+    public static void markStale(Duration age) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        Object marked = attributes.getAttribute(SNAPSHOT_AGE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (marked instanceof Duration markedAge && markedAge.compareTo(age) >= 0) {
+            return;
+        }
+        attributes.setAttribute(SNAPSHOT_AGE_ATTRIBUTE, age, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(SNAPSHOT_AGE_ATTRIBUTE) instanceof Duration age) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set(HttpHeaders.AGE, String.valueOf(age.toSeconds()));
+            headers.set(HttpHeaders.WARNING, STALE_WARNING);
+        }
+        return body;
+    }
+}
@@ -1,9 +1,14 @@
 package com.reliaquest.api;
 
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.QueueDispatcher;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,11 +16,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -26,8 +36,13 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 
 @SpringBootTest
 @AutoConfigureMockMvc
+// Every test here enqueues its own upstream responses, so the roster must not be cached between them.
+// WithTheRosterCached runs the same scenarios with the cache on, as it is by default.
+@TestPropertySource(properties = "employee.cache.enabled=false")
 class ApiApplicationTest {
 
+    private static final String PATH = "/api/v1/employee";
+
     private static MockWebServer mockWebServer;
 
     @Autowired
@@ -129,9 +144,9 @@ class ApiApplicationTest {
     """.formatted(EMPLOYEE_CHARLIE_GREEN);
     private static final String DELETE_EMPLOYEE_RESPONSE = """
     {
-      "data": true
+      "data": %s
     }
-    """;
+    """.formatted(EMPLOYEE_JOHN_DOE);
 
     @BeforeAll
     static void setUp() throws IOException {
@@ -146,7 +161,7 @@ class ApiApplicationTest {
 
     @DynamicPropertySource
     static void registerProperties(DynamicPropertyRegistry registry) {
-        String baseUrl = String.format("http://localhost:%s/api/v1/employee", mockWebServer.getPort());
+        String baseUrl = String.format("http://localhost:%s%s", mockWebServer.getPort(), PATH);
         registry.add("employee.api.base-url", () -> baseUrl);
     }
 
@@ -249,10 +264,6 @@ class ApiApplicationTest {
     @Timeout(value = 5, unit = TimeUnit.SECONDS)
     void deleteEmployee_ShouldReturnDeletedEmployeeName() throws Exception {
         String employeeId = "1";
-        mockWebServer.enqueue(new MockResponse()
-                .setBody(GET_EMPLOYEE_RESPONSE)
-                .addHeader("Content-Type", "application/json"));
-
         mockWebServer.enqueue(new MockResponse()
                 .setBody(DELETE_EMPLOYEE_RESPONSE)
                 .addHeader("Content-Type", "application/json"));
@@ -262,4 +273,170 @@ class ApiApplicationTest {
                 .andExpect(jsonPath("$").value("John Doe"));
     }
 
+    /**
+     * The scenarios above with the roster cached. The upstream keeps a roster of its own that writes change, and every
+     * read after the first must be answered from the snapshot without asking it again.
+     */
+    @Nested
+    @TestPropertySource(properties = {"employee.cache.enabled=true", "employee.cache.ttl=PT1H"})
+    class WithTheRosterCached {
+
+        private static final Map<String, String> upstreamRoster = new LinkedHashMap<>();
+        private static final AtomicInteger rosterReads = new AtomicInteger();
+        private static final AtomicInteger byIdReads = new AtomicInteger();
+
+        // This class has a context of its own; the enclosing instance's MockMvc would call the uncached one.
+        @Autowired
+        private MockMvc mockMvc;
+
+        // Set before this context starts, so its first background refresh already finds the roster.
+        @BeforeAll
+        static void serveRoster() {
+            synchronized (upstreamRoster) {
+                upstreamRoster.put("1", EMPLOYEE_JOHN_DOE);
+                upstreamRoster.put("2", EMPLOYEE_JANE_SMITH);
+                upstreamRoster.put("3", EMPLOYEE_ALICE_JOHNSON);
+                upstreamRoster.put("4", EMPLOYEE_BOB_BROWN);
+            }
+            mockWebServer.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    return upstream(request);
+                }
+            });
+        }
+
+        @AfterAll
+        static void restoreQueue() {
+            mockWebServer.setDispatcher(new QueueDispatcher());
+        }
+
+        @BeforeEach
+        void loadRoster() throws Exception {
+            mockMvc.perform(get("/api/v1/employees")).andExpect(status().isOk());
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void getAllEmployees_ShouldReturnOkAndData() throws Exception {
+            int reads = rosterReads.get();
+
+            mockMvc.perform(get("/api/v1/employees"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(4))
+                    .andExpect(jsonPath("$[0].name").value("John Doe"))
+                    .andExpect(jsonPath("$[0].salary").value(100000));
+            assertEquals(reads, rosterReads.get());
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void searchEmployeesByName_ShouldReturnFilteredEmployees() throws Exception {
+            int reads = rosterReads.get();
+
+            mockMvc.perform(get("/api/v1/employees/search/Jane"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].name").value("Jane Smith"))
+                    .andExpect(jsonPath("$[0].salary").value(120000));
+            assertEquals(reads, rosterReads.get());
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void getEmployeeById_ShouldReturnOkAndEmployee() throws Exception {
+            int byIds = byIdReads.get();
+
+            mockMvc.perform(get("/api/v1/employees/1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value("1"))
+                    .andExpect(jsonPath("$.name").value("John Doe"))
+                    .andExpect(jsonPath("$.email").value("john.doe@ddls.com"));
+            assertEquals(byIds, byIdReads.get());
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void getHighestSalary_ShouldReturnMaxSalary() throws Exception {
+            int reads = rosterReads.get();
+
+            mockMvc.perform(get("/api/v1/employees/highestSalary"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$").value(120000));
+            assertEquals(reads, rosterReads.get());
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void getTopTenHighestEarningEmployeeNames_ShouldReturnTopNames() throws Exception {
+            int reads = rosterReads.get();
+
+            mockMvc.perform(get("/api/v1/employees/topTenHighestEarningEmployeeNames"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(4))
+                    .andExpect(jsonPath("$[0]").value("Jane Smith"))
+                    .andExpect(jsonPath("$[1]").value("Bob Brown"))
+                    .andExpect(jsonPath("$[2]").value("John Doe"))
+                    .andExpect(jsonPath("$[3]").value("Alice Johnson"));
+            assertEquals(reads, rosterReads.get());
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void createAndDeleteEmployee_ShouldUpdateTheCachedRoster() throws Exception {
+            int reads = rosterReads.get();
+
+            mockMvc.perform(post("/api/v1/employees")
+                            .contentType("application/json")
+                            .content(CREATE_EMPLOYEE_REQUEST))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value("5"))
+                    .andExpect(jsonPath("$.name").value("Charlie Green"));
+            mockMvc.perform(get("/api/v1/employees"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(5))
+                    .andExpect(jsonPath("$[4].name").value("Charlie Green"));
+
+            mockMvc.perform(delete("/api/v1/employees/5"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$").value("Charlie Green"));
+            mockMvc.perform(get("/api/v1/employees"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(4))
+                    .andExpect(jsonPath("$[?(@.id == '5')]").isEmpty());
+            assertEquals(reads, rosterReads.get());
+        }
+
+        private static MockResponse upstream(RecordedRequest request) {
+            String path = request.getPath();
+            String method = request.getMethod();
+            synchronized (upstreamRoster) {
+                if (PATH.equals(path) && "GET".equals(method)) {
+                    rosterReads.incrementAndGet();
+                    return json("{\"data\":[" + String.join(",", upstreamRoster.values()) + "]}");
+                }
+                if (PATH.equals(path) && "POST".equals(method)) {
+                    upstreamRoster.put("5", EMPLOYEE_CHARLIE_GREEN);
+                    return json(CREATE_EMPLOYEE_RESPONSE);
+                }
+                if (path != null && path.startsWith(PATH + "/")) {
+                    String id = path.substring(PATH.length() + 1);
+                    String employee = "DELETE".equals(method) ? upstreamRoster.remove(id) : upstreamRoster.get(id);
+                    if ("GET".equals(method)) {
+                        byIdReads.incrementAndGet();
+                    }
+                    return employee == null
+                            ? new MockResponse().setResponseCode(404)
+                            : json("{\"data\":" + employee + "}");
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        }
+
+        private static MockResponse json(String body) {
+            return new MockResponse()
+                    .setBody(body)
+                    .addHeader("Content-Type", "application/json");
+        }
+    }
 }
@@ -0,0 +1,198 @@
+package com.reliaquest.api;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The {@link com.reliaquest.api.controller.IEmployeeController} endpoints with {@code employee.service.mode=reactive}:
+ * each request is answered on an async dispatch once the WebClient call completes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReactiveApiApplicationTest {
+
+    private static MockWebServer mockWebServer;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static final String EMPLOYEE_JOHN_DOE = """
+    {
+      "id": "1",
+      "employee_name": "John Doe",
+      "employee_salary": 100000,
+      "employee_age": 33,
+      "employee_title": "Software Dev",
+      "employee_email": "john.doe@ddls.com"
+    }
+    """;
+    private static final String EMPLOYEE_JANE_SMITH = """
+    {
+      "id": "2",
+      "employee_name": "Jane Smith",
+      "employee_salary": 120000,
+      "employee_age": 29,
+      "employee_title": "Product Manager",
+      "employee_email": "jane.smith@ddls.com"
+    }
+    """;
+    private static final String TWO_EMPLOYEES_LIST = """
+    {
+      "data": [
+        %s,
+        %s
+      ]
+    }
+    """.formatted(EMPLOYEE_JOHN_DOE, EMPLOYEE_JANE_SMITH);
+    private static final String EMPLOYEE_RESPONSE = """
+    {
+      "data": %s
+    }
+    """.formatted(EMPLOYEE_JOHN_DOE);
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        String baseUrl = String.format("http://localhost:%s/api/v1/employee", mockWebServer.getPort());
+        registry.add("employee.api.base-url", () -> baseUrl);
+        registry.add("employee.service.mode", () -> "reactive");
+        registry.add("employee.cache.enabled", () -> "false");
+        // A learned 429 would close the limiter for its whole cooldown; these tests are about the retries.
+        registry.add("employee.limiter.enabled", () -> "false");
+        registry.add("employee.retry.initial-backoff", () -> "PT0.01S");
+        // Above the two-employee roster, below the large one.
+        registry.add("employee.reactive.max-in-memory-size", () -> "2KB");
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("GET /{id} is answered asynchronously from the upstream response")
+    void getEmployeeById_answersOnAsyncDispatch() throws Exception {
+        mockWebServer.enqueue(json(EMPLOYEE_RESPONSE));
+
+        mockMvc.perform(async(get("/api/v1/employees/1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("1"))
+                .andExpect(jsonPath("$.name").value("John Doe"))
+                .andExpect(jsonPath("$.salary").value(100000));
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("An unknown id is a 404 on the async dispatch")
+    void getEmployeeById_unknownIdIsNotFound() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        mockMvc.perform(async(get("/api/v1/employees/missing")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("A 429 is retried on a timer and the retry's answer is served")
+    void getHighestSalary_retriesTooManyRequests() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(429));
+        mockWebServer.enqueue(json(TWO_EMPLOYEES_LIST));
+
+        mockMvc.perform(async(get("/api/v1/employees/highestSalary")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(120000));
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("Top earners and search are computed from the upstream roster")
+    void topEarnersAndSearch_fromUpstreamRoster() throws Exception {
+        mockWebServer.enqueue(json(TWO_EMPLOYEES_LIST));
+        mockWebServer.enqueue(json(TWO_EMPLOYEES_LIST));
+
+        mockMvc.perform(async(get("/api/v1/employees/topTenHighestEarningEmployeeNames")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0]").value("Jane Smith"))
+                .andExpect(jsonPath("$[1]").value("John Doe"));
+        mockMvc.perform(async(get("/api/v1/employees/search/jane")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Jane Smith"));
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("DELETE /{id} answers with the deleted employee's name as a JSON string")
+    void deleteEmployee_answersWithName() throws Exception {
+        mockWebServer.enqueue(json(EMPLOYEE_RESPONSE));
+
+        mockMvc.perform(async(delete("/api/v1/employees/1")))
+                .andExpect(status().isOk())
+                .andExpect(content().string("\"John Doe\""));
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("A roster past max-in-memory-size is a 502 naming the setting, and is not retried")
+    void oversizedRoster_isBadGateway() throws Exception {
+        String employees = String.join(",", Collections.nCopies(20, EMPLOYEE_JOHN_DOE));
+        mockWebServer.enqueue(json("{\"data\": [" + employees + "]}"));
+        int requestsBefore = mockWebServer.getRequestCount();
+
+        mockMvc.perform(async(get("/api/v1/employees/highestSalary")))
+                .andExpect(status().isBadGateway())
+                .andExpect(jsonPath("$.message").value(
+                        "The employee roster is larger than employee.reactive.max-in-memory-size"));
+        assertEquals(requestsBefore + 1, mockWebServer.getRequestCount());
+    }
+
+    /**
+     * Performs {@code builder}, checks that it went async, and returns the dispatch that writes its answer.
+     */
+    private RequestBuilder async(RequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(TimeUnit.SECONDS.toMillis(4));
+        return asyncDispatch(started);
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+                .setBody(body)
+                .addHeader("Content-Type", "application/json");
+    }
+}
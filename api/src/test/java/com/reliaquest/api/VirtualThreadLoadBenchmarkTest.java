@@ -0,0 +1,179 @@
+package com.reliaquest.api;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives {@code GET /api/v1/employees/{id}} with a growing number of concurrent callers against an upstream that takes
+ * {@link #UPSTREAM_LATENCY} per call, once on Tomcat's platform-thread pool and once with
+ * {@code spring.threads.virtual.enabled}, and prints throughput and p99 latency per level. A level counts as
+ * sustained while nothing fails and p99 stays under {@link #SUSTAINED_P99}.
+ * <p>
+ * Not a pass/fail check; run with {@code ./gradlew api:benchmark -PjavaVersion=21} (the virtual-thread run is skipped
+ * on older runtimes) and compare the two tables.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTest {
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(100);
+    private static final Duration SUSTAINED_P99 = UPSTREAM_LATENCY.multipliedBy(2);
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASURED = Duration.ofSeconds(5);
+    private static final int[] CONCURRENCY = {100, 200, 400, 800, 1600, 3200};
+    private static final String EMPLOYEE_RESPONSE = """
+            {
+              "data": {
+                "id": "1",
+                "employee_name": "John Doe",
+                "employee_salary": 100000,
+                "employee_age": 33,
+                "employee_title": "Software Dev",
+                "employee_email": "john.doe@ddls.com"
+              }
+            }
+            """;
+
+    private static MockWebServer upstream;
+
+    @BeforeAll
+    static void startUpstream() throws IOException {
+        upstream = new MockWebServer();
+        upstream.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setBody(EMPLOYEE_RESPONSE)
+                        .addHeader("Content-Type", "application/json")
+                        .setHeadersDelay(UPSTREAM_LATENCY.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+        upstream.start();
+    }
+
+    @AfterAll
+    static void stopUpstream() throws IOException {
+        upstream.shutdown();
+    }
+
+    @ParameterizedTest(name = "virtual threads: {0}")
+    @ValueSource(booleans = {false, true})
+    void maxSustainedConcurrency(boolean virtualThreads) throws Exception {
+        Assumptions.assumeTrue(!virtualThreads || Runtime.version().feature() >= 21,
+                "virtual threads need a Java 21 runtime");
+        try (ConfigurableApplicationContext api = startApi(virtualThreads)) {
+            URI uri = URI.create("http://localhost:" + api.getEnvironment().getProperty("local.server.port")
+                    + "/api/v1/employees/1");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newCachedThreadPool())
+                    .build();
+            run(client, uri, CONCURRENCY[0], WARMUP);
+
+            System.out.printf("%n%s threads, upstream latency %d ms%n", virtualThreads ? "Virtual" : "Platform",
+                    UPSTREAM_LATENCY.toMillis());
+            System.out.printf("%12s %12s %10s %10s %8s%n", "concurrency", "requests/s", "p50 ms", "p99 ms", "errors");
+            int sustained = 0;
+            for (int concurrency : CONCURRENCY) {
+                Result result = run(client, uri, concurrency, MEASURED);
+                System.out.printf("%12d %12.0f %10.1f %10.1f %8d%n", concurrency,
+                        result.latencies().size() / (double) MEASURED.toSeconds(),
+                        result.percentile(0.50) / 1e6, result.percentile(0.99) / 1e6, result.errors());
+                if (result.errors() == 0 && result.percentile(0.99) <= SUSTAINED_P99.toNanos()) {
+                    sustained = concurrency;
+                }
+            }
+            System.out.printf("Max sustained concurrency: %d%n", sustained);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApi(boolean virtualThreads) {
+        return new SpringApplicationBuilder(ApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "employee.api.base-url=http://localhost:" + upstream.getPort() + "/api/v1/employee",
+                        "employee.cache.enabled=false",
+                        // Let the servlet threads be the limit being measured, not the upstream bulkhead.
+                        "employee.limiter.max-in-flight=10000",
+                        "employee.limiter.max-wait=PT10S",
+                        "employee.http.max-connections=10000",
+                        "employee.http.max-connections-per-route=10000",
+                        "employee.http.connection-request-timeout=PT10S",
+                        "employee.retry.caller-wait=PT10S",
+                        "logging.level.com.reliaquest=WARN")
+                .run();
+    }
+
+    /**
+     * Closed loop: each of {@code concurrency} callers sends its next request as soon as the previous one returns.
+     */
+    private static Result run(HttpClient client, URI uri, int concurrency, Duration duration) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                running.add(callers.submit(() -> {
+                    while (System.nanoTime() - deadline < 0) {
+                        long started = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                latencies.add(System.nanoTime() - started);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> caller : running) {
+                caller.get();
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        return new Result(latencies, errors.get());
+    }
+
+    private record Result(List<Long> latencies, int errors) {
+        long percentile(double quantile) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(quantile * sorted.size()) - 1));
+        }
+    }
+}
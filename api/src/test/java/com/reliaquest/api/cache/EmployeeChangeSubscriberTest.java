@@ -0,0 +1,217 @@
+package com.reliaquest.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.client.AdaptiveRateLimiter;
+import com.reliaquest.api.client.CircuitBreaker;
+import com.reliaquest.api.client.EmployeeChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.InOrder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Timeout(value = 10, unit = TimeUnit.SECONDS)
+class EmployeeChangeSubscriberTest {
+    private static final Duration IDLE_TIMEOUT = Duration.ofMillis(50);
+
+    private final EmployeeSnapshotCache employeeSnapshotCache = mock(EmployeeSnapshotCache.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final AtomicReference<Runnable> idleCheck = new AtomicReference<>();
+    private final AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(new SimpleMeterRegistry(), true, 5,
+            Duration.ofSeconds(30), Duration.ofMinutes(2), Duration.ofSeconds(1), 0.4, 100, 10, 50);
+    private final CircuitBreaker circuitBreaker =
+            new CircuitBreaker(new SimpleMeterRegistry(), true, 1, Duration.ofMinutes(1), 1);
+    private MockWebServer server;
+    private EmployeeChangeSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        when(employeeSnapshotCache.isEnabled()).thenReturn(true);
+        when(taskScheduler.scheduleWithFixedDelay(any(Runnable.class), any(Duration.class))).thenAnswer(invocation -> {
+            idleCheck.set(invocation.getArgument(0));
+            return mock(ScheduledFuture.class);
+        });
+        subscriber = new EmployeeChangeSubscriber(employeeSnapshotCache, new ObjectMapper(), taskScheduler, rateLimiter,
+                circuitBreaker, server.url("/api/v1/employee").toString(), Duration.ofSeconds(1), Duration.ofMillis(10),
+                Duration.ofMillis(20), IDLE_TIMEOUT);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        subscriber.stop();
+        server.shutdown();
+    }
+
+    @Test
+    @DisplayName("Events are parsed field by field, comments skipped and multi-line data joined, then applied in order")
+    void events_parsedAndAppliedInOrder() throws Exception {
+        when(employeeSnapshotCache.version()).thenReturn(5L);
+        when(employeeSnapshotCache.applyChange(any(EmployeeChange.class))).thenReturn(true);
+        server.enqueue(eventStream("""
+                : connected
+
+                id:6
+                event:change
+                data:{"version":6,"type":"DELETED","id":"a"}
+
+                event: heartbeat
+                data: 6
+
+                id: 7
+                event: change
+                data: {"version":7,
+                data: "type":"DELETED","id":"b"}
+
+                """));
+
+        subscriber.start();
+
+        RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals("/api/v1/employee/changes/stream", request.getPath());
+        assertEquals("5", request.getHeader("Last-Event-ID"));
+        assertEquals("text/event-stream", request.getHeader("Accept"));
+        InOrder inOrder = inOrder(employeeSnapshotCache);
+        inOrder.verify(employeeSnapshotCache, timeout(5000))
+                .applyChange(new EmployeeChange(6, EmployeeChange.Type.DELETED, "a", null));
+        inOrder.verify(employeeSnapshotCache, timeout(5000)).confirmVersion(6);
+        inOrder.verify(employeeSnapshotCache, timeout(5000))
+                .applyChange(new EmployeeChange(7, EmployeeChange.Type.DELETED, "b", null));
+        verify(employeeSnapshotCache, never()).forceRefresh();
+    }
+
+    @Test
+    @DisplayName("A change out of sequence drops the stream, refreshes the cache and resubscribes from its new version")
+    void gap_forcesRefreshAndResubscribes() throws Exception {
+        when(employeeSnapshotCache.version()).thenReturn(5L, 9L);
+        EmployeeChange gap = new EmployeeChange(8, EmployeeChange.Type.DELETED, "c", null);
+        when(employeeSnapshotCache.applyChange(gap)).thenReturn(false);
+        server.enqueue(eventStream("""
+                id:8
+                event:change
+                data:{"version":8,"type":"DELETED","id":"c"}
+
+                id:9
+                event:change
+                data:{"version":9,"type":"DELETED","id":"d"}
+
+                """));
+
+        subscriber.start();
+
+        assertEquals("5", server.takeRequest(5, TimeUnit.SECONDS).getHeader("Last-Event-ID"));
+        RecordedRequest resubscribe = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(resubscribe);
+        assertEquals("9", resubscribe.getHeader("Last-Event-ID"));
+        InOrder inOrder = inOrder(employeeSnapshotCache);
+        inOrder.verify(employeeSnapshotCache).applyChange(gap);
+        inOrder.verify(employeeSnapshotCache).forceRefresh();
+        // The rest of the dropped stream is left to the refresh.
+        verify(employeeSnapshotCache, never())
+                .applyChange(new EmployeeChange(9, EmployeeChange.Type.DELETED, "d", null));
+    }
+
+    @Test
+    @DisplayName("A resync event refreshes the cache before resubscribing")
+    void resync_forcesRefresh() throws Exception {
+        when(employeeSnapshotCache.version()).thenReturn(5L, 12L);
+        server.enqueue(eventStream("""
+                event:resync
+                data:12
+
+                """));
+
+        subscriber.start();
+
+        server.takeRequest(5, TimeUnit.SECONDS);
+        RecordedRequest resubscribe = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(resubscribe);
+        assertEquals("12", resubscribe.getHeader("Last-Event-ID"));
+        verify(employeeSnapshotCache).forceRefresh();
+    }
+
+    @Test
+    @DisplayName("A stream that goes quiet past the idle timeout is closed and reopened from the snapshot's version")
+    void idleStream_reconnects() throws Exception {
+        when(employeeSnapshotCache.version()).thenReturn(5L);
+        String heartbeat = "event:heartbeat\ndata:5\n\n";
+        // Announces more body than is sent, so the stream stays open with nothing more on it.
+        server.enqueue(eventStream(heartbeat).setHeader("Content-Length", heartbeat.length() + 1000));
+
+        subscriber.start();
+
+        server.takeRequest(5, TimeUnit.SECONDS);
+        verify(employeeSnapshotCache, timeout(5000)).confirmVersion(5);
+        RecordedRequest reconnect = null;
+        while (reconnect == null) {
+            Thread.sleep(IDLE_TIMEOUT.toMillis());
+            idleCheck.get().run();
+            reconnect = server.takeRequest(10, TimeUnit.MILLISECONDS);
+        }
+        assertEquals("5", reconnect.getHeader("Last-Event-ID"));
+        verify(employeeSnapshotCache, never()).forceRefresh();
+    }
+
+    @Test
+    @DisplayName("A connect answered 429 counts against the circuit, and the next one waits instead of looping")
+    void rejectedConnect_waitsOutTheRetryAfter() throws Exception {
+        when(employeeSnapshotCache.version()).thenReturn(5L);
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "60"));
+        server.enqueue(eventStream(": connected\n\n"));
+
+        subscriber.start();
+
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        assertNull(server.takeRequest(300, TimeUnit.MILLISECONDS));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+    }
+
+    @Test
+    @DisplayName("With the circuit open no connect is made")
+    void openCircuit_noConnect() throws Exception {
+        when(employeeSnapshotCache.version()).thenReturn(5L);
+        circuitBreaker.acquire("fetch-all");
+        circuitBreaker.onResult(HttpServerErrorException.create(
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(), null, null));
+        server.enqueue(eventStream(": connected\n\n"));
+
+        subscriber.start();
+
+        assertNull(server.takeRequest(300, TimeUnit.MILLISECONDS));
+        assertEquals(0, server.getRequestCount());
+    }
+
+    private static MockResponse eventStream(String body) {
+        return new MockResponse()
+                .setHeader("Content-Type", "text/event-stream")
+                .setBody(body);
+    }
+}
@@ -0,0 +1,306 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.client.CircuitBreaker;
+import com.reliaquest.api.client.EmployeeApiClient;
+import com.reliaquest.api.client.EmployeeChange;
+import com.reliaquest.api.client.EmployeeChanges;
+import com.reliaquest.api.client.EmployeeRoster;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.web.StaleResponseAdvice;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class EmployeeSnapshotCacheTest {
+    // A ttl every snapshot is already past when it is loaded, so tests need not wait for one to age.
+    private static final Duration EXPIRED = Duration.ofNanos(-1);
+
+    private static final Employee ALICE = employee("1", "Alice");
+    private static final Employee BOB = employee("2", "Bob");
+    private static final Employee CAROL = employee("3", "Carol");
+    private static final Employee DAVE = employee("4", "Dave");
+
+    private final EmployeeApiClient employeeApiClient = mock(EmployeeApiClient.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreaker circuitBreaker =
+            new CircuitBreaker(new SimpleMeterRegistry(), true, 1, Duration.ofMinutes(1), 1);
+    private final List<String> events = new ArrayList<>();
+    private final EmployeeRosterListener recorder = new EmployeeRosterListener() {
+        @Override
+        public void onEmployeeAdded(Employee employee) {
+            events.add("+" + employee.getId());
+        }
+
+        @Override
+        public void onEmployeeRemoved(Employee employee) {
+            events.add("-" + employee.getId());
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("A snapshot younger than the ttl is served without asking the server again")
+    void freshSnapshot_servedAsIs() {
+        when(employeeApiClient.fetchAllEmployeesIfChanged(null))
+                .thenReturn(Optional.of(new EmployeeRoster(List.of(ALICE, BOB), "\"1\"", 1L)));
+        EmployeeSnapshotCache cache = cache(Duration.ofMinutes(1), Duration.ofMinutes(1), true);
+
+        EmployeeSnapshot first = cache.get();
+        EmployeeSnapshot second = cache.get();
+
+        assertSame(first, second);
+        assertEquals(List.of(ALICE, BOB), first.employees());
+        assertEquals(Optional.of(BOB), cache.find("2"));
+        assertEquals(Optional.empty(), cache.find("9"));
+        assertEquals(List.of("+1", "+2"), events);
+        verify(employeeApiClient, times(1)).fetchAllEmployeesIfChanged(null);
+        verifyNoInteractions(taskScheduler);
+        // The first read found no snapshot to serve.
+        assertEquals(1, reads("roster", "miss"));
+        assertEquals(1, reads("roster", "hit"));
+        assertEquals(1, reads("by-id", "hit"));
+        assertEquals(1, reads("by-id", "miss"));
+    }
+
+    @Test
+    @DisplayName("Within the stale-while-revalidate window the snapshot is served while one background refresh runs")
+    void staleSnapshot_servedWhileRefreshingInBackground() {
+        when(employeeApiClient.fetchAllEmployeesIfChanged(null))
+                .thenReturn(Optional.of(new EmployeeRoster(List.of(ALICE, BOB), "\"1\"", 1L)));
+        when(employeeApiClient.fetchAllEmployeesIfChanged("\"1\""))
+                .thenReturn(Optional.of(new EmployeeRoster(List.of(ALICE, CAROL), "\"2\"", 2L)));
+        EmployeeSnapshotCache cache = cache(EXPIRED, Duration.ofMinutes(1), false);
+        EmployeeSnapshot loaded = cache.get();
+
+        assertSame(loaded, cache.get());
+        assertSame(loaded, cache.get());
+        verify(employeeApiClient, never()).fetchAllEmployeesIfChanged("\"1\"");
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, times(1)).schedule(refresh.capture(), any(Instant.class));
+        assertEquals(1, reads("roster", "miss"));
+        assertEquals(2, reads("roster", "stale"));
+        assertEquals(0, reads("roster", "hit"));
+
+        refresh.getValue().run();
+
+        assertEquals(List.of(ALICE, CAROL), cache.get().employees());
+        assertEquals(2L, cache.version());
+        assertEquals(List.of("+1", "+2", "-2", "+3"), events);
+    }
+
+    @Test
+    @DisplayName("A 304 keeps the snapshot and resets its age without telling listeners anything")
+    void notModified_revalidatesTheSnapshot() {
+        when(employeeApiClient.fetchAllEmployeesIfChanged(null))
+                .thenReturn(Optional.of(new EmployeeRoster(List.of(ALICE, BOB), "\"1\"", 1L)));
+        when(employeeApiClient.fetchAllEmployeesIfChanged("\"1\"")).thenReturn(Optional.empty());
+        EmployeeSnapshotCache cache = cache(Duration.ofMinutes(1), Duration.ofMinutes(1), false);
+        EmployeeSnapshot loaded = cache.get();
+
+        EmployeeSnapshot revalidated = cache.forceRefresh();
+
+        assertNotSame(loaded, revalidated);
+        assertSame(loaded.employees(), revalidated.employees());
+        assertEquals("\"1\"", revalidated.etag());
+        assertFalse(revalidated.fetchedAt().isBefore(loaded.fetchedAt()));
+        assertEquals(List.of("+1", "+2"), events);
+    }
+
+    @Test
+    @DisplayName("A refresh applies the change feed, and rereads the roster once the feed no longer reaches back")
+    void deltaSync_appliesChangesOrRereads() {
+        when(employeeApiClient.fetchAllEmployeesIfChanged(null))
+                .thenReturn(Optional.of(new EmployeeRoster(List.of(ALICE, BOB), "\"3\"", 3L)));
+        when(employeeApiClient.fetchChangesSince(3L)).thenReturn(Optional.of(new EmployeeChanges(List.of(
+                new EmployeeChange(4, EmployeeChange.Type.CREATED, "3", CAROL),
+                new EmployeeChange(5, EmployeeChange.Type.DELETED, "1", null)), 5, "\"5\"")));
+        when(employeeApiClient.fetchChangesSince(5L)).thenReturn(Optional.empty());
+        when(employeeApiClient.fetchAllEmployeesIfChanged("\"5\""))
+                .thenReturn(Optional.of(new EmployeeRoster(List.of(BOB, CAROL, DAVE), "\"7\"", 7L)));
+        EmployeeSnapshotCache cache = cache(Duration.ofMinutes(1), Duration.ofMinutes(1), true);
+        cache.get();
+
+        EmployeeSnapshot synced = cache.forceRefresh();
+
+        assertEquals(List.of(BOB, CAROL), synced.employees());
+        assertEquals(5L, synced.version());
+        assertEquals("\"5\"", synced.etag());
+        verify(employeeApiClient, never()).fetchAllEmployeesIfChanged("\"3\"");
+        assertEquals(List.of("+1", "+2", "+3", "-1"), events);
+
+        EmployeeSnapshot reread = cache.forceRefresh();
+
+        assertEquals(List.of(BOB, CAROL, DAVE), reread.employees());
+        assertEquals(7L, reread.version());
+        assertEquals(List.of("+1", "+2", "+3", "-1", "+4"), events);
+    }
+
+    @Test
+    @DisplayName("Pushed changes are applied in version order, and a confirmed version keeps the snapshot fresh")
+    void pushedChanges_appliedInOrder() {
+        when(employeeApiClient.fetchAllEmployeesIfChanged(null))
+                .thenReturn(Optional.of(new EmployeeRoster(List.of(ALICE), "\"3\"", 3L)));
+        EmployeeSnapshotCache cache = cache(Duration.ofMinutes(1), Duration.ofMinutes(1), true);
+        assertFalse(cache.applyChange(new EmployeeChange(1, EmployeeChange.Type.CREATED, "2", BOB)));
+        EmployeeSnapshot loaded = cache.get();
+
+        assertTrue(cache.applyChange(new EmployeeChange(2, EmployeeChange.Type.DELETED, "1", null)));
+        assertSame(loaded, cache.get());
+        assertFalse(cache.applyChange(new EmployeeChange(5, EmployeeChange.Type.CREATED, "2", BOB)));
+        assertSame(loaded, cache.get());
+        assertTrue(cache.applyChange(new EmployeeChange(4, EmployeeChange.Type.CREATED, "2", BOB)));
+
+        EmployeeSnapshot changed = cache.get();
+        assertEquals(List.of(ALICE, BOB), changed.employees());
+        assertEquals(4L, changed.version());
+        assertNull(changed.etag());
+        assertEquals(List.of("+1", "+2"), events);
+
+        cache.confirmVersion(3);
+        assertSame(changed, cache.get());
+        cache.confirmVersion(4);
+        EmployeeSnapshot confirmed = cache.get();
+        assertNotSame(changed, confirmed);
+        assertSame(changed.employees(), confirmed.employees());
+        assertFalse(confirmed.fetchedAt().isBefore(changed.fetchedAt()));
+        verify(employeeApiClient, never()).fetchChangesSince(anyLong());
+    }
+
+    @Test
+    @DisplayName("A batch of local writes is applied in one pass and reported to listeners in order")
+    void localWrites_appliedInOnePass() {
+        when(employeeApiClient.fetchAllEmployeesIfChanged(null))
+                .thenReturn(Optional.of(new EmployeeRoster(List.of(ALICE, BOB), "\"1\"", 1L)));
+        EmployeeSnapshotCache cache = cache(Duration.ofMinutes(1), Duration.ofMinutes(1), true);
+        cache.applyLocalWrites(List.of(CAROL), List.of("1"));
+        verifyNoInteractions(employeeApiClient);
+        EmployeeSnapshot loaded = cache.get();
+        events.clear();
+
+        Employee renamedBob = employee("2", "Robert");
+        cache.applyLocalWrites(List.of(CAROL, renamedBob), List.of("1"));
+
+        EmployeeSnapshot written = cache.get();
+        assertEquals(List.of(CAROL, renamedBob), written.employees());
+        assertEquals("\"1\"", written.etag());
+        assertEquals(1L, written.version());
+        assertEquals(loaded.fetchedAt(), written.fetchedAt());
+        assertEquals(List.of("-1", "+3", "-2", "+2"), events);
+    }
+
+    @Test
+    @DisplayName("Past the window with the circuit open, the last known good snapshot is served and marked stale")
+    void openCircuit_servesLastKnownGood() {
+        when(employeeApiClient.fetchAllEmployeesIfChanged(null))
+                .thenReturn(Optional.of(new EmployeeRoster(List.of(ALICE, BOB), "\"1\"", 1L)));
+        EmployeeSnapshotCache cache = cache(EXPIRED, Duration.ZERO, false);
+        EmployeeSnapshot loaded = cache.get();
+        openCircuit();
+        MockHttpServletRequest request = currentRequest();
+
+        assertSame(loaded, cache.get());
+        assertEquals(Optional.of(loaded), cache.peek());
+
+        verify(employeeApiClient, times(1)).fetchAllEmployeesIfChanged(any());
+        assertInstanceOf(Duration.class, request.getAttribute(StaleResponseAdvice.class.getName() + ".snapshotAge"));
+        assertEquals(2, reads("roster", "fallback"));
+        assertEquals(1, reads("roster", "miss"));
+    }
+
+    @Test
+    @DisplayName("Past the window, a refresh the server fails falls back to the last known good snapshot")
+    void upstreamFailure_servesLastKnownGood() {
+        when(employeeApiClient.fetchAllEmployeesIfChanged(null))
+                .thenReturn(Optional.of(new EmployeeRoster(List.of(ALICE, BOB), "\"1\"", 1L)));
+        when(employeeApiClient.fetchAllEmployeesIfChanged("\"1\""))
+                .thenThrow(HttpServerErrorException.create(
+                        HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(), null, null))
+                .thenThrow(new IllegalStateException("Not a server failure"));
+        EmployeeSnapshotCache cache = cache(EXPIRED, Duration.ZERO, false);
+        EmployeeSnapshot loaded = cache.get();
+        MockHttpServletRequest request = currentRequest();
+
+        assertSame(loaded, cache.get());
+        assertInstanceOf(Duration.class, request.getAttribute(StaleResponseAdvice.class.getName() + ".snapshotAge"));
+        assertThrows(IllegalStateException.class, cache::get);
+
+        // Without an open circuit, peek never falls back: it leaves the load to a background refresh.
+        assertEquals(Optional.empty(), cache.peek());
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        // An employee from a snapshot past the window is served, but marked stale too.
+        MockHttpServletRequest byIdRequest = currentRequest();
+        assertEquals(Optional.of(ALICE), cache.find("1"));
+        assertInstanceOf(Duration.class,
+                byIdRequest.getAttribute(StaleResponseAdvice.class.getName() + ".snapshotAge"));
+        // A read that throws is not counted; the peek that left the load to the background is a miss.
+        assertEquals(1, reads("roster", "fallback"));
+        assertEquals(2, reads("roster", "miss"));
+        assertEquals(1, reads("by-id", "hit"));
+    }
+
+    private EmployeeSnapshotCache cache(Duration ttl, Duration staleWhileRevalidate, boolean deltaSync) {
+        return new EmployeeSnapshotCache(employeeApiClient, taskScheduler, List.of(recorder), meterRegistry,
+                circuitBreaker, true, ttl, staleWhileRevalidate, deltaSync);
+    }
+
+    private double reads(String read, String result) {
+        return meterRegistry.get("employee.cache.reads")
+                .tag("read", read)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private void openCircuit() {
+        circuitBreaker.acquire("fetch-all");
+        circuitBreaker.onResult(HttpServerErrorException.create(
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(), null, null));
+    }
+
+    private static MockHttpServletRequest currentRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/employees");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+
+    private static Employee employee(String id, String name) {
+        return Employee.builder().id(id).name(name).salary(1000 * Integer.parseInt(id)).build();
+    }
+}
@@ -0,0 +1,268 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveRateLimiterTest {
+    private static final MockClientHttpRequest REQUEST =
+            new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/api/v1/employee"));
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("However many callers there are, at most max-in-flight calls reach the server at once")
+    void manyCallers_inFlightStaysBounded() throws Exception {
+        AdaptiveRateLimiter limiter = limiter(5, Duration.ofSeconds(10));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ClientHttpRequestExecution execution = (request, body) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+
+        ExecutorService callers = Executors.newFixedThreadPool(100);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                calls.add(callers.submit(() -> {
+                    limiter.intercept(REQUEST, new byte[0], execution).close();
+                    return null;
+                }));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertTrue(maxInFlight.get() <= 5, "max in flight: " + maxInFlight.get());
+        assertEquals(0, limiter.inFlightCalls());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("Background calls are shed at once when every in-flight slot is taken")
+    void slotsTaken_backgroundCallIsShed() throws Exception {
+        AdaptiveRateLimiter limiter = limiter(1, Duration.ofSeconds(10));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> held = caller.submit(() -> limiter.intercept(REQUEST, new byte[0], (request, body) -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            assertThrows(UpstreamUnavailableException.class, () -> UpstreamPriority.callAs(
+                    UpstreamPriority.BACKGROUND, () -> {
+                        try {
+                            return limiter.intercept(REQUEST, new byte[0],
+                                    (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }));
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+
+            release.countDown();
+            held.get();
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("A call keeps its in-flight slot while its body is read and gives it back once the response is closed")
+    void slotHeldUntilResponseClosed() throws IOException {
+        AdaptiveRateLimiter limiter = limiter(1, Duration.ZERO);
+
+        ClientHttpResponse response = limiter.intercept(REQUEST, new byte[0],
+                (request, body) -> new MockClientHttpResponse("[]".getBytes(), HttpStatus.OK));
+
+        assertEquals(1, limiter.inFlightCalls());
+        assertThrows(UpstreamUnavailableException.class, () -> limiter.intercept(REQUEST, new byte[0],
+                (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK)));
+        assertEquals("[]", new String(response.getBody().readAllBytes()));
+        response.close();
+        response.close();
+        assertEquals(0, limiter.inFlightCalls());
+    }
+
+    @Test
+    @DisplayName("A call whose request fails gives its slot back straight away")
+    void failedCall_releasesSlot() {
+        AdaptiveRateLimiter limiter = limiter(1, Duration.ZERO);
+
+        assertThrows(IOException.class, () -> limiter.intercept(REQUEST, new byte[0], (request, body) -> {
+            throw new IOException("Connection refused");
+        }));
+
+        assertEquals(0, limiter.inFlightCalls());
+    }
+
+    @Test
+    @DisplayName("The first 429 sets the budget to the calls accepted so far and closes the window for the cooldown")
+    void firstRejection_learnsBudget() {
+        AdaptiveRateLimiter limiter = limiter(Duration.ofSeconds(30), 10);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(UpstreamPriority.USER, System.nanoTime());
+            limiter.onAccepted();
+        }
+        assertEquals(0, limiter.learnedBudget());
+        assertEquals(5, limiter.expectedBudget());
+
+        limiter.onRejected(Duration.ZERO);
+
+        assertEquals(3, limiter.learnedBudget());
+        assertEquals(3, limiter.expectedBudget());
+        assertEquals(Duration.ofSeconds(30), limiter.learnedCooldown());
+        UpstreamUnavailableException shed = assertThrows(UpstreamUnavailableException.class,
+                () -> limiter.acquire(UpstreamPriority.USER, System.nanoTime()));
+        assertTrue(shed.getRetryAfter().compareTo(Duration.ofSeconds(29)) > 0, "retry after " + shed.getRetryAfter());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("A 429 with permits left in the window shrinks the budget to the calls that window accepted")
+    void rejectionWithPermitsLeft_shrinksBudget() {
+        AdaptiveRateLimiter limiter = limiter(Duration.ofMillis(20), 10);
+        learn(limiter, 3);
+
+        awaitWindow(limiter, UpstreamPriority.USER);
+        limiter.onAccepted();
+        limiter.acquire(UpstreamPriority.USER, System.nanoTime());
+        limiter.onAccepted();
+        limiter.onRejected(Duration.ZERO);
+
+        assertEquals(2, limiter.learnedBudget());
+        assertEquals(Duration.ofMillis(20), limiter.learnedCooldown());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("A 429 on the first call after reopening lengthens the cooldown by a quarter and keeps the budget")
+    void rejectionRightAfterReopening_lengthensCooldown() {
+        AdaptiveRateLimiter limiter = limiter(Duration.ofMillis(40), 10);
+        learn(limiter, 3);
+
+        awaitWindow(limiter, UpstreamPriority.USER);
+        limiter.onRejected(Duration.ZERO);
+
+        assertEquals(3, limiter.learnedBudget());
+        assertEquals(Duration.ofMillis(50), limiter.learnedCooldown());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("Background calls stop at the reserved share of a window, which is left to user calls")
+    void backgroundCalls_leaveTheReserveToUsers() {
+        AdaptiveRateLimiter limiter = limiter(Duration.ofMillis(20), 10);
+        learn(limiter, 5);
+
+        // ceil(5 * 0.4) = 2 of the 5 permits are held back from background calls.
+        awaitWindow(limiter, UpstreamPriority.BACKGROUND);
+        assertEquals(2, takeAll(limiter, UpstreamPriority.BACKGROUND));
+        assertEquals(2, takeAll(limiter, UpstreamPriority.USER));
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("After probe-after clean windows the budget is raised by one")
+    void cleanWindows_raiseTheBudget() {
+        AdaptiveRateLimiter limiter = limiter(Duration.ofMillis(20), 2);
+        learn(limiter, 2);
+
+        for (int window = 1; window <= 2; window++) {
+            assertEquals(2, limiter.learnedBudget(), "before clean window " + window);
+            awaitWindow(limiter, UpstreamPriority.USER);
+            limiter.onAccepted();
+            limiter.acquire(UpstreamPriority.USER, System.nanoTime());
+            limiter.onAccepted();
+        }
+
+        assertEquals(3, limiter.learnedBudget());
+        awaitWindow(limiter, UpstreamPriority.USER);
+        assertEquals(2, takeAll(limiter, UpstreamPriority.USER));
+    }
+
+    private static AdaptiveRateLimiter limiter(int maxInFlight, Duration maxWait) {
+        return new AdaptiveRateLimiter(new SimpleMeterRegistry(), true, 5, Duration.ofSeconds(30),
+                Duration.ofMinutes(2), maxWait, 0.4, 100, 10, maxInFlight);
+    }
+
+    private static AdaptiveRateLimiter limiter(Duration initialCooldown, int probeAfter) {
+        return new AdaptiveRateLimiter(new SimpleMeterRegistry(), true, 5, initialCooldown,
+                Duration.ofMinutes(2), Duration.ZERO, 0.4, 100, probeAfter, 50);
+    }
+
+    /**
+     * Lets {@code budget} calls through and then rejects one, which closes the first window.
+     */
+    private static void learn(AdaptiveRateLimiter limiter, int budget) {
+        for (int i = 0; i < budget; i++) {
+            limiter.acquire(UpstreamPriority.USER, System.nanoTime());
+            limiter.onAccepted();
+        }
+        limiter.onRejected(Duration.ZERO);
+    }
+
+    /**
+     * Waits for the next window to open and takes its first permit.
+     */
+    private static void awaitWindow(AdaptiveRateLimiter limiter, UpstreamPriority priority) {
+        limiter.acquire(priority, System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+    }
+
+    /**
+     * @return how many more permits the window gives {@code priority} without waiting
+     */
+    private static int takeAll(AdaptiveRateLimiter limiter, UpstreamPriority priority) {
+        int taken = 0;
+        while (true) {
+            try {
+                limiter.acquire(priority, System.nanoTime());
+                taken++;
+            } catch (UpstreamUnavailableException e) {
+                return taken;
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    /**
+     * For tests of other classes whose calls should never be cut short.
+     */
+    static CircuitBreaker disabled() {
+        return new CircuitBreaker(new SimpleMeterRegistry(), false, 1, Duration.ZERO, 1);
+    }
+
+    @Test
+    @DisplayName("Failed calls in a row open the circuit, and an open circuit rejects calls until it may probe")
+    void opensAfterConsecutiveFailures() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CircuitBreaker circuitBreaker = new CircuitBreaker(meterRegistry, true, 3, Duration.ofMinutes(1), 1);
+
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.acquire("fetch-all");
+            circuitBreaker.onResult(serviceUnavailable());
+        }
+        circuitBreaker.acquire("fetch-all");
+        circuitBreaker.onResult(null);
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.acquire("fetch-all");
+            circuitBreaker.onResult(serviceUnavailable());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+
+        circuitBreaker.acquire("fetch-all");
+        circuitBreaker.onResult(serviceUnavailable());
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        UpstreamUnavailableException rejected =
+                assertThrows(UpstreamUnavailableException.class, () -> circuitBreaker.acquire("fetch-all"));
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ofSeconds(50)) > 0, rejected.getRetryAfter()::toString);
+        assertEquals(1.0, meterRegistry.get("employee.upstream.circuit.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("A half-open circuit lets its probes through, closes when they succeed and reopens when one fails")
+    void halfOpenProbes() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(new SimpleMeterRegistry(), true, 1, Duration.ZERO, 2);
+        circuitBreaker.acquire("fetch-all");
+        circuitBreaker.onResult(serviceUnavailable());
+
+        circuitBreaker.acquire("fetch-all");
+        circuitBreaker.acquire("fetch-all");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+        assertThrows(UpstreamUnavailableException.class, () -> circuitBreaker.acquire("fetch-all"));
+        circuitBreaker.onResult(null);
+        circuitBreaker.onResult(serviceUnavailable());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+
+        circuitBreaker.acquire("fetch-all");
+        circuitBreaker.acquire("fetch-all");
+        circuitBreaker.onResult(null);
+        circuitBreaker.onResult(null);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        assertDoesNotThrow(() -> circuitBreaker.acquire("fetch-all"));
+    }
+
+    @Test
+    @DisplayName("A probe that ends with an error saying nothing about the server gives its slot back")
+    void unclassifiedProbeFreesItsSlot() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(new SimpleMeterRegistry(), true, 1, Duration.ZERO, 1);
+        circuitBreaker.acquire("fetch-all");
+        circuitBreaker.onResult(serviceUnavailable());
+
+        circuitBreaker.acquire("scan-page");
+        assertThrows(UpstreamUnavailableException.class, () -> circuitBreaker.acquire("scan-page"));
+        circuitBreaker.onResult(new UncheckedIOException(new IOException("Unexpected end of roster")));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+
+        circuitBreaker.acquire("scan-page");
+        circuitBreaker.onResult(null);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    @Test
+    @DisplayName("A 404 is an answer from the server and does not count as a failure, a 429 does")
+    void failureClassification() {
+        CircuitBreaker circuitBreaker =
+                new CircuitBreaker(new SimpleMeterRegistry(), true, 2, Duration.ofMinutes(1), 1);
+
+        circuitBreaker.onResult(serviceUnavailable());
+        circuitBreaker.onResult(HttpClientErrorException.create(
+                HttpStatus.NOT_FOUND, "Not Found", new HttpHeaders(), null, null));
+        circuitBreaker.onResult(serviceUnavailable());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+
+        circuitBreaker.onResult(HttpClientErrorException.create(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", new HttpHeaders(), null, null));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+    }
+
+    @Test
+    @DisplayName("Calls shed by the rate limiter or abandoned by their callers leave the circuit closed")
+    void localRejections_doNotCount() {
+        CircuitBreaker circuitBreaker =
+                new CircuitBreaker(new SimpleMeterRegistry(), true, 1, Duration.ofMinutes(1), 1);
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(new SimpleMeterRegistry(), true, 5,
+                Duration.ofSeconds(30), Duration.ofMinutes(2), Duration.ZERO, 0.4, 100, 10, 1);
+        limiter.acquireSlot(UpstreamPriority.USER, System.nanoTime());
+
+        UpstreamUnavailableException shed = assertThrows(UpstreamUnavailableException.class,
+                () -> limiter.acquireSlot(UpstreamPriority.USER, System.nanoTime()));
+        circuitBreaker.onResult(shed);
+        circuitBreaker.onResult(new CompletionException(shed));
+        circuitBreaker.onResult(new CancellationException());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        // The cache still serves its last known good roster when a refresh is shed.
+        assertTrue(CircuitBreaker.isUpstreamFailure(shed));
+
+        // Given up on after the server failed: that failure counts.
+        circuitBreaker.onResult(new UpstreamUnavailableException(
+                "fetch-all failed and the next attempt is not due for PT1S", Duration.ofSeconds(1),
+                serviceUnavailable()));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+    }
+
+    private static HttpServerErrorException serviceUnavailable() {
+        return HttpServerErrorException.create(
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(), null, null);
+    }
+}
@@ -0,0 +1,224 @@
+package com.reliaquest.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.model.Employee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeApiClientTest {
+    private static final String PATH = "/api/v1/employee";
+    private static final int PARALLELISM = 4;
+    private static final String FIRST_PAGE_TAG = "\"roster-7\"";
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger byIdRequests = new AtomicInteger();
+    private final AtomicInteger rosterRequests = new AtomicInteger();
+    private final AtomicInteger rosterFailuresLeft = new AtomicInteger();
+    private final AtomicInteger pageRequests = new AtomicInteger();
+    private MockWebServer server;
+    private UpstreamRetryExecutor retryExecutor;
+    private EmployeeApiClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                String path = request.getPath();
+                if (path.startsWith(PATH + "?limit=")) {
+                    return page(request);
+                }
+                if (PATH.equals(path)) {
+                    rosterRequests.incrementAndGet();
+                    if (rosterFailuresLeft.getAndDecrement() > 0) {
+                        return new MockResponse().setResponseCode(503);
+                    }
+                    return json("{\"data\":[" + employee("1") + "," + employee("2") + "," + employee("3") + "]}");
+                }
+                byIdRequests.incrementAndGet();
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                String id = path.substring(PATH.length() + 1);
+                if (Integer.parseInt(id) > 100) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return json("{\"data\":" + employee(id) + "}");
+            }
+        });
+        server.start();
+        retryExecutor = new UpstreamRetryExecutor(new SimpleMeterRegistry(), CircuitBreakerTest.disabled(),
+                3, Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofSeconds(5), 1.0, 10_000, 2);
+        // A server assumed to allow plenty, so only the threshold decides between lookups and a roster read.
+        client = client(100);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.destroy();
+        retryExecutor.destroy();
+        server.shutdown();
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("A few ids are looked up one by one, at most parallelism at a time")
+    void fewIds_fetchedInParallelWithinTheCap() {
+        List<String> ids = new ArrayList<>();
+        for (int id = 1; id <= 12; id++) {
+            ids.add(String.valueOf(id));
+        }
+        ids.add("101");
+
+        Map<String, Employee> found = client.fetchEmployeesById(ids);
+
+        assertEquals(12, found.size());
+        assertEquals("Employee 7", found.get("7").getName());
+        assertEquals(13, byIdRequests.get());
+        assertEquals(0, rosterRequests.get());
+        assertTrue(maxInFlight.get() <= PARALLELISM, "max in flight: " + maxInFlight.get());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("From the threshold on, one roster read replaces the lookups")
+    void manyIds_readTheRosterOnce() {
+        List<String> ids = new ArrayList<>();
+        for (int id = 1; id <= 25; id++) {
+            ids.add(String.valueOf(id));
+        }
+
+        Map<String, Employee> found = client.fetchEmployeesById(ids);
+
+        assertEquals(3, found.size());
+        assertEquals(1, rosterRequests.get());
+        assertEquals(0, byIdRequests.get());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("A streamed roster read is retried on the caller's thread, which is the only one to see employees")
+    void streamAllEmployees_retriedOnTheCallingThread() {
+        rosterFailuresLeft.set(2);
+        Set<Thread> visitingThreads = new HashSet<>();
+        List<String> names = new ArrayList<>();
+
+        client.streamAllEmployees(employee -> {
+            synchronized (visitingThreads) {
+                visitingThreads.add(Thread.currentThread());
+                names.add(employee.getName());
+            }
+        });
+
+        assertEquals(3, rosterRequests.get());
+        assertEquals(List.of("Employee 1", "Employee 2", "Employee 3"), names);
+        assertEquals(Set.of(Thread.currentThread()), visitingThreads);
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("Before the limiter has learned a budget, more ids than it expects are read with the roster")
+    void unlearnedLimiter_readsTheRosterForMoreIdsThanTheExpectedBudget() {
+        EmployeeApiClient coldClient = client(5);
+        try {
+            Map<String, Employee> found = coldClient.fetchEmployeesById(List.of("1", "2", "3", "4", "5", "6"));
+
+            assertEquals(3, found.size());
+            assertEquals(1, rosterRequests.get());
+            assertEquals(0, byIdRequests.get());
+
+            coldClient.fetchEmployeesById(List.of("1", "2", "3", "4", "5"));
+            assertEquals(5, byIdRequests.get());
+        } finally {
+            coldClient.destroy();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("A paged roster keeps its first page's tag and version, and is revalidated with its first page")
+    void pagedRoster_keepsTheFirstPagesTagAndVersion() {
+        EmployeeApiClient pagedClient = client(100, 2);
+        try {
+            EmployeeRoster roster = pagedClient.fetchAllEmployeesIfChanged(null).orElseThrow();
+
+            assertEquals(List.of("Employee 1", "Employee 2", "Employee 3"),
+                    roster.employees().stream().map(Employee::getName).toList());
+            assertEquals(FIRST_PAGE_TAG, roster.etag());
+            assertEquals(7L, roster.version());
+            assertEquals(2, pageRequests.get());
+
+            assertTrue(pagedClient.fetchAllEmployeesIfChanged(roster.etag()).isEmpty());
+            assertEquals(3, pageRequests.get());
+        } finally {
+            pagedClient.destroy();
+        }
+    }
+
+    private EmployeeApiClient client(int initialBudget) {
+        return client(initialBudget, 0);
+    }
+
+    private EmployeeApiClient client(int initialBudget, int pageSize) {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(new SimpleMeterRegistry(), true, initialBudget,
+                Duration.ofSeconds(30), Duration.ofMinutes(2), Duration.ofSeconds(1), 0.4, 100, 10, 50);
+        return new EmployeeApiClient(new RestTemplate(), new ObjectMapper(), retryExecutor, rateLimiter,
+                new SimpleMeterRegistry(), server.url(PATH).toString(), pageSize, PARALLELISM, 20);
+    }
+
+    /**
+     * Two pages of the roster, with a write landing between them: the second page is tagged with a later version.
+     */
+    private MockResponse page(RecordedRequest request) {
+        pageRequests.incrementAndGet();
+        if (request.getPath().contains("cursor=")) {
+            return json("{\"data\":[" + employee("3") + "]}")
+                    .addHeader("ETag", "\"roster-8\"")
+                    .addHeader(EmployeeApiClient.ROSTER_VERSION_HEADER, "8");
+        }
+        if (FIRST_PAGE_TAG.equals(request.getHeader("If-None-Match"))) {
+            return new MockResponse().setResponseCode(304);
+        }
+        return json("{\"data\":[" + employee("1") + "," + employee("2") + "]}")
+                .addHeader("ETag", FIRST_PAGE_TAG)
+                .addHeader(EmployeeApiClient.ROSTER_VERSION_HEADER, "7")
+                .addHeader(EmployeeApiClient.NEXT_CURSOR_HEADER, "second");
+    }
+
+    private static String employee(String id) {
+        return "{\"id\":\"" + id + "\",\"employee_name\":\"Employee " + id + "\",\"employee_salary\":1000}";
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+                .setBody(body)
+                .addHeader("Content-Type", "application/json");
+    }
+}
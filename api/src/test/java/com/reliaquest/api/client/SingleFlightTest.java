@@ -0,0 +1,161 @@
+package com.reliaquest.api.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 10, unit = TimeUnit.SECONDS)
+class SingleFlightTest {
+    private static final int FOLLOWERS = 8;
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>("test", new SimpleMeterRegistry());
+    private final ExecutorService callers = Executors.newFixedThreadPool(FOLLOWERS + 1);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Callers arriving while a call is running share its result instead of running the loader again")
+    void concurrentCalls_coalesced() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> flight.execute("roster", () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "result";
+        }));
+        started.await();
+        List<Future<String>> followers = joinWhileRunning(() -> flight.execute("roster", () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+
+        release.countDown();
+
+        assertEquals("result", leader.get());
+        for (Future<String> follower : followers) {
+            assertEquals("result", follower.get());
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getExecutedCount());
+        assertEquals(FOLLOWERS, flight.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Different keys do not wait for each other")
+    void differentKeys_runSeparately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> slow = callers.submit(() -> flight.execute("1", () -> {
+            await(release);
+            return "one";
+        }));
+
+        assertEquals("two", flight.execute("2", () -> "two"));
+
+        release.countDown();
+        assertEquals("one", slow.get());
+        assertEquals(2, flight.getExecutedCount());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Once a call completes, successfully or not, its key is free and the next caller loads again")
+    void completedCall_keyIsFreed() {
+        assertEquals("first", flight.execute("roster", () -> "first"));
+        assertEquals("second", flight.execute("roster", () -> "second"));
+        assertThrows(IllegalStateException.class, () -> flight.execute("roster", () -> {
+            throw new IllegalStateException("upstream down");
+        }));
+        assertEquals("third", flight.execute("roster", () -> "third"));
+
+        assertEquals(4, flight.getExecutedCount());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Followers get the exception the leader's call failed with, not a wrapper")
+    void failedCall_followersGetTheLeadersException() throws Exception {
+        IllegalStateException failure = new IllegalStateException("upstream down");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> flight.execute("roster", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        started.await();
+        List<Future<String>> followers = joinWhileRunning(() -> flight.execute("roster", () -> "other"));
+
+        release.countDown();
+
+        assertSame(failure, assertThrows(ExecutionException.class, leader::get).getCause());
+        for (Future<String> follower : followers) {
+            assertSame(failure, assertThrows(ExecutionException.class, follower::get).getCause());
+        }
+    }
+
+    @Test
+    @DisplayName("Async callers share the pending future, get the loader's own exception and free the key after")
+    void executeAsync_coalescesAndUnwraps() {
+        CompletableFuture<String> loaded = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.executeAsync("roster", () -> loaded);
+        CompletableFuture<String> second = flight.executeAsync("roster", CompletableFuture::new);
+        assertSame(first, second);
+
+        IllegalStateException failure = new IllegalStateException("upstream down");
+        loaded.completeExceptionally(new CompletionException(failure));
+
+        assertSame(failure, assertThrows(ExecutionException.class, first::get).getCause());
+        assertEquals("again", flight.executeAsync("roster", () -> CompletableFuture.completedFuture("again")).join());
+        assertEquals(2, flight.getExecutedCount());
+        assertEquals(1, flight.getCoalescedCount());
+    }
+
+    /**
+     * Starts {@link #FOLLOWERS} calls and returns once all of them have joined the call in flight.
+     */
+    private List<Future<String>> joinWhileRunning(Callable<String> call) throws InterruptedException {
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(callers.submit(call));
+        }
+        while (flight.getCoalescedCount() < FOLLOWERS) {
+            Thread.sleep(5);
+        }
+        assertTrue(followers.stream().noneMatch(Future::isDone));
+        return followers;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamRetryExecutorTest {
+
+    private UpstreamRetryExecutor retryExecutor;
+
+    @AfterEach
+    void tearDown() {
+        if (retryExecutor != null) {
+            retryExecutor.destroy();
+        }
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("A 429 storm is retried on the fixed scheduler pool, not on one thread per call")
+    void tooManyRequestsStorm_threadUsageStaysBounded() throws Exception {
+        retryExecutor = new UpstreamRetryExecutor(new SimpleMeterRegistry(), CircuitBreakerTest.disabled(),
+                5, Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofSeconds(1), 1.0, 10_000, 2);
+        AtomicInteger attempts = new AtomicInteger();
+        Set<String> attemptThreads = ConcurrentHashMap.newKeySet();
+        Supplier<String> call = () -> {
+            attempts.incrementAndGet();
+            attemptThreads.add(Thread.currentThread().getName());
+            throw tooManyRequests("0");
+        };
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            results.add(retryExecutor.submit("fetch-all", true, call));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .handle((ignored, failure) -> null)
+                .get(20, TimeUnit.SECONDS);
+
+        assertTrue(results.stream().allMatch(CompletableFuture::isCompletedExceptionally));
+        assertEquals(500 * 5, attempts.get());
+        assertTrue(attemptThreads.size() <= 2, "attempts ran on " + attemptThreads);
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("Request threads are released immediately when Retry-After is longer than they may wait")
+    void retryAfterBeyondCallerWait_failsFast() throws Exception {
+        retryExecutor = new UpstreamRetryExecutor(new SimpleMeterRegistry(), CircuitBreakerTest.disabled(),
+                5, Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofSeconds(1), 1.0, 10_000, 2);
+        AtomicInteger attempts = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(50);
+        try {
+            List<Future<UpstreamUnavailableException>> failures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < 50; i++) {
+                failures.add(callers.submit(() -> assertThrows(UpstreamUnavailableException.class,
+                        () -> retryExecutor.execute("fetch-all", true, () -> {
+                            attempts.incrementAndGet();
+                            throw tooManyRequests("60");
+                        }))));
+            }
+            for (Future<UpstreamUnavailableException> failure : failures) {
+                assertEquals(Duration.ofSeconds(60), failure.get().getRetryAfter());
+            }
+
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+            assertEquals(50, attempts.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("A caller giving up on a retry still running is told the backoff, not its whole caller-wait")
+    void callerWaitElapsed_retryAfterIsTheBackoff() throws Exception {
+        retryExecutor = new UpstreamRetryExecutor(new SimpleMeterRegistry(), CircuitBreakerTest.disabled(),
+                5, Duration.ofMillis(20), Duration.ofMillis(20), Duration.ofMillis(200), 1.0, 10_000, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            UpstreamUnavailableException failure = assertThrows(UpstreamUnavailableException.class,
+                    () -> retryExecutor.execute("fetch-all", true, () -> {
+                        if (attempts.incrementAndGet() == 1) {
+                            throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE,
+                                    "Service Unavailable", new HttpHeaders(), null, null);
+                        }
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "late";
+                    }));
+
+            assertEquals(2, attempts.get());
+            assertEquals(Duration.ofMillis(20), failure.getRetryAfter());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("404 is returned to the caller without being retried")
+    void notFound_isNotRetried() {
+        retryExecutor = new UpstreamRetryExecutor(new SimpleMeterRegistry(), CircuitBreakerTest.disabled(),
+                5, Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofSeconds(1), 1.0, 10_000, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(HttpClientErrorException.NotFound.class, () -> retryExecutor.execute("fetch-by-id", true, () -> {
+            attempts.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", new HttpHeaders(), null, null);
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Non-idempotent calls are retried on 429 but not on 5xx")
+    void nonIdempotent_onlyRetriesTooManyRequests() {
+        retryExecutor = new UpstreamRetryExecutor(new SimpleMeterRegistry(), CircuitBreakerTest.disabled(),
+                3, Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofSeconds(1), 1.0, 10_000, 2);
+        AtomicInteger serverErrorAttempts = new AtomicInteger();
+        AtomicInteger tooManyRequestsAttempts = new AtomicInteger();
+
+        assertThrows(HttpServerErrorException.class, () -> retryExecutor.execute("create", false, () -> {
+            serverErrorAttempts.incrementAndGet();
+            throw HttpServerErrorException.create(
+                    HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(), null, null);
+        }));
+        String created = retryExecutor.execute("create", false, () -> {
+            if (tooManyRequestsAttempts.incrementAndGet() < 3) {
+                throw tooManyRequests(null);
+            }
+            return "created";
+        });
+
+        assertEquals(1, serverErrorAttempts.get());
+        assertEquals("created", created);
+        assertEquals(3, tooManyRequestsAttempts.get());
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("Retries stop once the budget is spent")
+    void retryBudget_capsRetries() throws Exception {
+        retryExecutor = new UpstreamRetryExecutor(new SimpleMeterRegistry(), CircuitBreakerTest.disabled(),
+                5, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(1), 0.1, 0, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            results.add(retryExecutor.submit("fetch-all", true, () -> {
+                attempts.incrementAndGet();
+                throw HttpServerErrorException.create(
+                        HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(), null, null);
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .handle((ignored, failure) -> null)
+                .get(20, TimeUnit.SECONDS);
+
+        // Ten tokens to start with plus 0.1 per original request.
+        assertTrue(attempts.get() <= 100 + 10 + 10, "attempts: " + attempts.get());
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("Attempts, calls and retries are metered by operation and outcome")
+    void attemptsAndRetries_areMetered() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        retryExecutor = new UpstreamRetryExecutor(meterRegistry, CircuitBreakerTest.disabled(),
+                5, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(5), 1.0, 10_000, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String value = retryExecutor.execute("fetch-all", true, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw HttpServerErrorException.create(
+                        HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(), null, null);
+            }
+            return "employees";
+        });
+        assertThrows(HttpClientErrorException.NotFound.class, () -> retryExecutor.execute("fetch-by-id", true, () -> {
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", new HttpHeaders(), null, null);
+        }));
+
+        assertEquals("employees", value);
+        assertEquals(2, meterRegistry.get("employee.upstream.attempts")
+                .tags("operation", "fetch-all", "outcome", "5xx").timer().count());
+        assertEquals(1, meterRegistry.get("employee.upstream.attempts")
+                .tags("operation", "fetch-all", "outcome", "success").timer().count());
+        assertEquals(2.0, meterRegistry.get("employee.upstream.retries")
+                .tags("operation", "fetch-all", "outcome", "5xx").counter().count());
+        // The 404 fails on the caller's thread, so its call is recorded before execute returns.
+        assertEquals(1, meterRegistry.get("employee.upstream.calls")
+                .tags("operation", "fetch-by-id", "outcome", "4xx").timer().count());
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("Once the circuit is open, calls fail without reaching the server")
+    void openCircuit_failsFast() {
+        CircuitBreaker circuitBreaker =
+                new CircuitBreaker(new SimpleMeterRegistry(), true, 1, Duration.ofMinutes(1), 1);
+        retryExecutor = new UpstreamRetryExecutor(new SimpleMeterRegistry(), circuitBreaker,
+                5, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(5), 1.0, 10_000, 2);
+        AtomicInteger attempts = new AtomicInteger();
+        Supplier<String> failing = () -> {
+            attempts.incrementAndGet();
+            throw HttpServerErrorException.create(
+                    HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(), null, null);
+        };
+
+        assertThrows(HttpServerErrorException.class, () -> retryExecutor.execute("fetch-all", true, failing));
+        // The last attempt failed on a scheduler thread, which reports the call once the caller has its answer.
+        while (circuitBreaker.state() != CircuitBreaker.State.OPEN) {
+            Thread.onSpinWait();
+        }
+        assertEquals(5, attempts.get());
+
+        assertThrows(UpstreamUnavailableException.class, () -> retryExecutor.execute("fetch-all", true, failing));
+        CompletableFuture<String> submitted = retryExecutor.submit("fetch-all", true, failing);
+        assertTrue(submitted.isCompletedExceptionally());
+        assertEquals(5, attempts.get());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("An inline call is retried on the caller's thread and no attempt runs after it has returned")
+    void executeInline_retriesOnTheCallingThread() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        retryExecutor = new UpstreamRetryExecutor(meterRegistry, CircuitBreakerTest.disabled(),
+                5, Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofMillis(300), 1.0, 10_000, 2);
+        Thread caller = Thread.currentThread();
+        Set<Thread> attemptThreads = ConcurrentHashMap.newKeySet();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String value = retryExecutor.executeInline("scan-page", true, () -> {
+            attemptThreads.add(Thread.currentThread());
+            if (attempts.incrementAndGet() < 3) {
+                throw tooManyRequests("0");
+            }
+            return "page";
+        });
+        assertEquals("page", value);
+        assertEquals(Set.of(caller), attemptThreads);
+        assertEquals(1, meterRegistry.get("employee.upstream.calls")
+                .tags("operation", "scan-page", "outcome", "success").timer().count());
+
+        attempts.set(0);
+        assertThrows(UpstreamUnavailableException.class, () -> retryExecutor.executeInline("scan-page", true, () -> {
+            attempts.incrementAndGet();
+            throw tooManyRequests("1");
+        }));
+        int attemptsWhenGivenUp = attempts.get();
+        Thread.sleep(100);
+        assertEquals(1, attemptsWhenGivenUp);
+        assertEquals(attemptsWhenGivenUp, attempts.get());
+    }
+
+    private static HttpClientErrorException tooManyRequests(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null);
+    }
+}
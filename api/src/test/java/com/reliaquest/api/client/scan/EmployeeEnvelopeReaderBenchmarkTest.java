@@ -0,0 +1,128 @@
+package com.reliaquest.api.client.scan;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.dto.Response;
+import com.reliaquest.api.model.Employee;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares binding the whole {@code Response<List<Employee>>} against {@link EmployeeEnvelopeReader} for the highest
+ * salary and the top ten earners. Not a pass/fail check beyond both paths agreeing; run with
+ * {@code ./gradlew api:benchmark} and read the printed timings and allocation.
+ */
+@Tag("benchmark")
+class EmployeeEnvelopeReaderBenchmarkTest {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final TypeReference<Response<List<Employee>>> ENVELOPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final EmployeeEnvelopeReader reader = new EmployeeEnvelopeReader(objectMapper.getFactory());
+
+    @ParameterizedTest(name = "{0} employees")
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void bindingVersusStreaming(int size) throws IOException {
+        byte[] body = roster(size);
+
+        int boundHighest = measure("bound highest", size, bytes -> bind(bytes).stream()
+                .map(Employee::getSalary)
+                .max(Integer::compareTo)
+                .orElse(0), body);
+        int streamedHighest = measure("streamed highest", size, bytes -> {
+            HighestSalaryVisitor visitor = new HighestSalaryVisitor();
+            read(bytes, visitor);
+            return visitor.highestSalary().orElse(0);
+        }, body);
+        assertEquals(boundHighest, streamedHighest);
+
+        int boundTop = measure("bound top ten", size, bytes -> bind(bytes).stream()
+                .sorted(Comparator.comparing(Employee::getSalary).reversed())
+                .limit(10)
+                .map(Employee::getName)
+                .collect(Collectors.toList())
+                .hashCode(), body);
+        int streamedTop = measure("streamed top ten", size, bytes -> {
+            TopEarnersVisitor visitor = new TopEarnersVisitor(10);
+            read(bytes, visitor);
+            return visitor.names().hashCode();
+        }, body);
+        assertEquals(boundTop, streamedTop);
+    }
+
+    private int measure(String label, int size, ToIntFunction<byte[]> run, byte[] body) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run.applyAsInt(body);
+        }
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        int result = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            result = run.applyAsInt(body);
+        }
+        long elapsedMicros = (System.nanoTime() - started) / 1_000 / MEASURED_ROUNDS;
+        long allocatedKb = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / 1024 / MEASURED_ROUNDS;
+        System.out.printf("%,10d employees  %-17s %,10d us/op %,12d KB allocated/op%n",
+                size, label, elapsedMicros, allocatedKb);
+        return result;
+    }
+
+    private List<Employee> bind(byte[] body) {
+        try {
+            return objectMapper.readValue(body, ENVELOPE).getData();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void read(byte[] body, EmployeeVisitor visitor) {
+        try {
+            reader.read(new ByteArrayInputStream(body), visitor);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] roster(int size) throws IOException {
+        Random random = new Random(size);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(size * 200);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(body)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("data");
+            for (int i = 0; i < size; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("id", "00000000-0000-0000-0000-" + String.format("%012d", i));
+                generator.writeStringField("employee_name", "Employee " + i);
+                generator.writeNumberField("employee_salary", 30_000 + random.nextInt(470_000));
+                generator.writeNumberField("employee_age", 16 + random.nextInt(60));
+                generator.writeStringField("employee_title", "Title " + random.nextInt(500));
+                generator.writeStringField("employee_email", "employee" + i + "@company.com");
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeStringField("status", "Successfully processed request.");
+            generator.writeEndObject();
+        }
+        return body.toByteArray();
+    }
+}
@@ -0,0 +1,156 @@
+package com.reliaquest.api.client.scan;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.reliaquest.api.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmployeeEnvelopeReaderTest {
+    private static final String ROSTER = """
+            {
+              "status": "Successfully processed request.",
+              "data": [
+                {"id": "1", "employee_name": "John Doe", "employee_salary": 100000, "extra": {"nested": [1, 2]}},
+                {"id": "2", "employee_name": "Jane Smith", "employee_salary": 120000, "employee_age": 29},
+                {"id": "3", "employee_name": "Alice Johnson", "employee_salary": 100000},
+                {"id": "4", "employee_name": "No Salary", "employee_salary": null},
+                {"id": "5", "employee_name": "Bob Brown", "employee_salary": 110000}
+              ]
+            }
+            """;
+
+    private final EmployeeEnvelopeReader reader = new EmployeeEnvelopeReader(new JsonFactory());
+
+    @Test
+    @DisplayName("Highest salary ignores employees without one")
+    void highestSalary() throws IOException {
+        HighestSalaryVisitor visitor = new HighestSalaryVisitor();
+        read(ROSTER, visitor);
+        assertEquals(OptionalInt.of(120000), visitor.highestSalary());
+    }
+
+    @Test
+    @DisplayName("Highest salary of an empty roster is empty")
+    void highestSalary_empty() throws IOException {
+        HighestSalaryVisitor visitor = new HighestSalaryVisitor();
+        read("{\"data\": []}", visitor);
+        assertEquals(OptionalInt.empty(), visitor.highestSalary());
+    }
+
+    @Test
+    @DisplayName("Top earners are highest first and equal salaries keep roster order")
+    void topEarners() throws IOException {
+        TopEarnersVisitor visitor = new TopEarnersVisitor(3);
+        read(ROSTER, visitor);
+        assertEquals(List.of("Jane Smith", "Bob Brown", "John Doe"), visitor.names());
+    }
+
+    @Test
+    @DisplayName("Top earners with a limit above the roster size returns everyone with a salary")
+    void topEarners_limitAboveSize() throws IOException {
+        TopEarnersVisitor visitor = new TopEarnersVisitor(10);
+        read(ROSTER, visitor);
+        assertEquals(List.of("Jane Smith", "Bob Brown", "John Doe", "Alice Johnson"), visitor.names());
+    }
+
+    @Test
+    @DisplayName("Name filter ignores case and binds only the matches")
+    void nameFilter() throws IOException {
+        NameFilterVisitor visitor = new NameFilterVisitor("JOHN");
+        read(ROSTER, visitor);
+        assertEquals(List.of(
+                Employee.builder().id("1").name("John Doe").salary(100000).build(),
+                Employee.builder().id("3").name("Alice Johnson").salary(100000).build()), visitor.matches());
+    }
+
+    @Test
+    @DisplayName("Fields a visitor does not ask for are left out")
+    void unrequestedFieldsAreSkipped() throws IOException {
+        read(ROSTER, new EmployeeVisitor() {
+            @Override
+            public Set<EmployeeField> fields() {
+                return EnumSet.of(EmployeeField.SALARY);
+            }
+
+            @Override
+            public void visit(EmployeeFields employee) {
+                assertNull(employee.name());
+                assertNull(employee.id());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("A wanted field holding an object or array is skipped whole, and the employees after it still read")
+    void structuredValueInWantedField() throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        read("""
+                {
+                  "data": [
+                    {"id": "1", "employee_name": {"first": "John"}, "employee_salary": [1, {"a": 2}]},
+                    {"id": "2", "employee_name": "Jane Smith", "employee_salary": 120000}
+                  ],
+                  "status": "Successfully processed request."
+                }
+                """, new EmployeeVisitor() {
+            @Override
+            public Set<EmployeeField> fields() {
+                return EnumSet.allOf(EmployeeField.class);
+            }
+
+            @Override
+            public void visit(EmployeeFields employee) {
+                employees.add(employee.toEmployee());
+            }
+        });
+        assertEquals(List.of(
+                Employee.builder().id("1").build(),
+                Employee.builder().id("2").name("Jane Smith").salary(120000).build()), employees);
+    }
+
+    @Test
+    @DisplayName("Null elements in the data array are skipped and the employees after them still read")
+    void nullElements_skipped() throws IOException {
+        TopEarnersVisitor visitor = new TopEarnersVisitor(10);
+        read("""
+                {"data": [{"id": "1", "employee_name": "John Doe", "employee_salary": 100000}, null,
+                          {"id": "2", "employee_name": "Jane Smith", "employee_salary": 120000}],
+                 "status": "Successfully processed request."}
+                """, visitor);
+        assertEquals(List.of("Jane Smith", "John Doe"), visitor.names());
+    }
+
+    @Test
+    @DisplayName("An element of the data array that is neither an object nor null is rejected")
+    void nonObjectElement_rejected() {
+        assertThrows(JsonParseException.class, () -> read(
+                "{\"data\": [{\"id\": \"1\", \"employee_salary\": 1}, 42, {\"id\": \"2\"}]}",
+                new HighestSalaryVisitor()));
+        assertThrows(JsonParseException.class, () -> read(
+                "{\"data\": [[{\"id\": \"1\"}]]}", new HighestSalaryVisitor()));
+    }
+
+    @Test
+    @DisplayName("A body that is not an envelope is rejected")
+    void notAnEnvelope() {
+        assertThrows(JsonParseException.class, () -> read("[]", new HighestSalaryVisitor()));
+    }
+
+    private void read(String body, EmployeeVisitor visitor) throws IOException {
+        reader.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), visitor);
+    }
+}
@@ -1,9 +1,12 @@
 package com.reliaquest.api.controller;
 
 import com.reliaquest.api.exception.EmployeeNotFoundException;
+import com.reliaquest.api.exception.InvalidRequestException;
 import com.reliaquest.api.model.CreateEmployeeRequest;
 import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.EmployeeBatchResult;
 import com.reliaquest.api.service.EmployeeService;
+import com.reliaquest.api.web.StaleResponseAdvice;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -12,14 +15,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(EmployeeController.class)
+@WebMvcTest({EmployeeController.class, EmployeeExtensionsController.class})
 class EmployeeControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -36,6 +42,39 @@ class EmployeeControllerTest {
         );
         Mockito.when(employeeService.getAllEmployees()).thenReturn(employees);
         mockMvc.perform(get("/api/v1/employees"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Warning"))
+                .andExpect(jsonPath("$[0].name").value("Alice"))
+                .andExpect(jsonPath("$[1].name").value("Bob"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/employees served from the last known good roster is marked stale")
+    void getAllEmployees_lastKnownGood() throws Exception {
+        Mockito.when(employeeService.getAllEmployees()).thenAnswer(invocation -> {
+            StaleResponseAdvice.markStale(Duration.ofSeconds(300));
+            return List.of(Employee.builder().id("1").name("Alice").build());
+        });
+        mockMvc.perform(get("/api/v1/employees"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Age", "300"))
+                .andExpect(header().string("Warning", "110 - \"Response is Stale\""))
+                .andExpect(jsonPath("$[0].name").value("Alice"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/employees?stream=true streams the same array")
+    void streamAllEmployees() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<Employee> action = invocation.getArgument(0);
+            action.accept(Employee.builder().id("1").name("Alice").build());
+            action.accept(Employee.builder().id("2").name("Bob").build());
+            return null;
+        }).when(employeeService).forEachEmployee(any());
+        MvcResult result = mockMvc.perform(get("/api/v1/employees").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value("Alice"))
                 .andExpect(jsonPath("$[1].name").value("Bob"));
@@ -77,6 +116,68 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.name").value("Charlie"));
     }
 
+    @Test
+    @DisplayName("POST /api/v1/employees/batch returns one result per item")
+    void createEmployees() throws Exception {
+        List<EmployeeBatchResult> results = List.of(
+                EmployeeBatchResult.builder().index(0).status(EmployeeBatchResult.Status.CREATED).id("3")
+                        .employee(Employee.builder().id("3").name("Charlie").build()).build(),
+                EmployeeBatchResult.builder().index(1).status(EmployeeBatchResult.Status.INVALID)
+                        .error("name must not be blank").build());
+        Mockito.when(employeeService.createEmployees(any())).thenReturn(results);
+        mockMvc.perform(post("/api/v1/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"Charlie\",\"salary\":1000,\"age\":30,\"title\":\"Engineer\"},"
+                                + "{\"salary\":1000,\"age\":30,\"title\":\"Engineer\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].employee.name").value("Charlie"))
+                .andExpect(jsonPath("$[1].status").value("INVALID"))
+                .andExpect(jsonPath("$[1].employee").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/employees/byIds returns the employees found")
+    void getEmployeesByIds() throws Exception {
+        Mockito.when(employeeService.getEmployeesByIds(List.of("2", "1", "99"))).thenReturn(List.of(
+                Employee.builder().id("2").name("Bob").build(),
+                Employee.builder().id("1").name("Alice").build()));
+        mockMvc.perform(post("/api/v1/employees/byIds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"2\",\"1\",\"99\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Bob"))
+                .andExpect(jsonPath("$[1].name").value("Alice"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/employees/batch rejects an empty batch")
+    void createEmployees_empty() throws Exception {
+        mockMvc.perform(post("/api/v1/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/employees/topHighestEarningEmployeeNames rejects a limit below 1")
+    void getTopHighestEarningEmployeeNames_invalidLimit() throws Exception {
+        Mockito.when(employeeService.getTopHighestEarningEmployeeNames(0))
+                .thenThrow(new InvalidRequestException("limit must be at least 1"));
+        mockMvc.perform(get("/api/v1/employees/topHighestEarningEmployeeNames").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("limit must be at least 1"));
+    }
+
+    @Test
+    @DisplayName("An IllegalArgumentException from inside the service is a server error, not a bad request")
+    void getAllEmployees_internalIllegalArgument() throws Exception {
+        Mockito.when(employeeService.getAllEmployees()).thenThrow(new IllegalArgumentException("bug"));
+        mockMvc.perform(get("/api/v1/employees"))
+                .andExpect(status().isInternalServerError());
+    }
+
     @Test
     @DisplayName("DELETE /api/v1/employees/{id} returns deleted name if found")
     void deleteEmployeeById_found() throws Exception {
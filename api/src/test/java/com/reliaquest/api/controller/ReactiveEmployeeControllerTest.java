@@ -0,0 +1,91 @@
+package com.reliaquest.api.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import reactor.core.publisher.Mono;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * {@link ReactiveEmployeeController} cannot implement {@link IEmployeeController}, so this checks by reflection that it
+ * serves the same contract as {@link EmployeeController}.
+ */
+class ReactiveEmployeeControllerTest {
+
+    @Test
+    @DisplayName("Both controllers are mapped under the same base path")
+    void sameBasePath() {
+        assertMappingEquals(mapping(EmployeeController.class), mapping(ReactiveEmployeeController.class));
+    }
+
+    @Test
+    @DisplayName("Every contract operation has the same mapping, parameters and body type, wrapped in a Mono")
+    void sameOperations() {
+        for (Method operation : IEmployeeController.class.getDeclaredMethods()) {
+            Class<?>[] parameterTypes = new Class<?>[operation.getParameterCount()];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                parameterTypes[i] = ResolvableType.forMethodParameter(operation, i, EmployeeController.class)
+                        .resolve();
+            }
+            Method reactive = assertDoesNotThrow(
+                    () -> ReactiveEmployeeController.class.getMethod(operation.getName(), parameterTypes),
+                    operation.getName());
+
+            assertMappingEquals(mapping(operation), mapping(reactive));
+            for (int i = 0; i < parameterTypes.length; i++) {
+                assertEquals(annotationTypes(operation.getParameterAnnotations()[i]),
+                        annotationTypes(reactive.getParameterAnnotations()[i]), operation.getName());
+            }
+            ResolvableType returnType = ResolvableType.forMethodReturnType(reactive);
+            assertEquals(Mono.class, returnType.resolve(), operation.getName());
+            assertEquals(ResolvableType.forMethodReturnType(operation, EmployeeController.class).toString(),
+                    returnType.getGeneric(0).toString(), operation.getName());
+        }
+    }
+
+    @Test
+    @DisplayName("The reactive controller maps nothing beyond the contract")
+    void nothingBeyondTheContract() {
+        long mapped = Arrays.stream(ReactiveEmployeeController.class.getDeclaredMethods())
+                .filter(method -> AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class))
+                .count();
+        assertEquals(IEmployeeController.class.getDeclaredMethods().length, mapped);
+    }
+
+    private static RequestMapping mapping(Method method) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+        assertNotNull(mapping, method.getName());
+        return mapping;
+    }
+
+    private static RequestMapping mapping(Class<?> controller) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(controller, RequestMapping.class);
+        assertNotNull(mapping, controller.getSimpleName());
+        return mapping;
+    }
+
+    private static void assertMappingEquals(RequestMapping expected, RequestMapping actual) {
+        assertArrayEquals(expected.method(), actual.method());
+        assertArrayEquals(expected.path(), actual.path());
+        assertArrayEquals(expected.params(), actual.params());
+        assertArrayEquals(expected.consumes(), actual.consumes());
+        assertArrayEquals(expected.produces(), actual.produces());
+    }
+
+    private static List<Class<? extends Annotation>> annotationTypes(Annotation[] annotations) {
+        return Arrays.stream(annotations)
+                .map(Annotation::annotationType)
+                .toList();
+    }
+}
@@ -0,0 +1,120 @@
+package com.reliaquest.api.index;
+
+import com.reliaquest.api.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EmployeeNameIndexTest {
+    private final EmployeeNameIndex index = new EmployeeNameIndex();
+
+    @Test
+    @DisplayName("Matches come back in roster order, with a changed employee moved to the end as in the roster")
+    void matches_inRosterOrder() {
+        Employee carol = employee("1", "Carol Anders");
+        Employee alice = employee("2", "Alice Anderson");
+        Employee bob = employee("3", "Bob Sanders");
+        List.of(carol, alice, bob).forEach(index::onEmployeeAdded);
+
+        assertEquals(List.of(carol, alice, bob), index.search("anders"));
+
+        Employee renamed = employee("1", "Caroline Anders");
+        index.onEmployeeRemoved(carol);
+        index.onEmployeeAdded(renamed);
+        assertEquals(List.of(alice, bob, renamed), index.search("anders"));
+    }
+
+    @Test
+    @DisplayName("Searches shorter than a trigram still match anywhere in the name, and skip employees without one")
+    void shortNeedles_scanTheNames() {
+        Employee alice = employee("1", "Alice");
+        Employee lea = employee("2", "Lea");
+        Employee nameless = employee("3", null);
+        List.of(alice, lea, nameless).forEach(index::onEmployeeAdded);
+
+        assertEquals(List.of(alice, lea), index.search("l"));
+        assertEquals(List.of(lea), index.search("EA"));
+        assertEquals(List.of(alice, lea), index.search(""));
+    }
+
+    @Test
+    @DisplayName("Names and searches are compared case-insensitively")
+    void caseFolding() {
+        Employee alice = employee("1", "ALICE Smith");
+        Employee alicia = employee("2", "alicia jones");
+        List.of(alice, alicia).forEach(index::onEmployeeAdded);
+
+        assertEquals(List.of(alice, alicia), index.search("AlIc"));
+        assertEquals(List.of(alice), index.search("sMITH"));
+    }
+
+    @Test
+    @DisplayName("A removed employee is no longer found, while others sharing its trigrams still are")
+    void removal() {
+        Employee anna = employee("1", "Anna");
+        Employee hannah = employee("2", "Hannah");
+        List.of(anna, hannah).forEach(index::onEmployeeAdded);
+
+        index.onEmployeeRemoved(anna);
+
+        assertEquals(List.of(hannah), index.search("ann"));
+        assertEquals(List.of(), index.search("anna"));
+        assertEquals(1, index.size());
+        index.onEmployeeRemoved(hannah);
+        assertEquals(List.of(), index.search("ann"));
+        assertEquals(List.of(), index.search("a"));
+    }
+
+    @Test
+    @DisplayName("Every search answers the same as filtering the roster with contains")
+    void sameAnswerAsContainsFilter() {
+        String[] parts = {"an", "na", "Ann", "Jo", "han", "SEN", "e", "lee", "ma", "Rie"};
+        Random random = new Random(42);
+        List<Employee> roster = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int part = random.nextInt(4); part >= 0; part--) {
+                name.append(parts[random.nextInt(parts.length)]);
+                if (random.nextBoolean()) {
+                    name.append(' ');
+                }
+            }
+            Employee employee = employee(Integer.toString(i), i % 50 == 0 ? null : name.toString());
+            roster.add(employee);
+            index.onEmployeeAdded(employee);
+        }
+        // Drop some, so removals are part of what is compared.
+        for (int i = 0; i < roster.size(); i += 7) {
+            index.onEmployeeRemoved(roster.get(i));
+        }
+        List<Employee> remaining = new ArrayList<>();
+        for (int i = 0; i < roster.size(); i++) {
+            if (i % 7 != 0) {
+                remaining.add(roster.get(i));
+            }
+        }
+
+        for (String needle : List.of("", "a", "N", "an", "ann", "ANNA", "han s", "jo", "sen", "e lee", "riema",
+                "xyz", "nana")) {
+            assertEquals(containsFilter(remaining, needle), index.search(needle), "search for '" + needle + "'");
+        }
+    }
+
+    private static List<Employee> containsFilter(List<Employee> roster, String searchString) {
+        String needle = searchString.toLowerCase(Locale.ROOT);
+        return roster.stream()
+                .filter(employee -> employee.getName() != null
+                        && employee.getName().toLowerCase(Locale.ROOT).contains(needle))
+                .toList();
+    }
+
+    private static Employee employee(String id, String name) {
+        return Employee.builder().id(id).name(name).build();
+    }
+}
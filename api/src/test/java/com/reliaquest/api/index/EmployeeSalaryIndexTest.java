@@ -0,0 +1,68 @@
+package com.reliaquest.api.index;
+
+import com.reliaquest.api.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EmployeeSalaryIndexTest {
+    private final EmployeeSalaryIndex index = new EmployeeSalaryIndex();
+
+    @Test
+    @DisplayName("Names come highest salary first, and the highest salary is read off the head")
+    void topEarners_highestFirst() {
+        index.onEmployeeAdded(employee("1", "Alice", 50_000));
+        index.onEmployeeAdded(employee("2", "Bob", 90_000));
+        index.onEmployeeAdded(employee("3", "Carol", 70_000));
+        index.onEmployeeAdded(employee("4", "Dave", null));
+
+        assertEquals(Optional.of(90_000), index.highestSalary());
+        assertEquals(List.of("Bob", "Carol"), index.topEarnerNames(2));
+        // Employees without a salary are left out.
+        assertEquals(List.of("Bob", "Carol", "Alice"), index.topEarnerNames(10));
+    }
+
+    @Test
+    @DisplayName("Employees with equal salaries are all kept, in roster order")
+    void equalSalaries_allKeptInRosterOrder() {
+        index.onEmployeeAdded(employee("b", "Bob", 60_000));
+        index.onEmployeeAdded(employee("c", "Carol", 80_000));
+        index.onEmployeeAdded(employee("a", "Alice", 60_000));
+
+        assertEquals(List.of("Carol", "Bob", "Alice"), index.topEarnerNames(3));
+
+        // A changed employee moves to the end of the roster, and so behind the others it ties with.
+        index.onEmployeeRemoved(employee("b", "Bob", 60_000));
+        index.onEmployeeAdded(employee("b", "Robert", 60_000));
+        assertEquals(List.of("Carol", "Alice", "Robert"), index.topEarnerNames(3));
+    }
+
+    @Test
+    @DisplayName("A changed employee replaces its old entry, and a removed one leaves the index")
+    void listenerUpdates_keepTheIndexCurrent() {
+        index.onEmployeeAdded(employee("1", "Alice", 50_000));
+        index.onEmployeeAdded(employee("2", "Bob", 90_000));
+
+        index.onEmployeeAdded(employee("1", "Alice", 120_000));
+        assertEquals(List.of("Alice", "Bob"), index.topEarnerNames(10));
+        assertEquals(Optional.of(120_000), index.highestSalary());
+
+        index.onEmployeeRemoved(employee("1", "Alice", 120_000));
+        assertEquals(List.of("Bob"), index.topEarnerNames(10));
+        assertEquals(Optional.of(90_000), index.highestSalary());
+
+        // The cache reports a change as the old employee removed and the new one added.
+        index.onEmployeeRemoved(employee("2", "Bob", 90_000));
+        index.onEmployeeAdded(employee("2", "Bob", null));
+        assertEquals(List.of(), index.topEarnerNames(10));
+        assertEquals(Optional.empty(), index.highestSalary());
+    }
+
+    private static Employee employee(String id, String name, Integer salary) {
+        return Employee.builder().id(id).name(name).salary(salary).build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.reliaquest.api.service.impl;
+
+import com.reliaquest.api.cache.EmployeeSnapshotCache;
+import com.reliaquest.api.client.EmployeeApiClient;
+import com.reliaquest.api.index.EmployeeNameIndex;
+import com.reliaquest.api.index.EmployeeSalaryIndex;
+import com.reliaquest.api.model.CreateEmployeeRequest;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.EmployeeBatchResult;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmployeeServiceImplTest {
+    private static final String ID_1 = "6f1c7a43-2a9b-4f0e-9a51-0c6d1e3b9a01";
+    private static final String ID_2 = "6f1c7a43-2a9b-4f0e-9a51-0c6d1e3b9a02";
+    private static final String ID_3 = "6f1c7a43-2a9b-4f0e-9a51-0c6d1e3b9a03";
+
+    private final EmployeeApiClient employeeApiClient = mock(EmployeeApiClient.class);
+    private final EmployeeSnapshotCache employeeSnapshotCache = mock(EmployeeSnapshotCache.class);
+    private final Validator validator = mock(Validator.class);
+    private final EmployeeServiceImpl employeeService = new EmployeeServiceImpl(employeeApiClient,
+            employeeSnapshotCache, new EmployeeNameIndex(), new EmployeeSalaryIndex(), validator, 2);
+
+    @Test
+    @DisplayName("Batch creates file each upstream result under the item's own index, across chunks")
+    void createEmployees_resultsMappedBackToRequestIndexes() {
+        when(validator.validate(any(CreateEmployeeRequest.class))).thenReturn(Set.of());
+        CreateEmployeeRequest alice = request("Alice");
+        CreateEmployeeRequest bob = request("Bob");
+        CreateEmployeeRequest carol = request("Carol");
+        Employee createdAlice = Employee.builder().id(ID_1).name("Alice").build();
+        Employee createdBob = Employee.builder().id(ID_2).name("Bob").build();
+        // First chunk answered out of order; the second chunk's request fails.
+        when(employeeApiClient.createEmployees(List.of(alice, bob))).thenReturn(List.of(
+                created(1, createdBob),
+                created(0, createdAlice)));
+        when(employeeApiClient.createEmployees(List.of(carol))).thenThrow(new ResourceAccessException("Timed out"));
+
+        List<EmployeeBatchResult> results = employeeService.createEmployees(Arrays.asList(alice, null, bob, carol));
+
+        assertEquals(4, results.size());
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(EmployeeBatchResult::getIndex).toList());
+        assertEquals(List.of(EmployeeBatchResult.Status.CREATED, EmployeeBatchResult.Status.INVALID,
+                        EmployeeBatchResult.Status.CREATED, EmployeeBatchResult.Status.FAILED),
+                results.stream().map(EmployeeBatchResult::getStatus).toList());
+        assertEquals(createdAlice, results.get(0).getEmployee());
+        assertEquals(createdBob, results.get(2).getEmployee());
+        verify(employeeSnapshotCache).applyLocalWrites(List.of(createdBob, createdAlice), List.of());
+    }
+
+    @Test
+    @DisplayName("Batch deletes reject malformed ids locally, so they cannot fail the valid ids sent with them")
+    void deleteEmployees_malformedIdsAreInvalid() {
+        when(employeeApiClient.deleteEmployeesById(List.of(ID_1, ID_2))).thenReturn(List.of(
+                EmployeeBatchResult.builder().index(0).status(EmployeeBatchResult.Status.DELETED).id(ID_1).build(),
+                EmployeeBatchResult.builder().index(1).status(EmployeeBatchResult.Status.NOT_FOUND).id(ID_2).build()));
+        when(employeeApiClient.deleteEmployeesById(List.of(ID_3))).thenReturn(List.of(
+                EmployeeBatchResult.builder().index(0).status(EmployeeBatchResult.Status.DELETED).id(ID_3).build()));
+
+        List<EmployeeBatchResult> results =
+                employeeService.deleteEmployees(Arrays.asList(ID_1, "not-a-uuid", null, ID_2, ID_3, "1-1-1-1-1"));
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), results.stream().map(EmployeeBatchResult::getIndex).toList());
+        assertEquals(List.of(EmployeeBatchResult.Status.DELETED, EmployeeBatchResult.Status.INVALID,
+                        EmployeeBatchResult.Status.INVALID, EmployeeBatchResult.Status.NOT_FOUND,
+                        EmployeeBatchResult.Status.DELETED, EmployeeBatchResult.Status.INVALID),
+                results.stream().map(EmployeeBatchResult::getStatus).toList());
+        assertEquals("not-a-uuid", results.get(1).getId());
+        assertEquals(ID_2, results.get(3).getId());
+        verify(employeeSnapshotCache).applyLocalWrites(List.of(), List.of(ID_1, ID_3));
+    }
+
+    private static CreateEmployeeRequest request(String name) {
+        CreateEmployeeRequest request = new CreateEmployeeRequest();
+        request.setName(name);
+        request.setSalary(1000);
+        request.setAge(30);
+        request.setTitle("Engineer");
+        return request;
+    }
+
+    private static EmployeeBatchResult created(int index, Employee employee) {
+        return EmployeeBatchResult.builder()
+                .index(index)
+                .status(EmployeeBatchResult.Status.CREATED)
+                .id(employee.getId())
+                .employee(employee)
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.reliaquest.api.web;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.reliaquest.api.controller.EmployeeController;
+import com.reliaquest.api.logging.StructuredLogEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestLogFilterTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RequestLogFilter.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    @DisplayName("Each endpoint is sampled at its own rate, and server errors are always logged")
+    void perEndpointSampling() throws Exception {
+        RequestLogFilter filter = new RequestLogFilter(0.0, Map.of("createEmployee", 1.0));
+
+        for (int i = 0; i < 100; i++) {
+            filter.doFilter(request("getEmployeeById", "/api/v1/employees/{id}"), new MockHttpServletResponse(),
+                    new MockFilterChain());
+        }
+        filter.doFilter(request("createEmployee", "/api/v1/employees"), new MockHttpServletResponse(),
+                new MockFilterChain());
+        MockHttpServletResponse serverError = new MockHttpServletResponse();
+        serverError.setStatus(503);
+        filter.doFilter(request("getEmployeeById", "/api/v1/employees/{id}"), serverError, new MockFilterChain());
+
+        assertEquals(2, appender.list.size());
+        assertEquals("createEmployee", appender.list.get(0).getKeyValuePairs().get(1).value);
+        assertEquals(503, appender.list.get(1).getKeyValuePairs().get(3).value);
+    }
+
+    @Test
+    @DisplayName("A sampled request is written as one logfmt line with its fields")
+    void structuredLine() throws Exception {
+        RequestLogFilter filter = new RequestLogFilter(1.0, Map.of());
+
+        filter.doFilter(request("getEmployeeById", "/api/v1/employees/{id}"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        StructuredLogEncoder encoder = new StructuredLogEncoder();
+        String line = new String(encoder.encode(appender.list.get(0)), StandardCharsets.UTF_8);
+        assertTrue(line.startsWith("ts="), line);
+        assertTrue(line.contains(" level=INFO "), line);
+        assertTrue(line.contains(" msg=request method=GET endpoint=getEmployeeById uri=/api/v1/employees/{id} "
+                + "status=200 duration_ms="), line);
+        assertTrue(line.contains(" sample_rate=1.0"), line);
+    }
+
+    @Test
+    @DisplayName("Sample rates are parsed from endpoint=rate pairs and must be between 0 and 1")
+    void parseSampleRates() {
+        assertEquals(Map.of("createEmployee", 1.0, "getEmployeeById", 0.01),
+                RequestLogFilter.parseSampleRates("createEmployee=1, getEmployeeById=0.01"));
+        assertEquals(Map.of(), RequestLogFilter.parseSampleRates(""));
+        assertThrows(IllegalArgumentException.class, () -> RequestLogFilter.parseSampleRates("createEmployee"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RequestLogFilter(0.5, RequestLogFilter.parseSampleRates("createEmployee=2")));
+    }
+
+    private static MockHttpServletRequest request(String endpoint, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        HandlerMethod handler = new HandlerMethod(new Object(), controllerMethod(endpoint));
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private static Method controllerMethod(String name) {
+        for (Method method : EmployeeController.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
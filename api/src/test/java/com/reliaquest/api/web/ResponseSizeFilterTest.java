@@ -0,0 +1,118 @@
+package com.reliaquest.api.web;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ResponseSizeFilterTest {
+    private static final String CHUNK = "0123456789";
+    private static final int CHUNKS = 1_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new SizedController())
+                .addFilters(new ResponseSizeFilter(meterRegistry))
+                .build();
+    }
+
+    @Test
+    @DisplayName("A response written on the request thread is recorded under its URI template and method")
+    void syncResponse_recorded() throws Exception {
+        MvcResult result = mockMvc.perform(get("/sized/hello"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        DistributionSummary summary = summary("/sized/{name}");
+        assertEquals(1, summary.count());
+        assertEquals("hello".length(), summary.totalAmount());
+        assertEquals(result.getResponse().getContentAsByteArray().length, summary.totalAmount());
+    }
+
+    @Test
+    @DisplayName("An async response is recorded once it completes, with the bytes written on the async dispatch")
+    void asyncResponse_recordedOnCompletion() throws Exception {
+        MvcResult started = mockMvc.perform(get("/sized/async"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertNull(meterRegistry.find("employee.http.response.size").summary());
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        DistributionSummary summary = summary("/sized/async");
+        assertEquals(1, summary.count());
+        assertEquals("answered later".length(), summary.totalAmount());
+        assertEquals(result.getResponse().getContentAsByteArray().length, summary.totalAmount());
+    }
+
+    @Test
+    @DisplayName("A streamed response is counted chunk by chunk and recorded whole")
+    void streamedResponse_recorded() throws Exception {
+        MvcResult started = mockMvc.perform(get("/sized/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        DistributionSummary summary = summary("/sized/stream");
+        assertEquals(1, summary.count());
+        assertEquals(CHUNK.length() * CHUNKS, summary.totalAmount());
+        assertEquals(result.getResponse().getContentAsByteArray().length, summary.totalAmount());
+    }
+
+    private DistributionSummary summary(String uri) {
+        return meterRegistry.get("employee.http.response.size")
+                .tag("uri", uri)
+                .tag("method", "GET")
+                .summary();
+    }
+
+    @RestController
+    static class SizedController {
+        @GetMapping("/sized/{name}")
+        String sync(@PathVariable String name) {
+            return name;
+        }
+
+        @GetMapping("/sized/async")
+        Callable<String> async() {
+            return () -> "answered later";
+        }
+
+        @GetMapping("/sized/stream")
+        StreamingResponseBody stream() {
+            return outputStream -> {
+                byte[] chunk = CHUNK.getBytes(StandardCharsets.UTF_8);
+                for (int i = 0; i < CHUNKS; i++) {
+                    outputStream.write(chunk);
+                    outputStream.flush();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.reliaquest.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.server.config.MockEmployeeSeeder;
+import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.Response;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rosters shared by the benchmarks. They come from the server's own seeder with a fixed seed, so every run and every
+ * release measures the same names, salaries and payload sizes.
+ */
+public final class Rosters {
+
+    private static final long SEED = 42L;
+
+    private Rosters() {}
+
+    public static List<MockEmployee> mockEmployees(int size) {
+        return new MockEmployeeSeeder(new ObjectMapper(), Locale.US).generate(size, SEED);
+    }
+
+    /**
+     * The roster as the api module holds it after reading it from the server.
+     */
+    public static List<Employee> employees(List<MockEmployee> mockEmployees) {
+        return mockEmployees.stream().map(Rosters::toEmployee).toList();
+    }
+
+    /**
+     * The body the server sends for {@code GET /api/v1/employee}.
+     */
+    public static byte[] rosterResponse(ObjectMapper objectMapper, List<MockEmployee> mockEmployees) {
+        return response(objectMapper, mockEmployees);
+    }
+
+    /**
+     * The body the server sends for {@code GET /api/v1/employee/{id}}.
+     */
+    public static byte[] employeeResponse(ObjectMapper objectMapper, MockEmployee mockEmployee) {
+        return response(objectMapper, mockEmployee);
+    }
+
+    private static byte[] response(ObjectMapper objectMapper, Object data) {
+        try {
+            return objectMapper.writeValueAsBytes(Response.handledWith(data));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Could not serialize response", e);
+        }
+    }
+
+    private static Employee toEmployee(MockEmployee mockEmployee) {
+        return Employee.builder()
+                .id(mockEmployee.getId().toString())
+                .name(mockEmployee.getName())
+                .salary(mockEmployee.getSalary())
+                .age(mockEmployee.getAge())
+                .title(mockEmployee.getTitle())
+                .email(mockEmployee.getEmail())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.reliaquest.benchmarks.api;
+
+import java.net.URI;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+/**
+ * Answers every request with the same JSON body, so the client's decoding is measured without a socket in the way.
+ */
+class CannedResponseFactory implements ClientHttpRequestFactory {
+
+    private final byte[] body;
+
+    CannedResponseFactory(byte[] body) {
+        this.body = body;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        final var response = new MockClientHttpResponse(body, HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        final var request = new MockClientHttpRequest(httpMethod, uri);
+        request.setResponse(response);
+        return request;
+    }
+}
@@ -0,0 +1,92 @@
+package com.reliaquest.benchmarks.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.dto.Response;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.benchmarks.Rosters;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson binding of the api module's {@link Employee} and {@link Response} envelope: reading the server's responses
+ * the way {@code RestTemplate} does, and writing what the controller returns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeJsonBenchmark {
+
+    private static final TypeReference<Response<List<Employee>>> EMPLOYEES = new TypeReference<>() {};
+    private static final TypeReference<Response<Employee>> EMPLOYEE = new TypeReference<>() {};
+
+    /**
+     * Configured like the application's mapper; in particular the server's {@code status} field is ignored, not an
+     * error.
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Roster {
+
+        @Param({"50", "1000", "10000", "100000", "1000000"})
+        public int size;
+
+        final ObjectMapper objectMapper = objectMapper();
+        byte[] response;
+        List<Employee> employees;
+
+        @Setup
+        public void setUp() {
+            final var mockEmployees = Rosters.mockEmployees(size);
+            response = Rosters.rosterResponse(objectMapper, mockEmployees);
+            employees = Rosters.employees(mockEmployees);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Single {
+
+        final ObjectMapper objectMapper = objectMapper();
+        byte[] response;
+        Employee employee;
+
+        @Setup
+        public void setUp() {
+            final var mockEmployees = Rosters.mockEmployees(1);
+            response = Rosters.employeeResponse(objectMapper, mockEmployees.get(0));
+            employee = Rosters.employees(mockEmployees).get(0);
+        }
+    }
+
+    @Benchmark
+    public Response<List<Employee>> readRoster(Roster roster) throws IOException {
+        return roster.objectMapper.readValue(roster.response, EMPLOYEES);
+    }
+
+    @Benchmark
+    public byte[] writeRoster(Roster roster) throws IOException {
+        return roster.objectMapper.writeValueAsBytes(roster.employees);
+    }
+
+    @Benchmark
+    public Response<Employee> readEmployee(Single single) throws IOException {
+        return single.objectMapper.readValue(single.response, EMPLOYEE);
+    }
+
+    @Benchmark
+    public byte[] writeEmployee(Single single) throws IOException {
+        return single.objectMapper.writeValueAsBytes(single.employee);
+    }
+}
@@ -0,0 +1,142 @@
+package com.reliaquest.benchmarks.api;
+
+import com.reliaquest.api.cache.EmployeeSnapshotCache;
+import com.reliaquest.api.client.AdaptiveRateLimiter;
+import com.reliaquest.api.client.CircuitBreaker;
+import com.reliaquest.api.client.EmployeeApiClient;
+import com.reliaquest.api.client.UpstreamRetryExecutor;
+import com.reliaquest.api.index.EmployeeNameIndex;
+import com.reliaquest.api.index.EmployeeSalaryIndex;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.service.impl.EmployeeServiceImpl;
+import com.reliaquest.benchmarks.Rosters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The read paths of {@link EmployeeServiceImpl} behind the controller's search, highest-salary and top-ten endpoints.
+ * <p>
+ * With {@code cache} on they are answered from the snapshot's name and salary indexes. With it off each call decodes
+ * the whole roster response through the client's streaming visitors; the response is served from memory, so the score
+ * is decoding and selection only, not network time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeServiceBenchmark {
+
+    @Param({"50", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private UpstreamRetryExecutor retryExecutor;
+    private EmployeeApiClient employeeApiClient;
+    private EmployeeServiceImpl employeeService;
+
+    @Setup
+    public void setUp() {
+        final var objectMapper = EmployeeJsonBenchmark.objectMapper();
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var body = Rosters.rosterResponse(objectMapper, Rosters.mockEmployees(size));
+        final var circuitBreaker = new CircuitBreaker(meterRegistry, true, 5, Duration.ofSeconds(10), 1);
+        retryExecutor = new UpstreamRetryExecutor(
+                meterRegistry,
+                circuitBreaker,
+                1,
+                Duration.ofMillis(1),
+                Duration.ofMillis(1),
+                Duration.ofSeconds(1),
+                0.2,
+                1,
+                1);
+        final var rateLimiter = new AdaptiveRateLimiter(
+                meterRegistry,
+                false,
+                5,
+                Duration.ofSeconds(30),
+                Duration.ofMinutes(2),
+                Duration.ofSeconds(1),
+                0.4,
+                100,
+                10,
+                50);
+        employeeApiClient = new EmployeeApiClient(
+                new RestTemplate(new CannedResponseFactory(body)),
+                objectMapper,
+                retryExecutor,
+                rateLimiter,
+                meterRegistry,
+                "http://localhost/api/v1/employee",
+                0,
+                1,
+                50);
+        final var nameIndex = new EmployeeNameIndex();
+        final var salaryIndex = new EmployeeSalaryIndex();
+        // Never stale during a run, so no refresh lands inside a measurement.
+        final var snapshotCache = new EmployeeSnapshotCache(
+                employeeApiClient,
+                new ConcurrentTaskScheduler(),
+                List.of(nameIndex, salaryIndex),
+                meterRegistry,
+                circuitBreaker,
+                cache,
+                Duration.ofDays(1),
+                Duration.ZERO,
+                false);
+        if (cache) {
+            snapshotCache.forceRefresh();
+        }
+        employeeService = new EmployeeServiceImpl(
+                employeeApiClient,
+                snapshotCache,
+                nameIndex,
+                salaryIndex,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                1000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        employeeApiClient.destroy();
+        retryExecutor.destroy();
+    }
+
+    @Benchmark
+    public List<Employee> searchEmployeesByName(Search search) {
+        return employeeService.searchEmployeesByName(search.needle);
+    }
+
+    @Benchmark
+    public Integer getHighestSalary() {
+        return employeeService.getHighestSalary();
+    }
+
+    @Benchmark
+    public List<String> getTopTenHighestEarningEmployeeNames() {
+        return employeeService.getTopTenHighestEarningEmployeeNames();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Search {
+
+        /** A needle that goes through the trigram postings, and one short enough to scan every name. */
+        @Param({"son", "an"})
+        public String needle;
+    }
+}
@@ -0,0 +1,149 @@
+package com.reliaquest.benchmarks.api;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.reliaquest.api.controller.EmployeeController;
+import com.reliaquest.api.logging.StructuredLogEncoder;
+import com.reliaquest.api.web.RequestLogFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Logging cost of one request, with {@code -prof gc} reporting the bytes allocated for it:
+ * <ul>
+ *   <li>{@code infoPerServiceCall}: the INFO line the service used to write for every call, through Spring Boot's
+ *   console pattern.
+ *   <li>{@code structuredPerServiceCall}: the same line through {@link StructuredLogEncoder}, to isolate the encoder.
+ *   <li>{@code sampledRequestLog}: {@link RequestLogFilter} around a request to {@code getEmployeeById} at a range of
+ *   sample rates, through {@link StructuredLogEncoder}.
+ * </ul>
+ * Events are written synchronously to a discarding stream, so the encoding is measured on the benchmark thread; in the
+ * application an async appender moves it to a single worker thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestLoggingBenchmark {
+
+    // Spring Boot's console pattern, without the colours and with a fixed process id.
+    private static final String CONSOLE_PATTERN =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p 12345 --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    /**
+     * Sends {@code loggerName}'s INFO events only to a discarding appender with {@code encoder}.
+     */
+    static OutputStreamAppender<ILoggingEvent> attach(String loggerName, Encoder<ILoggingEvent> encoder) {
+        final var context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        encoder.setContext(context);
+        encoder.start();
+        final var appender = new OutputStreamAppender<ILoggingEvent>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        final var logger = context.getLogger(loggerName);
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        return appender;
+    }
+
+    static PatternLayoutEncoder patternEncoder() {
+        final var encoder = new PatternLayoutEncoder();
+        encoder.setPattern(CONSOLE_PATTERN);
+        return encoder;
+    }
+
+    @State(Scope.Benchmark)
+    public static class PerServiceCall {
+
+        final String searchString = "son";
+        Logger pattern;
+        Logger structured;
+        private OutputStreamAppender<ILoggingEvent> patternAppender;
+        private OutputStreamAppender<ILoggingEvent> structuredAppender;
+
+        @Setup
+        public void setUp() {
+            patternAppender = attach("com.reliaquest.api.service.impl.EmployeeServiceImpl", patternEncoder());
+            structuredAppender =
+                    attach("com.reliaquest.api.service.impl.ReactiveEmployeeServiceImpl", new StructuredLogEncoder());
+            pattern = (Logger) LoggerFactory.getLogger("com.reliaquest.api.service.impl.EmployeeServiceImpl");
+            structured =
+                    (Logger) LoggerFactory.getLogger("com.reliaquest.api.service.impl.ReactiveEmployeeServiceImpl");
+        }
+
+        @TearDown
+        public void tearDown() {
+            patternAppender.stop();
+            structuredAppender.stop();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sampled {
+
+        @Param({"1.0", "0.1", "0.01"})
+        public double sampleRate;
+
+        RequestLogFilter filter;
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/employees/42");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        // What the handler would have done: nothing, as far as logging is concerned.
+        final FilterChain chain = (servletRequest, servletResponse) -> {};
+        private OutputStreamAppender<ILoggingEvent> appender;
+
+        @Setup
+        public void setUp() throws NoSuchMethodException {
+            appender = attach(RequestLogFilter.class.getName(), new StructuredLogEncoder());
+            filter = new RequestLogFilter(sampleRate, Map.of());
+            final var getEmployeeById = EmployeeController.class.getMethod("getEmployeeById", String.class);
+            request.setAttribute(
+                    HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, new HandlerMethod(new Object(), getEmployeeById));
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/employees/{id}");
+        }
+
+        @TearDown
+        public void tearDown() {
+            appender.stop();
+        }
+    }
+
+    @Benchmark
+    public void infoPerServiceCall(PerServiceCall state) {
+        state.pattern.info("Searching employees with name containing: {}", state.searchString);
+    }
+
+    @Benchmark
+    public void structuredPerServiceCall(PerServiceCall state) {
+        state.structured.info("Searching employees with name containing: {}", state.searchString);
+    }
+
+    @Benchmark
+    public void sampledRequestLog(Sampled state) throws ServletException, IOException {
+        state.filter.doFilter(state.request, state.response, state.chain);
+    }
+}
@@ -0,0 +1,87 @@
+package com.reliaquest.benchmarks.server;
+
+import com.reliaquest.benchmarks.Rosters;
+import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.service.MockEmployeeService;
+import com.reliaquest.server.service.MockEmployeeStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import net.datafaker.Faker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Lookups and deletes by id on the mock server's {@link MockEmployeeService}, against an in-memory store seeded like
+ * the server's.
+ * <p>
+ * A delete is always followed by adding the same employee back, so the roster keeps its size for the whole run; the
+ * score of {@link #deleteAndRestore()} therefore covers one remove and one add.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MockEmployeeServiceBenchmark {
+
+    @Param({"50", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private MockEmployeeStore mockEmployeeStore;
+    private MockEmployeeService mockEmployeeService;
+    private MockEmployee[] employees;
+    // UUID.randomUUID() draws from SecureRandom, which would cost more than the lookup being measured.
+    private final UUID[] unknownIds = new UUID[1024];
+    private int next;
+    private int nextUnknown;
+
+    @Setup
+    public void setUp() {
+        employees = Rosters.mockEmployees(size).toArray(MockEmployee[]::new);
+        mockEmployeeStore = new MockEmployeeStore(List.of(employees));
+        mockEmployeeService = new MockEmployeeService(
+                new Faker(Locale.US),
+                mockEmployeeStore,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new SimpleMeterRegistry());
+        for (int i = 0; i < unknownIds.length; i++) {
+            unknownIds[i] = UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public Optional<MockEmployee> findById() {
+        return mockEmployeeService.findById(nextEmployee().getId());
+    }
+
+    @Benchmark
+    public Optional<MockEmployee> findByUnknownId() {
+        nextUnknown = (nextUnknown + 1) % unknownIds.length;
+        return mockEmployeeService.findById(unknownIds[nextUnknown]);
+    }
+
+    @Benchmark
+    public MockEmployee deleteAndRestore() {
+        final var employee = nextEmployee();
+        mockEmployeeService.delete(employee.getId());
+        return mockEmployeeStore.add(employee);
+    }
+
+    /*
+     * Walks the roster in order rather than at random, so the index arithmetic stays out of the score.
+     */
+    private MockEmployee nextEmployee() {
+        final var employee = employees[next];
+        next = next + 1 == employees.length ? 0 : next + 1;
+        return employee;
+    }
+}
@@ -0,0 +1,286 @@
+package com.reliaquest.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Starts the mock server and the api from their boot jars on localhost, sends them an open-model traffic mix at a fixed
+ * rate and reports latency percentiles per operation, response statuses, and how many calls the api made to the mock
+ * server while doing so.
+ * <p>
+ * Open model: requests start on a fixed schedule whether or not earlier ones have completed, the way independent users
+ * arrive, so a slow api builds a queue instead of slowing the load down. Run with {@code ./gradlew
+ * benchmarks:loadTest}; see {@link LoadTestSettings} for the {@code -Ploadtest.*} knobs.
+ */
+@Slf4j
+public final class LoadTest {
+
+    private static final String EMPLOYEES = "/api/v1/employees";
+    private static final long ROSTER_SEED = 42L;
+
+    private final LoadTestSettings settings;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final SplittableRandom random = new SplittableRandom(ROSTER_SEED);
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Queue<String> createdIds = new ConcurrentLinkedQueue<>();
+    private final Queue<String> deletableRosterIds = new ConcurrentLinkedQueue<>();
+    private List<String> rosterIds = List.of();
+    private List<String> rosterNames = List.of();
+    private String apiBaseUrl;
+
+    private LoadTest(LoadTestSettings settings) {
+        this.settings = settings;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest(LoadTestSettings.fromSystemProperties()).run();
+    }
+
+    private void run() throws Exception {
+        final var serverArgs = new ArrayList<String>(List.of(
+                "--mock.employees.max=" + settings.rosterSize(),
+                "--mock.employees.seed=" + ROSTER_SEED,
+                "--logging.level.com.reliaquest=INFO"));
+        serverArgs.addAll(settings.serverArgs());
+        try (final var server = LocalApplication.start(
+                "server", settings.serverJar(), settings.jvmArgs(), serverArgs, settings.output())) {
+            server.awaitListening();
+            final var apiArgs = new ArrayList<String>(
+                    List.of("--employee.api.base-url=" + server.baseUrl() + "/api/v1/employee"));
+            apiArgs.addAll(settings.apiArgs());
+            try (final var api =
+                    LocalApplication.start("api", settings.apiJar(), settings.jvmArgs(), apiArgs, settings.output())) {
+                api.awaitHealthy(client, "/actuator/health");
+                apiBaseUrl = api.baseUrl();
+                loadRoster();
+
+                log.info("Warming up for {} at {} requests/s", settings.warmup(), settings.rps());
+                drive(settings.warmup(), false);
+                final var upstreamBefore = UpstreamCounts.read(client, objectMapper, apiBaseUrl);
+                log.info("Measuring for {} at {} requests/s, mix {}", settings.duration(), settings.rps(),
+                        settings.mix());
+                drive(settings.duration(), true);
+                final var upstream = UpstreamCounts.read(client, objectMapper, apiBaseUrl).since(upstreamBefore);
+                report(upstream);
+            }
+        }
+    }
+
+    /**
+     * Reads the roster once through the api, for the ids to read and delete and the names to search for.
+     */
+    private void loadRoster() throws IOException, InterruptedException {
+        final var request = HttpRequest.newBuilder(URI.create(apiBaseUrl + EMPLOYEES)).build();
+        for (int attempt = 1; ; attempt++) {
+            final var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                final var ids = new ArrayList<String>();
+                final var names = new ArrayList<String>();
+                for (JsonNode employee : objectMapper.readTree(response.body())) {
+                    ids.add(employee.path("id").asText());
+                    names.add(employee.path("name").asText());
+                }
+                rosterIds = List.copyOf(ids);
+                rosterNames = List.copyOf(names);
+                deletableRosterIds.addAll(ids);
+                log.info("Api serves a roster of {} employees", ids.size());
+                return;
+            }
+            if (attempt == 30) {
+                throw new IllegalStateException("Api did not serve the roster, last status " + response.statusCode());
+            }
+            TimeUnit.SECONDS.sleep(1);
+        }
+    }
+
+    /**
+     * Starts {@code rps} requests a second for {@code duration}, then waits for the outstanding ones.
+     */
+    private void drive(Duration duration, boolean measured) throws InterruptedException {
+        final long interval = TimeUnit.SECONDS.toNanos(1) / settings.rps();
+        final long start = System.nanoTime();
+        final long end = start + duration.toNanos();
+        for (long sent = 0; ; sent++) {
+            final long due = start + sent * interval;
+            if (due - end >= 0) {
+                break;
+            }
+            final long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            final var operation = settings.mix().next(random);
+            final var operationStats = stats.get(operation);
+            if (outstanding.get() >= settings.maxOutstanding()) {
+                if (measured) {
+                    operationStats.drop();
+                }
+                continue;
+            }
+            outstanding.incrementAndGet();
+            send(operation).whenComplete((status, failure) -> {
+                if (measured) {
+                    final long latency = System.nanoTime() - due;
+                    operationStats.record(failure == null ? status : OperationStats.NO_RESPONSE, latency);
+                }
+                outstanding.decrementAndGet();
+            });
+        }
+        while (outstanding.get() > 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private CompletableFuture<Integer> send(Operation operation) {
+        final var request = HttpRequest.newBuilder().timeout(settings.requestTimeout());
+        return switch (operation) {
+            case READ -> status(request.uri(uri("/" + randomRosterId())));
+            case LIST -> status(request.uri(uri("")));
+            case SEARCH -> status(request.uri(uri("/search/" + pathSegment(randomNameSlice()))));
+            case HIGHEST -> status(request.uri(uri("/highestSalary")));
+            case TOP_TEN -> status(request.uri(uri("/topTenHighestEarningEmployeeNames")));
+            case CREATE -> create(request);
+            case DELETE -> status(request.uri(uri("/" + nextDeletableId())).DELETE());
+        };
+    }
+
+    private CompletableFuture<Integer> status(HttpRequest.Builder request) {
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    private CompletableFuture<Integer> create(HttpRequest.Builder request) {
+        final var body = """
+                {"name": "Load Test %d", "salary": %d, "age": %d, "title": "Load Tester"}
+                """.formatted(random.nextInt(1_000_000), random.nextInt(30_000, 500_000), random.nextInt(18, 70));
+        request.uri(uri(""))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() == 200) {
+                        try {
+                            createdIds.add(objectMapper.readTree(response.body()).path("id").asText());
+                        } catch (IOException e) {
+                            log.warn("Unreadable create response: {}", response.body());
+                        }
+                    }
+                    return response.statusCode();
+                });
+    }
+
+    private URI uri(String path) {
+        return URI.create(apiBaseUrl + EMPLOYEES + path);
+    }
+
+    private String randomRosterId() {
+        return rosterIds.get(random.nextInt(rosterIds.size()));
+    }
+
+    /**
+     * Employees this run created are deleted first, so the roster keeps its size; once there are none, seed employees
+     * are deleted and later reads of them count as 404s.
+     */
+    private String nextDeletableId() {
+        final var created = createdIds.poll();
+        if (created != null) {
+            return created;
+        }
+        final var seeded = deletableRosterIds.poll();
+        return seeded != null ? seeded : randomRosterId();
+    }
+
+    /**
+     * Three characters from a random roster name, which always matches at least that employee.
+     */
+    private String randomNameSlice() {
+        final var name = rosterNames.get(random.nextInt(rosterNames.size()));
+        if (name.length() <= 3) {
+            return name;
+        }
+        final int start = random.nextInt(name.length() - 2);
+        return name.substring(start, start + 3);
+    }
+
+    private static String pathSegment(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private void report(UpstreamCounts upstream) throws IOException {
+        final PrintStream out = System.out;
+        final double seconds = settings.duration().toMillis() / 1000.0;
+        out.printf("%nOpen model at %d requests/s for %s, mix %s, roster of %d%n", settings.rps(),
+                settings.duration(), settings.mix(), settings.rosterSize());
+        out.printf("%-8s %9s %8s %9s %9s %9s %9s %9s %8s %8s  %s%n", "op", "requests", "rps", "p50 ms", "p99 ms",
+                "p999 ms", "max ms", "dropped", "429 %", "503 %", "statuses");
+        long requests = 0;
+        long tooManyRequests = 0;
+        Files.createDirectories(settings.output());
+        for (Operation operation : Operation.values()) {
+            final var operationStats = stats.get(operation);
+            final Histogram latencies = operationStats.takeLatencies();
+            final var statuses = operationStats.statuses();
+            final long count = latencies.getTotalCount();
+            if (count == 0 && operationStats.dropped() == 0) {
+                continue;
+            }
+            requests += count;
+            tooManyRequests += statuses.getOrDefault(429, 0L);
+            out.printf("%-8s %9d %8.1f %9.2f %9.2f %9.2f %9.2f %9d %8.2f %8.2f  %s%n", operation.key(), count,
+                    count / seconds, millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(99)), millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()), operationStats.dropped(), percent(statuses.get(429), count),
+                    percent(statuses.get(503), count), statuses);
+            // Full distributions in HdrHistogram's text format, for plotting or comparing runs.
+            try (final var file = new PrintStream(
+                    Files.newOutputStream(settings.output().resolve(operation.key() + ".hgrm")))) {
+                latencies.outputPercentileDistribution(file, 1000.0);
+            }
+        }
+        out.printf("%nApi responses: %d, of which 429: %d (%.2f %%)%n", requests, tooManyRequests,
+                percent(tooManyRequests, requests));
+        out.printf("Upstream calls to the mock server: %d (%.1f per api request), of which 429: %d (%.2f %%); %s%n",
+                upstream.total(), requests == 0 ? 0.0 : upstream.total() / (double) requests, upstream.status(429),
+                percent(upstream.status(429), upstream.total()), upstream.byStatus());
+        out.printf("Latency distributions written to %s%n", settings.output().toAbsolutePath());
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static double percent(Long part, long whole) {
+        return whole == 0 || part == null ? 0.0 : 100.0 * part / whole;
+    }
+}
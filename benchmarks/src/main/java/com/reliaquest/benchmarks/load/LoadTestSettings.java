@@ -0,0 +1,65 @@
+package com.reliaquest.benchmarks.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Load test parameters, read from {@code loadtest.*} system properties; the {@code loadTest} Gradle task passes on
+ * every {@code -Ploadtest.*} project property.
+ *
+ * @param rps             requests started per second, whether or not earlier ones have completed
+ * @param warmup          traffic sent before measuring starts, at the same rate
+ * @param maxOutstanding  requests in flight past which new ones are counted as dropped instead of sent
+ */
+record LoadTestSettings(
+        int rps,
+        Duration duration,
+        Duration warmup,
+        TrafficMix mix,
+        int rosterSize,
+        int maxOutstanding,
+        Duration requestTimeout,
+        Path serverJar,
+        Path apiJar,
+        List<String> jvmArgs,
+        List<String> serverArgs,
+        List<String> apiArgs,
+        Path output) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.parseInt(property("rps", "200")),
+                Duration.parse(property("duration", "PT60S")),
+                Duration.parse(property("warmup", "PT10S")),
+                TrafficMix.parse(property("mix", "read=60,search=20,create=10,delete=10")),
+                Integer.parseInt(property("roster-size", "1000")),
+                Integer.parseInt(property("max-outstanding", "10000")),
+                Duration.parse(property("request-timeout", "PT10S")),
+                Path.of(requiredProperty("server-jar")),
+                Path.of(requiredProperty("api-jar")),
+                words(property("jvm-args", "-Xmx1g")),
+                words(property("server-args", "")),
+                words(property("api-args", "")),
+                Path.of(property("output", "build/loadtest")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static String requiredProperty(String name) {
+        final var value = System.getProperty("loadtest." + name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("System property loadtest." + name + " is required");
+        }
+        return value;
+    }
+
+    private static List<String> words(String value) {
+        return Arrays.stream(value.trim().split("\\s+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,136 @@
+package com.reliaquest.benchmarks.load;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One of the Spring Boot applications, run from its boot jar in a JVM of its own on a free localhost port, with its
+ * console output going to {@code <name>.log} in the output directory.
+ * <p>
+ * Separate JVMs keep the two applications' heaps, GC pauses and thread pools apart, the way they are deployed, and
+ * away from the load generator's.
+ */
+@Slf4j
+final class LocalApplication implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final String name;
+    private final int port;
+    private final Process process;
+
+    private LocalApplication(String name, int port, Process process) {
+        this.name = name;
+        this.port = port;
+        this.process = process;
+    }
+
+    static LocalApplication start(String name, Path jar, List<String> jvmArgs, List<String> args, Path output) {
+        final int port = freePort();
+        final var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.addAll(args);
+        try {
+            Files.createDirectories(output);
+            final var logFile = output.resolve(name + ".log");
+            final var process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(logFile.toFile())
+                    .start();
+            log.info("Started {} on port {}, logging to {}", name, port, logFile);
+            return new LocalApplication(name, port, process);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start " + name, e);
+        }
+    }
+
+    int port() {
+        return port;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    /**
+     * Waits until the port accepts connections. Tomcat only binds once the application context is ready.
+     * <p>
+     * Nothing is sent over the connection, which matters for the mock server: every request counts against its rate
+     * limit.
+     */
+    void awaitListening() throws InterruptedException {
+        final long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (true) {
+            try (final var socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 200);
+                return;
+            } catch (IOException e) {
+                checkWaiting(deadline);
+            }
+        }
+    }
+
+    /**
+     * Waits until {@code path} answers with a 200.
+     */
+    void awaitHealthy(HttpClient client, String path) throws InterruptedException {
+        final long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        final var request = HttpRequest.newBuilder(URI.create(baseUrl() + path))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        while (true) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            checkWaiting(deadline);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private void checkWaiting(long deadline) throws InterruptedException {
+        if (!process.isAlive()) {
+            throw new IllegalStateException(name + " exited with " + process.exitValue() + " while starting");
+        }
+        if (System.nanoTime() - deadline > 0) {
+            throw new IllegalStateException(name + " did not start within " + STARTUP_TIMEOUT);
+        }
+        Thread.sleep(200);
+    }
+
+    private static int freePort() {
+        try (final var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No free port", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.reliaquest.benchmarks.load;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The api endpoints a traffic mix can send requests to, by the key used in {@code loadtest.mix}.
+ */
+enum Operation {
+    READ("read"),
+    LIST("list"),
+    SEARCH("search"),
+    HIGHEST("highest"),
+    TOP_TEN("top-ten"),
+    CREATE("create"),
+    DELETE("delete");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Operation forKey(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation '" + key + "', expected one of "
+                        + Arrays.stream(values()).map(Operation::key).collect(Collectors.joining(", "))));
+    }
+}
@@ -0,0 +1,56 @@
+package com.reliaquest.benchmarks.load;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Outcomes of one operation's measured requests: a latency histogram and a count per HTTP status.
+ * <p>
+ * Latency runs from when the request was due to be sent, not from when it was actually sent, so a stall in the api
+ * (or in the generator) is charged to every request it held up rather than hidden by the schedule slipping.
+ */
+final class OperationStats {
+
+    /** Status recorded for requests that got no response: connection errors and timeouts. */
+    static final int NO_RESPONSE = -1;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Recorder latencies = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    void record(int status, long latencyNanos) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        statuses.computeIfAbsent(status, ignored -> new LongAdder()).increment();
+    }
+
+    /**
+     * Counts a request that was due but not sent because too many were outstanding.
+     */
+    void drop() {
+        dropped.increment();
+    }
+
+    /**
+     * @return the latencies recorded since the previous call, in microseconds
+     */
+    Histogram takeLatencies() {
+        return latencies.getIntervalHistogram();
+    }
+
+    Map<Integer, Long> statuses() {
+        final var counts = new TreeMap<Integer, Long>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+}
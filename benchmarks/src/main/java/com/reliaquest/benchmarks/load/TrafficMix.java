@@ -0,0 +1,72 @@
+package com.reliaquest.benchmarks.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Relative weights of the operations in the generated traffic, parsed from {@code read=60,search=20,...}.
+ */
+final class TrafficMix {
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private TrafficMix(Map<Operation, Integer> weights) {
+        operations = new Operation[weights.size()];
+        cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        int index = 0;
+        for (final var weight : weights.entrySet()) {
+            total += weight.getValue();
+            operations[index] = weight.getKey();
+            cumulativeWeights[index] = total;
+            index++;
+        }
+    }
+
+    static TrafficMix parse(String mix) {
+        final var weights = new EnumMap<Operation, Integer>(Operation.class);
+        for (String entry : mix.split(",")) {
+            final var keyAndWeight = entry.trim().split("=");
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight, got '" + entry + "'");
+            }
+            final int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + keyAndWeight[0]);
+            }
+            if (weight > 0) {
+                weights.merge(Operation.forKey(keyAndWeight[0].trim()), weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Traffic mix '" + mix + "' has no operation with a positive weight");
+        }
+        return new TrafficMix(weights);
+    }
+
+    Operation next(RandomGenerator random) {
+        final int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    @Override
+    public String toString() {
+        final var description = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < operations.length; i++) {
+            if (i > 0) {
+                description.append(',');
+            }
+            description.append(operations[i].key()).append('=').append(cumulativeWeights[i] - previous);
+            previous = cumulativeWeights[i];
+        }
+        return description.toString();
+    }
+}
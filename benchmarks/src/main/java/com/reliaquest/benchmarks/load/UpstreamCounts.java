@@ -0,0 +1,74 @@
+package com.reliaquest.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Responses the api has had from the mock server, by status, as counted by its
+ * {@code employee.upstream.responses} meter and read from {@code /actuator/metrics}.
+ */
+record UpstreamCounts(Map<String, Long> byStatus) {
+
+    private static final String METRIC = "/actuator/metrics/employee.upstream.responses";
+
+    static UpstreamCounts read(HttpClient client, ObjectMapper objectMapper, String apiBaseUrl)
+            throws IOException, InterruptedException {
+        final var byStatus = new TreeMap<String, Long>();
+        final var metric = get(client, objectMapper, apiBaseUrl + METRIC);
+        if (metric == null) {
+            // The meter is only registered with the first upstream response.
+            return new UpstreamCounts(byStatus);
+        }
+        for (JsonNode tag : metric.path("availableTags")) {
+            if ("status".equals(tag.path("tag").asText())) {
+                for (JsonNode status : tag.path("values")) {
+                    final var url = apiBaseUrl + METRIC + "?tag=status:" + status.asText();
+                    final var tagged = get(client, objectMapper, url);
+                    byStatus.put(status.asText(), tagged == null ? 0 : count(tagged));
+                }
+            }
+        }
+        return new UpstreamCounts(byStatus);
+    }
+
+    long total() {
+        return byStatus.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    long status(int status) {
+        return byStatus.getOrDefault(String.valueOf(status), 0L);
+    }
+
+    /**
+     * @return the responses counted since {@code earlier}
+     */
+    UpstreamCounts since(UpstreamCounts earlier) {
+        final var byStatus = new TreeMap<String, Long>();
+        this.byStatus.forEach(
+                (status, count) -> byStatus.put(status, count - earlier.byStatus.getOrDefault(status, 0L)));
+        return new UpstreamCounts(byStatus);
+    }
+
+    private static JsonNode get(HttpClient client, ObjectMapper objectMapper, String url)
+            throws IOException, InterruptedException {
+        final var response = client.send(
+                HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+    }
+
+    private static long count(JsonNode metric) {
+        for (JsonNode measurement : metric.path("measurements")) {
+            if ("COUNT".equals(measurement.path("statistic").asText())) {
+                return measurement.path("value").asLong();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,147 @@
+package com.reliaquest.server.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.reliaquest.server.model.MockEmployee;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.datafaker.Faker;
+
+/**
+ * Produces the startup roster, either by generating it or by loading a JSON-lines file written by an earlier run.
+ * <p>
+ * Generation is split into fixed-size chunks that run in parallel, each with its own {@link Faker} seeded from the base
+ * seed and the chunk index. The same seed and size therefore produce the same roster no matter how the chunks are
+ * scheduled across cores.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MockEmployeeSeeder {
+
+    static final int CHUNK_SIZE = 10_000;
+
+    private final ObjectMapper objectMapper;
+
+    private final Locale locale;
+
+    /**
+     * @param seed seed to generate with, or null for a random one
+     * @param file JSON-lines roster to load; generated and written there if it does not exist yet. May be null. An
+     *     existing file is used as it is, with a warning if it does not match {@code maxEmployees} and {@code seed}.
+     */
+    public List<MockEmployee> seed(int maxEmployees, Long seed, Path file) {
+        if (file != null && Files.exists(file)) {
+            final var employees = load(file);
+            log.info("Loaded {} employees from {}", employees.size(), file);
+            configurationMismatches(employees, maxEmployees, seed)
+                    .forEach(mismatch -> log.warn("Roster {} {}; delete it to generate a new one", file, mismatch));
+            return employees;
+        }
+
+        final long generationSeed = Objects.requireNonNullElseGet(seed, () -> new Random().nextLong());
+        final var employees = generate(maxEmployees, generationSeed);
+        log.info("Generated {} employees with seed {}", employees.size(), generationSeed);
+        if (file != null) {
+            write(file, employees);
+            log.info("Wrote roster to {}", file);
+        }
+        return employees;
+    }
+
+    /**
+     * @return how a loaded roster differs from the one this configuration would generate, empty if it does not
+     */
+    List<String> configurationMismatches(List<MockEmployee> employees, int maxEmployees, Long seed) {
+        final var mismatches = new ArrayList<String>();
+        if (employees.size() != maxEmployees) {
+            mismatches.add("has " + employees.size() + " employees but mock.employees.max is " + maxEmployees);
+        }
+        // The first employee depends only on the seed, so generating it is enough to tell which seed wrote the file.
+        if (seed != null
+                && !employees.isEmpty()
+                && !generateChunk(seed, 1).get(0).getId().equals(employees.get(0).getId())) {
+            mismatches.add("was not generated with mock.employees.seed " + seed);
+        }
+        return mismatches;
+    }
+
+    public List<MockEmployee> generate(int maxEmployees, long seed) {
+        final int chunks = (maxEmployees + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> generateChunk(
+                        seed + chunk, Math.min(CHUNK_SIZE, maxEmployees - chunk * CHUNK_SIZE)))
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    public List<MockEmployee> load(Path file) {
+        final ObjectReader reader = objectMapper.readerFor(MockEmployee.class);
+        try (final var lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return lines.parallel()
+                    .filter(line -> !line.isBlank())
+                    .map(line -> {
+                        try {
+                            return reader.<MockEmployee>readValue(line);
+                        } catch (JsonProcessingException e) {
+                            throw new UncheckedIOException("Invalid roster line in " + file, e);
+                        }
+                    })
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read roster from " + file, e);
+        }
+    }
+
+    public void write(Path file, List<MockEmployee> employees) {
+        final ObjectWriter writer = objectMapper.writerFor(MockEmployee.class);
+        try (final var out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (MockEmployee employee : employees) {
+                out.write(writer.writeValueAsString(employee));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write roster to " + file, e);
+        }
+    }
+
+    private List<MockEmployee> generateChunk(long seed, int size) {
+        final var random = new Random(seed);
+        final var faker = new Faker(locale, random);
+        return IntStream.range(0, size)
+                .mapToObj(ignored -> MockEmployee.builder()
+                        .id(randomUuid(random))
+                        .name(faker.name().fullName())
+                        .salary(faker.number().numberBetween(30000, 500000))
+                        .age(faker.number().numberBetween(16, 70))
+                        .title(faker.job().title())
+                        .email(ServerConfiguration.EMAIL_TEMPLATE.formatted(
+                                faker.twitter().userName().toLowerCase()))
+                        .build())
+                .toList();
+    }
+
+    /*
+     * UUID.randomUUID() draws from SecureRandom, which would break reproducibility; build a version 4 UUID from the
+     * seeded generator instead.
+     */
+    private static UUID randomUuid(Random random) {
+        final long mostSignificant = (random.nextLong() & ~0xF000L) | 0x4000L;
+        final long leastSignificant = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -3,32 +3,115 @@ package com.reliaquest.server.controller;
 import com.reliaquest.server.model.CreateMockEmployeeInput;
 import com.reliaquest.server.model.DeleteMockEmployeeInput;
 import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.MockEmployeeBatchResult;
+import com.reliaquest.server.model.MockEmployeeChange;
 import com.reliaquest.server.model.Response;
+import com.reliaquest.server.model.RosterCursor;
+import com.reliaquest.server.service.MockEmployeeChangeStream;
 import com.reliaquest.server.service.MockEmployeeService;
 import jakarta.validation.Valid;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1/employee")
 @RequiredArgsConstructor
 public class MockEmployeeController {
 
+    public static final String ROSTER_VERSION_HEADER = "X-Roster-Version";
+
+    private static final int MAX_PAGE_SIZE = 10_000;
+
+    private static final int MAX_BATCH_SIZE = 5_000;
+
     private final MockEmployeeService mockEmployeeService;
 
+    private final MockEmployeeChangeStream mockEmployeeChangeStream;
+
+    /**
+     * The whole roster, tagged with its version. A request whose {@code If-None-Match} still matches gets a 304 from
+     * Spring without the roster being serialized.
+     */
     @GetMapping()
-    public Response<List<MockEmployee>> getEmployees() {
-        return Response.handledWith(mockEmployeeService.getMockEmployees());
+    public ResponseEntity<Response<Collection<MockEmployee>>> getEmployees() {
+        final var version = mockEmployeeService.getRosterVersion();
+        return ResponseEntity.ok()
+                .eTag(mockEmployeeService.getRosterTag(version))
+                .header(ROSTER_VERSION_HEADER, Long.toString(version))
+                .body(Response.handledWith(mockEmployeeService.getMockEmployees()));
+    }
+
+    /**
+     * Every create and delete after roster version {@code since}, oldest first, so a client holding the roster at
+     * that version can bring it up to date. Answers 410 if those changes are no longer all known; the client then has
+     * to read the whole roster again.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<Response<List<MockEmployeeChange>>> getChanges(@RequestParam("since") long since) {
+        final var changes = mockEmployeeService.getChangesSince(since);
+        if (changes.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.GONE)
+                    .body(Response.error("Changes since version " + since + " are no longer available"));
+        }
+        final var reached = changes.get().isEmpty() ? since : lastVersion(changes.get());
+        return ResponseEntity.ok()
+                .eTag(mockEmployeeService.getRosterTag(reached))
+                .header(ROSTER_VERSION_HEADER, Long.toString(reached))
+                .body(Response.handledWith(changes.get()));
+    }
+
+    /**
+     * The same changes as {@link #getChanges(long)}, pushed as server-sent events while they happen. Each event's id
+     * is its version, so a client reconnecting with {@code Last-Event-ID} resumes where it left off. Without either
+     * parameter the stream starts from the current version.
+     */
+    @GetMapping(path = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(value = "since", required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (lastEventId != null) {
+            return mockEmployeeChangeStream.subscribe(lastEventId);
+        }
+        return mockEmployeeChangeStream.subscribe(since != null ? since : mockEmployeeService.getRosterVersion());
+    }
+
+    /**
+     * One page of the roster, oldest first. When more employees follow, the {@value RosterCursor#NEXT_CURSOR_HEADER}
+     * header carries the cursor for the next page. Every page is tagged with the roster version read before it, so a
+     * first page whose {@code If-None-Match} still matches gets a 304, and a client that read all pages can ask for the
+     * changes since its first page's version.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<Response<List<MockEmployee>>> getEmployeePage(
+            @RequestParam("limit") int limit, @RequestParam(value = "cursor", required = false) String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        final var version = mockEmployeeService.getRosterVersion();
+        final var page =
+                mockEmployeeService.getMockEmployeePage(cursor == null ? 0 : RosterCursor.decode(cursor), limit);
+        final var response = ResponseEntity.ok()
+                .eTag(mockEmployeeService.getRosterTag(version))
+                .header(ROSTER_VERSION_HEADER, Long.toString(version));
+        if (page.hasMore()) {
+            response.header(RosterCursor.NEXT_CURSOR_HEADER, RosterCursor.encode(page.lastSequence()));
+        }
+        return response.body(Response.handledWith(page.employees()));
     }
 
     @GetMapping("/{id}")
@@ -44,8 +127,45 @@ public class MockEmployeeController {
         return Response.handledWith(mockEmployeeService.create(input));
     }
 
+    /**
+     * Creates up to {@value #MAX_BATCH_SIZE} employees in one request and one store write. Items are validated one by
+     * one; invalid items are reported and skipped without failing the rest.
+     */
+    @PostMapping("/batch")
+    public Response<List<MockEmployeeBatchResult>> createEmployees(@RequestBody List<CreateMockEmployeeInput> inputs) {
+        checkBatchSize(inputs);
+        return Response.handledWith(mockEmployeeService.createAll(inputs));
+    }
+
+    /**
+     * Deletes up to {@value #MAX_BATCH_SIZE} employees by id in one request and one store write.
+     */
+    @DeleteMapping("/batch")
+    public Response<List<MockEmployeeBatchResult>> deleteEmployees(@RequestBody List<UUID> ids) {
+        checkBatchSize(ids);
+        return Response.handledWith(mockEmployeeService.deleteAll(ids));
+    }
+
     @DeleteMapping()
     public Response<Boolean> deleteEmployee(@Valid @RequestBody DeleteMockEmployeeInput input) {
         return Response.handledWith(mockEmployeeService.delete(input));
     }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Response<MockEmployee>> deleteEmployeeById(@PathVariable("id") UUID uuid) {
+        return mockEmployeeService
+                .delete(uuid)
+                .map(employee -> ResponseEntity.ok(Response.handledWith(employee)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Response.handled()));
+    }
+
+    private static long lastVersion(List<MockEmployeeChange> changes) {
+        return changes.get(changes.size() - 1).version();
+    }
+
+    private static void checkBatchSize(List<?> items) {
+        if (items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch must have between 1 and " + MAX_BATCH_SIZE + " items");
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package com.reliaquest.server.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.UUID;
+
+/**
+ * Outcome of one item of a batch request, identified by its position in the request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MockEmployeeBatchResult(int index, Status status, UUID id, MockEmployee employee, String error) {
+
+    public static MockEmployeeBatchResult created(int index, MockEmployee employee) {
+        return new MockEmployeeBatchResult(index, Status.CREATED, employee.getId(), employee, null);
+    }
+
+    public static MockEmployeeBatchResult deleted(int index, MockEmployee employee) {
+        return new MockEmployeeBatchResult(index, Status.DELETED, employee.getId(), employee, null);
+    }
+
+    public static MockEmployeeBatchResult notFound(int index, UUID id) {
+        return new MockEmployeeBatchResult(index, Status.NOT_FOUND, id, null, null);
+    }
+
+    public static MockEmployeeBatchResult invalid(int index, String error) {
+        return new MockEmployeeBatchResult(index, Status.INVALID, null, null, error);
+    }
+
+    public enum Status {
+        CREATED,
+        DELETED,
+        NOT_FOUND,
+        INVALID
+    }
+}
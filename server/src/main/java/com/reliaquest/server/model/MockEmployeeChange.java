@@ -0,0 +1,25 @@
+package com.reliaquest.server.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.UUID;
+
+/**
+ * One write to the roster. {@code version} is the roster version the write produced; a {@link Type#CREATED} entry
+ * replaces any employee with the same id.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MockEmployeeChange(long version, Type type, UUID id, MockEmployee employee) {
+
+    public static MockEmployeeChange created(long version, MockEmployee employee) {
+        return new MockEmployeeChange(version, Type.CREATED, employee.getId(), employee);
+    }
+
+    public static MockEmployeeChange deleted(long version, UUID id) {
+        return new MockEmployeeChange(version, Type.DELETED, id, null);
+    }
+
+    public enum Type {
+        CREATED,
+        DELETED
+    }
+}
@@ -0,0 +1,143 @@
+package com.reliaquest.server.service;
+
+import com.reliaquest.server.model.MockEmployeeChange;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes roster changes to server-sent event subscribers as they happen.
+ * <p>
+ * Each subscriber has a cursor, the last version it was sent. After a write, one dispatcher thread reads each
+ * subscriber's changes since its cursor from the store's change log and sends them. Events therefore always arrive in
+ * version order, and a subscriber that reconnects with its last event id resumes exactly where it left off. A
+ * subscriber whose cursor has fallen out of the change log is sent a {@code resync} event and disconnected. Idle
+ * streams get a {@code heartbeat} event carrying the current version.
+ */
+@Slf4j
+@Service
+public class MockEmployeeChangeStream implements DisposableBean {
+
+    public static final String CHANGE_EVENT = "change";
+    public static final String RESYNC_EVENT = "resync";
+    public static final String HEARTBEAT_EVENT = "heartbeat";
+
+    private final MockEmployeeStore mockEmployeeStore;
+    private final ScheduledExecutorService dispatcher;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainPending = new AtomicBoolean();
+
+    public MockEmployeeChangeStream(
+            MockEmployeeStore mockEmployeeStore,
+            @Value("${mock.employees.change-stream.heartbeat:PT5S}") Duration heartbeat) {
+        this.mockEmployeeStore = mockEmployeeStore;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "roster-change-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher.scheduleWithFixedDelay(
+                this::sendHeartbeats, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        mockEmployeeStore.onWrite(this::scheduleDrain);
+    }
+
+    /**
+     * @param since the last version the subscriber has; it is sent every change after that
+     */
+    public SseEmitter subscribe(long since) {
+        // No timeout: the stream stays open until the client goes away or the server shuts down.
+        final var emitter = new SseEmitter(0L);
+        final var subscriber = new Subscriber(emitter, since);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // Changes made before the subscription are sent straight away.
+        dispatcher.execute(() -> drain(subscriber));
+        return emitter;
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+    }
+
+    private void scheduleDrain() {
+        // Any number of writes before the dispatcher gets to it are sent in one pass.
+        if (drainPending.compareAndSet(false, true)) {
+            dispatcher.execute(() -> {
+                drainPending.set(false);
+                subscribers.forEach(this::drain);
+            });
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        final var changes = mockEmployeeStore.changesSince(subscriber.cursor);
+        try {
+            if (changes.isEmpty()) {
+                subscriber.emitter().send(SseEmitter.event().name(RESYNC_EVENT).data(mockEmployeeStore.version()));
+                close(subscriber);
+                return;
+            }
+            for (MockEmployeeChange change : changes.get()) {
+                subscriber.emitter().send(SseEmitter.event()
+                        .id(Long.toString(change.version()))
+                        .name(CHANGE_EVENT)
+                        .data(change));
+                subscriber.cursor = change.version();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping roster change subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private void sendHeartbeats() {
+        final var version = mockEmployeeStore.version();
+        for (Subscriber subscriber : subscribers) {
+            // A subscriber that is behind gets its changes instead; the heartbeat only confirms it is current.
+            if (subscriber.cursor != version) {
+                drain(subscriber);
+                continue;
+            }
+            try {
+                subscriber.emitter().send(SseEmitter.event().name(HEARTBEAT_EVENT).data(version));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping roster change subscriber: {}", e.getMessage());
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.emitter().complete();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // Only touched on the dispatcher thread.
+        private long cursor;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        private SseEmitter emitter() {
+            return emitter;
+        }
+    }
+}
@@ -4,11 +4,16 @@ import com.reliaquest.server.config.ServerConfiguration;
 import com.reliaquest.server.model.CreateMockEmployeeInput;
 import com.reliaquest.server.model.DeleteMockEmployeeInput;
 import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.MockEmployeeBatchResult;
+import com.reliaquest.server.model.MockEmployeeChange;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import lombok.Getter;
+import java.util.stream.Collectors;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,14 +27,50 @@ public class MockEmployeeService {
 
     private final Faker faker;
 
-    @Getter
-    private final List<MockEmployee> mockEmployees;
+    private final MockEmployeeStore mockEmployeeStore;
+
+    private final Validator validator;
+
+    private final MeterRegistry meterRegistry;
+
+    // Every start generates a new roster, so versions are only comparable within one instance.
+    private final String rosterInstance = UUID.randomUUID().toString().substring(0, 8);
+
+    /*
+     * Live view of the store; safe to serialize while other requests create or delete employees.
+     */
+    public Collection<MockEmployee> getMockEmployees() {
+        return mockEmployeeStore.employees();
+    }
+
+    /**
+     * The roster version changes with every create and delete. Read it before the roster itself, so the roster served
+     * under a version is never older than the version.
+     */
+    public long getRosterVersion() {
+        return mockEmployeeStore.version();
+    }
+
+    /**
+     * Entity tag of the roster at {@code version}.
+     */
+    public String getRosterTag(long version) {
+        return rosterInstance + "-" + version;
+    }
+
+    /**
+     * @return empty if the changes since {@code since} are no longer all known; the caller must reread the roster
+     */
+    public Optional<List<MockEmployeeChange>> getChangesSince(long since) {
+        return mockEmployeeStore.changesSince(since);
+    }
+
+    public MockEmployeeStore.Page getMockEmployeePage(long afterSequence, int limit) {
+        return mockEmployeeStore.page(afterSequence, limit);
+    }
 
     public Optional<MockEmployee> findById(@NonNull UUID uuid) {
-        return mockEmployees.stream()
-                .filter(mockEmployee -> Objects.nonNull(mockEmployee.getId())
-                        && mockEmployee.getId().equals(uuid))
-                .findFirst();
+        return mockEmployeeStore.findById(uuid);
     }
 
     public MockEmployee create(@NonNull CreateMockEmployeeInput input) {
@@ -37,22 +78,102 @@ public class MockEmployeeService {
                 ServerConfiguration.EMAIL_TEMPLATE.formatted(
                         faker.twitter().userName().toLowerCase()),
                 input);
-        mockEmployees.add(mockEmployee);
+        mockEmployeeStore.add(mockEmployee);
+        countWrites("create", "created", 1);
         log.debug("Added employee: {}", mockEmployee);
         return mockEmployee;
     }
 
+    /**
+     * Validates each input on its own and adds all the valid ones in a single store write.
+     *
+     * @return one result per input, in the same order
+     */
+    public List<MockEmployeeBatchResult> createAll(@NonNull List<CreateMockEmployeeInput> inputs) {
+        final var results = new ArrayList<MockEmployeeBatchResult>(inputs.size());
+        final var employees = new ArrayList<MockEmployee>(inputs.size());
+        for (int index = 0; index < inputs.size(); index++) {
+            final var input = inputs.get(index);
+            final var error = validationError(input);
+            if (error != null) {
+                results.add(MockEmployeeBatchResult.invalid(index, error));
+                continue;
+            }
+            final var mockEmployee = MockEmployee.from(
+                    ServerConfiguration.EMAIL_TEMPLATE.formatted(
+                            faker.twitter().userName().toLowerCase()),
+                    input);
+            employees.add(mockEmployee);
+            results.add(MockEmployeeBatchResult.created(index, mockEmployee));
+        }
+        mockEmployeeStore.addAll(employees);
+        countWrites("create", "created", employees.size());
+        countWrites("create", "invalid", inputs.size() - employees.size());
+        log.debug("Added {} of {} employees in a batch", employees.size(), inputs.size());
+        return results;
+    }
+
+    /**
+     * Removes all the listed employees in a single store write.
+     *
+     * @return one result per id, in the same order
+     */
+    public List<MockEmployeeBatchResult> deleteAll(@NonNull List<UUID> ids) {
+        final var removed = mockEmployeeStore.removeAll(ids);
+        final var results = new ArrayList<MockEmployeeBatchResult>(ids.size());
+        for (int index = 0; index < ids.size(); index++) {
+            final var position = index;
+            results.add(removed.get(index)
+                    .map(employee -> MockEmployeeBatchResult.deleted(position, employee))
+                    .orElseGet(() -> MockEmployeeBatchResult.notFound(position, ids.get(position))));
+        }
+        final var deleted = removed.stream().filter(Optional::isPresent).count();
+        countWrites("delete", "deleted", deleted);
+        countWrites("delete", "not-found", ids.size() - deleted);
+        log.debug("Removed {} of {} employees in a batch", deleted, ids.size());
+        return results;
+    }
+
     public boolean delete(@NonNull DeleteMockEmployeeInput input) {
-        final var mockEmployee = mockEmployees.stream()
-                .filter(employee -> Objects.nonNull(employee.getName())
-                        && employee.getName().equalsIgnoreCase(input.getName()))
-                .findFirst();
-        if (mockEmployee.isPresent()) {
-            mockEmployees.remove(mockEmployee.get());
-            log.debug("Removed employee: {}", mockEmployee.get());
-            return true;
+        final var mockEmployee = mockEmployeeStore.removeFirstByName(input.getName());
+        countDelete(mockEmployee);
+        mockEmployee.ifPresent(employee -> log.debug("Removed employee: {}", employee));
+        return mockEmployee.isPresent();
+    }
+
+    private String validationError(CreateMockEmployeeInput input) {
+        if (input == null) {
+            return "employee must not be null";
+        }
+        final var violations = validator.validate(input);
+        if (violations.isEmpty()) {
+            return null;
         }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    public Optional<MockEmployee> delete(@NonNull UUID uuid) {
+        final var mockEmployee = mockEmployeeStore.remove(uuid);
+        countDelete(mockEmployee);
+        mockEmployee.ifPresent(employee -> log.debug("Removed employee: {}", employee));
+        return mockEmployee;
+    }
 
-        return false;
+    private void countDelete(Optional<MockEmployee> removed) {
+        countWrites("delete", removed.isPresent() ? "deleted" : "not-found", 1);
+    }
+
+    /*
+     * Counted per employee, so a batch of 100 adds 100 to its operation and outcome.
+     */
+    private void countWrites(String operation, String outcome, long employees) {
+        if (employees > 0) {
+            meterRegistry
+                    .counter("mock.employees.writes", "operation", operation, "outcome", outcome)
+                    .increment(employees);
+        }
     }
 }
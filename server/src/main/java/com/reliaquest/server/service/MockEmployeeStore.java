@@ -0,0 +1,273 @@
+package com.reliaquest.server.service;
+
+import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.MockEmployeeChange;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent employee roster backing {@link MockEmployeeService}.
+ * <p>
+ * Employees are kept in insertion order in a skip list keyed by a sequence number, with hash indexes by id and
+ * lower-cased name. Readers never lock: lookups are hash reads and {@link #employees()} is a weakly consistent view that
+ * can be iterated (and serialized) while writers are active without {@code ConcurrentModificationException}.
+ * <p>
+ * Writers take a single lock, so writes are linearizable and the indexes always agree with each other. Every write
+ * takes the next sequence number and publishes it as the store {@link #version()}. A reader that reads the version
+ * first and then iterates sees at least every write up to that version.
+ * <p>
+ * The last {@code changeLogCapacity} writes are also kept as {@link MockEmployeeChange}s, so a client that knows the
+ * version it last saw can catch up with {@link #changesSince(long)} instead of reading the whole roster. The seed is
+ * not logged. Callbacks registered with {@link #onWrite(Runnable)} run after each write is published.
+ */
+public class MockEmployeeStore {
+
+    public static final int DEFAULT_CHANGE_LOG_CAPACITY = 10_000;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ConcurrentSkipListMap<Long, MockEmployee> employeesBySequence = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Entry> entriesById = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentSkipListSet<Long>> sequencesByName = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, MockEmployeeChange> changeLog = new ConcurrentSkipListMap<>();
+    private final int changeLogCapacity;
+    // Both only touched under the write lock.
+    private int loggedChanges;
+    private boolean logChanges;
+    private final List<Runnable> writeCallbacks = new CopyOnWriteArrayList<>();
+    private volatile long version;
+
+    public MockEmployeeStore(Collection<MockEmployee> seed) {
+        this(seed, 0, DEFAULT_CHANGE_LOG_CAPACITY);
+    }
+
+    /**
+     * @param initialVersion version of the empty store. Starting each instance from a different, increasing value
+     *     keeps versions from an earlier instance from being mistaken for this one's.
+     */
+    public MockEmployeeStore(Collection<MockEmployee> seed, long initialVersion, int changeLogCapacity) {
+        this.version = initialVersion;
+        this.changeLogCapacity = changeLogCapacity;
+        addAll(seed);
+        this.logChanges = true;
+    }
+
+    /**
+     * @return live, insertion-ordered, unmodifiable view of the roster
+     */
+    public Collection<MockEmployee> employees() {
+        return Collections.unmodifiableCollection(employeesBySequence.values());
+    }
+
+    /**
+     * Employees added after {@code afterSequence}, oldest first. Sequence numbers never move, so paging by the last
+     * sequence returned neither skips nor repeats employees when others are added or removed between pages.
+     *
+     * @param afterSequence sequence of the last employee already seen, 0 to start from the beginning
+     */
+    public Page page(long afterSequence, int limit) {
+        final var employees = new ArrayList<MockEmployee>(limit);
+        long lastSequence = afterSequence;
+        final var iterator =
+                employeesBySequence.tailMap(afterSequence, false).entrySet().iterator();
+        while (employees.size() < limit && iterator.hasNext()) {
+            final var entry = iterator.next();
+            employees.add(entry.getValue());
+            lastSequence = entry.getKey();
+        }
+        return new Page(employees, lastSequence, iterator.hasNext());
+    }
+
+    /**
+     * Every write after version {@code since}, oldest first; empty if {@code since} is current.
+     *
+     * @return empty if some of those writes have already left the change log, or {@code since} is not a version of
+     *     this store; the caller has to read the whole roster instead
+     */
+    public Optional<List<MockEmployeeChange>> changesSince(long since) {
+        final long current = version;
+        if (since == current) {
+            return Optional.of(List.of());
+        }
+        if (since > current) {
+            return Optional.empty();
+        }
+        final var changes = new ArrayList<>(changeLog.subMap(since, false, current, true).values());
+        // Writers trim the log concurrently, so check that nothing between since and current is missing.
+        if (changes.size() != current - since || changes.get(0).version() != since + 1) {
+            return Optional.empty();
+        }
+        return Optional.of(changes);
+    }
+
+    /**
+     * Runs {@code callback} after every write, on the writing thread. Callbacks should only hand off work; several
+     * writes may be published before one runs.
+     */
+    public void onWrite(Runnable callback) {
+        writeCallbacks.add(callback);
+    }
+
+    public Optional<MockEmployee> findById(UUID id) {
+        return Optional.ofNullable(entriesById.get(id)).map(Entry::employee);
+    }
+
+    public int size() {
+        return entriesById.size();
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public MockEmployee add(MockEmployee employee) {
+        addAll(List.of(employee));
+        return employee;
+    }
+
+    /**
+     * Adds every employee under one acquisition of the write lock.
+     */
+    public void addAll(Collection<MockEmployee> employees) {
+        writeLock.lock();
+        try {
+            for (MockEmployee employee : employees) {
+                Objects.requireNonNull(employee.getId(), "employee id");
+                removeLocked(employee.getId());
+                long sequence = version + 1;
+                employeesBySequence.put(sequence, employee);
+                entriesById.put(employee.getId(), new Entry(sequence, employee));
+                if (Objects.nonNull(employee.getName())) {
+                    sequencesByName
+                            .computeIfAbsent(nameKey(employee.getName()), name -> new ConcurrentSkipListSet<>())
+                            .add(sequence);
+                }
+                logLocked(MockEmployeeChange.created(sequence, employee));
+                // Published only once the write is visible, so version-then-read never misses it.
+                version = sequence;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (!employees.isEmpty()) {
+            writeCallbacks.forEach(Runnable::run);
+        }
+    }
+
+    public Optional<MockEmployee> remove(UUID id) {
+        final Optional<MockEmployee> removed;
+        writeLock.lock();
+        try {
+            removed = removeAndLogLocked(id);
+        } finally {
+            writeLock.unlock();
+        }
+        if (removed.isPresent()) {
+            writeCallbacks.forEach(Runnable::run);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every listed employee under one acquisition of the write lock.
+     *
+     * @return the removed employee for each id, in the order given; empty where the id was unknown
+     */
+    public List<Optional<MockEmployee>> removeAll(List<UUID> ids) {
+        final var removed = new ArrayList<Optional<MockEmployee>>(ids.size());
+        boolean wrote = false;
+        writeLock.lock();
+        try {
+            for (UUID id : ids) {
+                final var employee = removeLocked(id);
+                if (employee.isPresent()) {
+                    logLocked(MockEmployeeChange.deleted(version + 1, id));
+                    version++;
+                    wrote = true;
+                }
+                removed.add(employee);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (wrote) {
+            writeCallbacks.forEach(Runnable::run);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the earliest added employee with this name, ignoring case.
+     */
+    public Optional<MockEmployee> removeFirstByName(String name) {
+        Optional<MockEmployee> removed = Optional.empty();
+        writeLock.lock();
+        try {
+            final var sequences = sequencesByName.get(nameKey(name));
+            if (sequences != null && !sequences.isEmpty()) {
+                removed = removeAndLogLocked(employeesBySequence.get(sequences.first()).getId());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        // Outside the lock, like every other write, so a slow callback never holds up writers.
+        if (removed.isPresent()) {
+            writeCallbacks.forEach(Runnable::run);
+        }
+        return removed;
+    }
+
+    private Optional<MockEmployee> removeAndLogLocked(UUID id) {
+        final var removed = removeLocked(id);
+        if (removed.isPresent()) {
+            logLocked(MockEmployeeChange.deleted(version + 1, id));
+            version++;
+        }
+        return removed;
+    }
+
+    private Optional<MockEmployee> removeLocked(UUID id) {
+        final var entry = entriesById.remove(id);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        employeesBySequence.remove(entry.sequence());
+        if (Objects.nonNull(entry.employee().getName())) {
+            sequencesByName.computeIfPresent(nameKey(entry.employee().getName()), (name, sequences) -> {
+                sequences.remove(entry.sequence());
+                return sequences.isEmpty() ? null : sequences;
+            });
+        }
+        return Optional.of(entry.employee());
+    }
+
+    private void logLocked(MockEmployeeChange change) {
+        if (!logChanges) {
+            return;
+        }
+        changeLog.put(change.version(), change);
+        if (++loggedChanges > changeLogCapacity) {
+            changeLog.pollFirstEntry();
+            loggedChanges--;
+        }
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(long sequence, MockEmployee employee) {}
+
+    public record Page(List<MockEmployee> employees, long lastSequence, boolean hasMore) {}
+}
@@ -1,5 +1,7 @@
 package com.reliaquest.server.web;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.time.Duration;
@@ -18,6 +20,22 @@ public class RandomRequestLimitInterceptor implements HandlerInterceptor {
 
     private final AtomicReference<RequestLimit> requestLimit = new AtomicReference<>(RequestLimit.init());
 
+    private final Counter admitted;
+
+    private final Counter rejected;
+
+    public RandomRequestLimitInterceptor(MeterRegistry meterRegistry) {
+        admitted = counter(meterRegistry, "admitted");
+        rejected = counter(meterRegistry, "rejected");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("mock.requests.limited")
+                .description("Requests checked against the random request limit")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
         if (requestLimit.get().getCount() >= REQUEST_LIMIT) {
@@ -25,6 +43,7 @@ public class RandomRequestLimitInterceptor implements HandlerInterceptor {
                     .minus(REQUEST_BACKOFF_DURATION)
                     .isBefore(requestLimit.get().getLastRequested())) {
                 response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                rejected.increment();
                 return false;
             }
             if (Instant.now()
@@ -37,6 +56,7 @@ public class RandomRequestLimitInterceptor implements HandlerInterceptor {
                     currentRequestLimit -> new RequestLimit(currentRequestLimit.count() + 1, Instant.now()));
         }
 
+        admitted.increment();
         return true;
     }
 
@@ -0,0 +1,61 @@
+package com.reliaquest.server.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MockEmployeeSeederTest {
+
+    // More than one chunk, so the chunks run in parallel.
+    private static final int SIZE = MockEmployeeSeeder.CHUNK_SIZE * 2 + 7;
+
+    private final MockEmployeeSeeder seeder = new MockEmployeeSeeder(new ObjectMapper(), Locale.ENGLISH);
+
+    @Test
+    @DisplayName("Two runs with the same seed produce identical rosters, and another seed a different one")
+    void sameSeed_sameRoster() {
+        final var first = seeder.seed(SIZE, 42L, null);
+        final var second = seeder.seed(SIZE, 42L, null);
+
+        assertEquals(SIZE, first.size());
+        assertEquals(first, second);
+        assertNotEquals(first, seeder.seed(SIZE, 43L, null));
+    }
+
+    @Test
+    @DisplayName("A roster written to a file is loaded back unchanged on the next run")
+    void file_writtenOnceThenLoaded(@TempDir Path directory) {
+        final var file = directory.resolve("roster.jsonl");
+
+        final var generated = seeder.seed(100, 42L, file);
+        assertTrue(Files.exists(file));
+        final var loaded = seeder.seed(100, 42L, file);
+
+        assertEquals(generated, loaded);
+        assertEquals(List.of(), seeder.configurationMismatches(loaded, 100, 42L));
+        assertEquals(List.of(), seeder.configurationMismatches(loaded, 100, null));
+    }
+
+    @Test
+    @DisplayName("A file that does not match mock.employees.max or the seed is still used, and the mismatch reported")
+    void file_mismatchedConfiguration(@TempDir Path directory) {
+        final var file = directory.resolve("roster.jsonl");
+        final var generated = seeder.seed(100, 42L, file);
+
+        assertEquals(generated, seeder.seed(50, 7L, file));
+        assertEquals(
+                List.of(
+                        "has 100 employees but mock.employees.max is 50",
+                        "was not generated with mock.employees.seed 7"),
+                seeder.configurationMismatches(generated, 50, 7L));
+    }
+}
@@ -0,0 +1,131 @@
+package com.reliaquest.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import com.reliaquest.server.controller.MockEmployeeController;
+import com.reliaquest.server.model.CreateMockEmployeeInput;
+import com.reliaquest.server.model.MockEmployee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import net.datafaker.Faker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@Timeout(value = 10, unit = TimeUnit.SECONDS)
+class MockEmployeeChangeStreamTest {
+
+    private static final String STREAM_PATH = "/api/v1/employee/changes/stream";
+    private static final Pattern EVENT_ID = Pattern.compile("(?m)^id:(\\d+)$");
+
+    private MockEmployeeChangeStream changeStream;
+    private MockEmployeeService service;
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        changeStream.destroy();
+    }
+
+    @Test
+    @DisplayName("A subscriber reconnecting with Last-Event-ID is sent every later change in order, then live ones")
+    void subscribe_resumesFromLastEventId() throws Exception {
+        setUp(new MockEmployeeStore(List.of()), Duration.ofMinutes(1));
+        service.createAll(List.of(input("Alice"), input("Bob"), input("Carol")));
+
+        final var response = mockMvc.perform(get(STREAM_PATH).header("Last-Event-ID", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+        awaitContent(response, "id:3\n");
+        service.create(input("Dave"));
+        awaitContent(response, "id:4\n");
+
+        assertEquals(List.of(2L, 3L, 4L), eventIds(response.getContentAsString()));
+        assertFalse(response.getContentAsString().contains("event:resync"));
+    }
+
+    @Test
+    @DisplayName("A subscriber whose version has left the change log is sent a resync event with the current version")
+    void subscribe_fromUnloggedVersion_resyncs() throws Exception {
+        // Seeded employees are never logged, so the seed's versions cannot be resumed from.
+        final var seed = List.of(employee("Alice"), employee("Bob"));
+        setUp(new MockEmployeeStore(seed), Duration.ofMinutes(1));
+
+        final var response = mockMvc.perform(get(STREAM_PATH).param("since", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+        awaitContent(response, "event:resync\n");
+
+        assertTrue(response.getContentAsString().contains("data:2\n"), response.getContentAsString());
+        assertEquals(List.of(), eventIds(response.getContentAsString()));
+    }
+
+    @Test
+    @DisplayName("An idle subscriber gets heartbeats carrying the current version, so it can tell a stalled stream")
+    void idleSubscriber_getsHeartbeats() throws Exception {
+        setUp(new MockEmployeeStore(List.of()), Duration.ofMillis(50));
+        service.create(input("Alice"));
+
+        final var response = mockMvc.perform(get(STREAM_PATH))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+        awaitContent(response, "event:heartbeat\ndata:1\n");
+
+        assertEquals(List.of(), eventIds(response.getContentAsString()));
+    }
+
+    private void setUp(MockEmployeeStore store, Duration heartbeat) {
+        service = new MockEmployeeService(
+                new Faker(Locale.ENGLISH),
+                store,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new SimpleMeterRegistry());
+        changeStream = new MockEmployeeChangeStream(store, heartbeat);
+        mockMvc = MockMvcBuilders.standaloneSetup(new MockEmployeeController(service, changeStream))
+                .build();
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        // The dispatcher thread writes events to the response as they are sent.
+        while (!response.getContentAsString().contains(expected)) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<Long> eventIds(String content) {
+        return EVENT_ID.matcher(content)
+                .results()
+                .map(match -> Long.parseLong(match.group(1)))
+                .toList();
+    }
+
+    private static CreateMockEmployeeInput input(String name) {
+        final var input = new CreateMockEmployeeInput();
+        input.setName(name);
+        input.setSalary(50_000);
+        input.setAge(30);
+        input.setTitle("Engineer");
+        return input;
+    }
+
+    private static MockEmployee employee(String name) {
+        return MockEmployee.builder().id(UUID.randomUUID()).name(name).build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.reliaquest.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.reliaquest.server.model.CreateMockEmployeeInput;
+import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.MockEmployeeBatchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import net.datafaker.Faker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MockEmployeeServiceTest {
+
+    private final MockEmployeeStore store = new MockEmployeeStore(List.of());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockEmployeeService service = new MockEmployeeService(
+            new Faker(Locale.ENGLISH),
+            store,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            meterRegistry);
+
+    @Test
+    @DisplayName("A batch create validates each input on its own and adds the valid ones in one store write")
+    void createAll_validatesEachInput() {
+        final var blankName = input("", 30);
+        final var tooYoung = input("Young", 12);
+
+        final var results = service.createAll(Arrays.asList(input("Alice", 30), blankName, null, tooYoung));
+
+        assertEquals(
+                List.of(0, 1, 2, 3),
+                results.stream().map(MockEmployeeBatchResult::index).toList());
+        assertEquals(
+                List.of(
+                        MockEmployeeBatchResult.Status.CREATED,
+                        MockEmployeeBatchResult.Status.INVALID,
+                        MockEmployeeBatchResult.Status.INVALID,
+                        MockEmployeeBatchResult.Status.INVALID),
+                results.stream().map(MockEmployeeBatchResult::status).toList());
+        // Constraint messages follow the default locale, so only the property is checked.
+        assertTrue(results.get(1).error().startsWith("name "), results.get(1).error());
+        assertEquals("employee must not be null", results.get(2).error());
+        assertTrue(results.get(3).error().startsWith("age "), results.get(3).error());
+        assertNull(results.get(1).id());
+
+        final var alice = results.get(0).employee();
+        assertEquals("Alice", alice.getName());
+        assertEquals(alice.getId(), results.get(0).id());
+        assertEquals(List.of(alice), List.copyOf(store.employees()));
+        assertEquals(1, store.version());
+        assertEquals(1.0, writes("create", "created"));
+        assertEquals(3.0, writes("create", "invalid"));
+    }
+
+    @Test
+    @DisplayName("A batch delete answers every id in request order, found or not, with one store write")
+    void deleteAll_answersEveryId() {
+        final var created = new ArrayList<MockEmployee>();
+        for (final var result : service.createAll(List.of(input("Alice", 30), input("Bob", 40)))) {
+            created.add(result.employee());
+        }
+        final var unknown = UUID.randomUUID();
+        final long versionBefore = store.version();
+
+        final var results = service.deleteAll(List.of(created.get(1).getId(), unknown, created.get(0).getId()));
+
+        assertEquals(
+                List.of(
+                        MockEmployeeBatchResult.Status.DELETED,
+                        MockEmployeeBatchResult.Status.NOT_FOUND,
+                        MockEmployeeBatchResult.Status.DELETED),
+                results.stream().map(MockEmployeeBatchResult::status).toList());
+        assertEquals(
+                List.of(0, 1, 2),
+                results.stream().map(MockEmployeeBatchResult::index).toList());
+        assertEquals(created.get(1), results.get(0).employee());
+        assertEquals(unknown, results.get(1).id());
+        assertEquals(List.of(), List.copyOf(store.employees()));
+        assertEquals(versionBefore + 2, store.version());
+        assertEquals(2.0, writes("delete", "deleted"));
+        assertEquals(1.0, writes("delete", "not-found"));
+    }
+
+    private double writes(String operation, String outcome) {
+        return meterRegistry
+                .get("mock.employees.writes")
+                .tags("operation", operation, "outcome", outcome)
+                .counter()
+                .count();
+    }
+
+    private static CreateMockEmployeeInput input(String name, int age) {
+        final var input = new CreateMockEmployeeInput();
+        input.setName(name);
+        input.setSalary(50_000);
+        input.setAge(age);
+        input.setTitle("Engineer");
+        return input;
+    }
+}
@@ -0,0 +1,305 @@
+package com.reliaquest.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.MockEmployeeChange;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class MockEmployeeStoreTest {
+
+    private static final int SEED_SIZE = 10_000;
+    private static final int WRITES_PER_WRITER = 5_000;
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Concurrent creates and deletes lose no updates while readers iterate the roster")
+    void concurrentWriters_loseNoUpdates() throws Exception {
+        final var seed = employees(SEED_SIZE, "seed");
+        final var store = new MockEmployeeStore(seed);
+        final int writers = 8;
+        final var readErrors = new ConcurrentLinkedQueue<Throwable>();
+        final var stop = new AtomicBoolean();
+        final var pool = Executors.newFixedThreadPool(writers + 4);
+        try {
+            final var readers = new ArrayList<Future<?>>();
+            for (int i = 0; i < 4; i++) {
+                readers.add(pool.submit(() -> {
+                    while (!stop.get()) {
+                        try {
+                            long seen = 0;
+                            for (MockEmployee employee : store.employees()) {
+                                seen += employee.getSalary();
+                            }
+                            assertTrue(seen > 0);
+                        } catch (Throwable e) {
+                            readErrors.add(e);
+                        }
+                    }
+                }));
+            }
+
+            // Each writer adds its own employees and deletes half of them plus a disjoint slice of the seed.
+            final var start = new CountDownLatch(1);
+            final var writes = new ArrayList<Future<List<MockEmployee>>>();
+            for (int w = 0; w < writers; w++) {
+                final int writer = w;
+                writes.add(pool.submit(() -> {
+                    start.await();
+                    final var added = employees(WRITES_PER_WRITER, "writer-" + writer);
+                    final var kept = new ArrayList<MockEmployee>();
+                    for (int i = 0; i < added.size(); i++) {
+                        store.add(added.get(i));
+                        if (i % 2 == 0) {
+                            assertTrue(store.remove(added.get(i).getId()).isPresent());
+                        } else {
+                            kept.add(added.get(i));
+                        }
+                    }
+                    for (int i = writer; i < SEED_SIZE; i += writers * 2) {
+                        assertTrue(store.remove(seed.get(i).getId()).isPresent());
+                    }
+                    return kept;
+                }));
+            }
+            start.countDown();
+
+            final Set<UUID> expected = new HashSet<>();
+            for (Future<List<MockEmployee>> write : writes) {
+                write.get().forEach(employee -> expected.add(employee.getId()));
+            }
+            final var removedFromSeed = new HashSet<UUID>();
+            for (int writer = 0; writer < writers; writer++) {
+                for (int i = writer; i < SEED_SIZE; i += writers * 2) {
+                    removedFromSeed.add(seed.get(i).getId());
+                }
+            }
+            seed.stream()
+                    .map(MockEmployee::getId)
+                    .filter(id -> !removedFromSeed.contains(id))
+                    .forEach(expected::add);
+            stop.set(true);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+
+            assertTrue(readErrors.isEmpty(), () -> "reader failed: " + readErrors.peek());
+            assertEquals(expected.size(), store.size());
+            final var actual = new HashSet<UUID>();
+            store.employees().forEach(employee -> actual.add(employee.getId()));
+            assertEquals(expected, actual);
+            expected.forEach(id -> assertTrue(store.findById(id).isPresent()));
+            final long writeCount = SEED_SIZE
+                    + (long) writers * (WRITES_PER_WRITER + WRITES_PER_WRITER / 2)
+                    + removedFromSeed.size();
+            assertEquals(writeCount, store.version());
+        } finally {
+            stop.set(true);
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Deleting by name removes the earliest employee with that name")
+    void removeFirstByName_removesEarliest() {
+        final var first = employee("Jane Doe");
+        final var second = employee("jane doe");
+        final var store = new MockEmployeeStore(List.of(first, second));
+
+        assertEquals(first, store.removeFirstByName("JANE DOE").orElseThrow());
+        assertEquals(second, store.removeFirstByName("Jane Doe").orElseThrow());
+        assertTrue(store.removeFirstByName("Jane Doe").isEmpty());
+    }
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Paging neither skips nor repeats employees while the roster changes")
+    void page_isStableAcrossInsertsAndDeletes() {
+        final var seed = employees(10, "seed");
+        final var store = new MockEmployeeStore(seed);
+
+        final var first = store.page(0, 4);
+        assertEquals(seed.subList(0, 4), first.employees());
+        assertTrue(first.hasMore());
+
+        // Remove one employee already returned and one not yet returned, and add a new one at the end.
+        store.remove(seed.get(1).getId());
+        store.remove(seed.get(5).getId());
+        final var added = employee("added");
+        store.add(added);
+
+        final var seen = new ArrayList<>(first.employees());
+        var page = first;
+        while (page.hasMore()) {
+            page = store.page(page.lastSequence(), 4);
+            seen.addAll(page.employees());
+        }
+
+        final var expected = new ArrayList<>(seed);
+        expected.remove(5);
+        expected.add(added);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Changes since a version are replayed in order until they leave the log")
+    void changesSince_replaysUntilEvicted() {
+        final var store = new MockEmployeeStore(employees(5, "seed"), 100, 3);
+        assertEquals(105, store.version());
+        assertEquals(List.of(), store.changesSince(105).orElseThrow());
+
+        final var added = employee("added");
+        store.add(added);
+        store.remove(added.getId());
+        final var changes = store.changesSince(105).orElseThrow();
+        assertEquals(
+                List.of(MockEmployeeChange.created(106, added), MockEmployeeChange.deleted(107, added.getId())),
+                changes);
+
+        store.add(employee("more"));
+        store.add(employee("more"));
+        assertTrue(store.changesSince(105).isEmpty(), "oldest change has been evicted");
+        assertEquals(3, store.changesSince(106).orElseThrow().size());
+        assertTrue(store.changesSince(110).isEmpty(), "version from the future");
+        assertTrue(store.changesSince(99).isEmpty(), "seed is not logged");
+    }
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Removing a batch reports each id and publishes one write callback")
+    void removeAll_reportsEachId() {
+        final var seed = employees(3, "seed");
+        final var store = new MockEmployeeStore(seed);
+        final var callbacks = new AtomicLong();
+        store.onWrite(callbacks::incrementAndGet);
+        final var unknown = UUID.randomUUID();
+
+        final var removed = store.removeAll(List.of(seed.get(2).getId(), unknown, seed.get(0).getId()));
+
+        assertEquals(List.of(Optional.of(seed.get(2)), Optional.empty(), Optional.of(seed.get(0))), removed);
+        assertEquals(List.of(seed.get(1)), List.copyOf(store.employees()));
+        assertEquals(5, store.version());
+        assertEquals(1, callbacks.get());
+    }
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Deleting by name runs the write callback once, after the write lock is released")
+    void removeFirstByName_callbackOutsideTheLock() throws Exception {
+        final var jane = employee("Jane Doe");
+        final var store = new MockEmployeeStore(List.of(jane, employee("John Doe")));
+        final var writer = Executors.newSingleThreadExecutor();
+        final var callbacks = new AtomicLong();
+        store.onWrite(() -> {
+            if (callbacks.incrementAndGet() == 1) {
+                // Another thread's write would block on the lock if the callback still held it.
+                final var write = writer.submit(() -> store.add(employee("Jim Doe")));
+                try {
+                    write.get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        try {
+            assertEquals(jane, store.removeFirstByName("jane doe").orElseThrow());
+        } finally {
+            writer.shutdownNow();
+        }
+
+        assertEquals(2, callbacks.get());
+        assertTrue(store.removeFirstByName("Nobody").isEmpty());
+        assertEquals(2, callbacks.get());
+    }
+
+    /**
+     * Not a pass/fail check: prints how read throughput holds up as more writer threads contend for the store. Run with
+     * {@code ./gradlew server:benchmark}.
+     */
+    @Test
+    @Tag("benchmark")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    @DisplayName("Read throughput as writer threads scale")
+    void readThroughput_asWritersScale() throws Exception {
+        final int readers = 4;
+        for (int writers : new int[] {0, 1, 2, 4, 8}) {
+            final var store = new MockEmployeeStore(employees(SEED_SIZE, "seed"));
+            final var stop = new AtomicBoolean();
+            final var reads = new AtomicLong();
+            final var writes = new AtomicLong();
+            final ExecutorService pool = Executors.newFixedThreadPool(readers + writers);
+            try {
+                for (int i = 0; i < readers; i++) {
+                    pool.submit(() -> {
+                        final var ids = store.employees().stream()
+                                .map(MockEmployee::getId)
+                                .toList();
+                        int next = 0;
+                        while (!stop.get()) {
+                            store.findById(ids.get(next++ % ids.size()));
+                            reads.incrementAndGet();
+                        }
+                    });
+                }
+                for (int i = 0; i < writers; i++) {
+                    final int writer = i;
+                    pool.submit(() -> {
+                        int n = 0;
+                        while (!stop.get()) {
+                            final var employee = employee("writer-" + writer + "-" + n++);
+                            store.add(employee);
+                            store.remove(employee.getId());
+                            writes.addAndGet(2);
+                        }
+                    });
+                }
+                TimeUnit.SECONDS.sleep(2);
+                stop.set(true);
+            } finally {
+                pool.shutdown();
+                assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+            }
+            System.out.printf(
+                    "writers=%d reads/s=%,d writes/s=%,d%n", writers, reads.get() / 2, writes.get() / 2);
+        }
+    }
+
+    private static List<MockEmployee> employees(int count, String prefix) {
+        final var employees = new ArrayList<MockEmployee>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(employee(prefix + "-" + i));
+        }
+        return employees;
+    }
+
+    private static MockEmployee employee(String name) {
+        return MockEmployee.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .salary(50_000)
+                .age(30)
+                .title("Engineer")
+                .email(name.replace(' ', '.') + "@company.com")
+                .build();
+    }
+}